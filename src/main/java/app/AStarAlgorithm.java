@@ -0,0 +1,123 @@
+package app;
+
+import scheduleModel.*;
+import taskModel.TaskModel;
+
+import java.util.*;
+
+/**
+ * Best-first (A*) search over partial schedules.
+ * Partial schedules are kept in an open list ordered by their lower bound
+ * (the one chosen with setLowerBound(), by default all of them combined), and the
+ * cheapest one is always expanded next.  Because the lower bound never overestimates
+ * the final makespan, the first complete schedule taken off the open list is
+ * guaranteed to be optimal.
+ *
+ * This trades memory for time: unlike the DFS algorithms, every schedule
+ * on the frontier has to be kept in memory, so schedules are stored as
+ * compact ScheduleStates rather than Schedule objects.
+ */
+
+/**
+ * The state space and cost function are the same as described in:
+ * Venugopalan, S., & Sinnen, O. (2016). Memory limited algorithms for optimal
+ task scheduling on parallel systems. Journal of Parallel and Distributed
+ Computing, 92, 35-49. doi:10.1016/j.jpdc.2016.03.003
+ */
+public class AStarAlgorithm extends ObservableAlgorithm {
+
+    private IScheduler scheduler;
+
+    public AStarAlgorithm(TaskModel taskModel, int numOfProcessors) {
+        super(taskModel, numOfProcessors);
+        scheduler = new Scheduler();
+    }
+
+    @Override
+    public ISchedule run() {
+        int numTasks = taskModel.getTaskModelSize();
+
+        // Open list of schedules still to be expanded, cheapest first
+        PriorityQueue<SearchNode> open = new PriorityQueue<>();
+        // Every schedule that has been put on the open list - identical schedules
+        // always have the same cost, so there is no point adding them twice
+        Set<ScheduleState> seen = new HashSet<>();
+
+        int[] freeTasks = new int[numTasks];
+
+        useHeuristicSchedule();
+        ScheduleState root = new ScheduleState(taskModel, numOfProcessors);
+        open.add(new SearchNode(root, 0, cost(root)));
+        seen.add(root);
+
+        while (!open.isEmpty()) {
+            // Out of time, so the cheapest schedule left is as good as we can prove
+            if (stopRequested) {
+                openLowerBound = open.peek().cost;
+                break;
+            }
+
+            SearchNode node = open.poll();
+            numBranches++;
+            fire(EventType.NUM_BRANCHES_CHANGED);
+
+            // Nothing left on the open list can do better than this schedule
+            if (node.depth == numTasks) {
+                bestSchedule = node.state.asSchedule();
+                fire(EventType.BEST_SCHEDULE_UPDATED);
+                break;
+            }
+
+            // Expand the schedule by trying each free task on each processor
+            int numFree = getFreeTasks(node.state, freeTasks);
+            for (int i = 0; i < numFree; i++) {
+                int task = freeTasks[i];
+
+                // Processors are identical, so only one empty processor needs to be tried
+                boolean triedEmptyProcessor = false;
+                for (int processor = 0; processor < numOfProcessors; processor++) {
+                    if (node.state.isEmpty(processor)) {
+                        if (triedEmptyProcessor) continue;
+                        triedEmptyProcessor = true;
+                    }
+
+                    ScheduleState child = node.state.copy();
+                    scheduler.schedule(task, processor, child);
+
+                    if (seen.add(child)) {
+                        open.add(new SearchNode(child, node.depth + 1, cost(child)));
+                    }
+                }
+            }
+        }
+
+        fire(EventType.ALGORTHIM_FINISHED);
+        return bestSchedule;
+    }
+
+    /**
+     * An entry in the open list.  Entries are ordered by cost, and between
+     * equally cheap schedules the one with more tasks scheduled comes first so
+     * that complete schedules are reached as soon as possible.
+     */
+    private static class SearchNode implements Comparable<SearchNode> {
+        private ScheduleState state;
+        private int depth;
+        private double cost;
+
+        SearchNode(ScheduleState state, int depth, double cost) {
+            this.state = state;
+            this.depth = depth;
+            this.cost = cost;
+        }
+
+        @Override
+        public int compareTo(SearchNode other) {
+            int result = Double.compare(cost, other.cost);
+            if (result == 0) {
+                result = Integer.compare(other.depth, depth);
+            }
+            return result;
+        }
+    }
+}
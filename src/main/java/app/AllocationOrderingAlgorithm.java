@@ -0,0 +1,292 @@
+package app;
+
+import scheduleModel.*;
+import taskModel.TaskModel;
+
+import java.util.*;
+
+/**
+ * Depth first branch and bound over the allocation-ordering state space, which has
+ * no duplicate states.  The search is in two phases:
+ *  - Allocation: the tasks are given a processor one at a time, in topological order.
+ *    Processors are normalised: a task may go on any processor that already has a
+ *    task, or on the first unused one, so renumbering the processors never gives
+ *    another allocation.
+ *  - Ordering: once every task has a processor, the tasks are appended to their
+ *    processors at their earliest start times.  Every task must start later than the
+ *    one appended before it (or at the same time and later in topological order), so
+ *    each way of ordering the processors is only reached by one sequence of tasks.
+ * In the list scheduling tree DFSAlgorithm searches, the same schedule is reached by
+ * every order of appending its independent tasks; here each schedule is reached once.
+ *
+ * Both phases prune with bounds that know the allocation: the longest path through
+ * the graph counting only the communication between tasks known to be on different
+ * processors, and the work allocated to each processor.  The ordering phase also
+ * uses the lower bounds chosen with setLowerBound().
+ */
+
+/**
+ * Based on:
+ * Orr, M., & Sinnen, O. (2015). A duplicate-free state-space model for optimal
+ task scheduling. Euro-Par 2015: Parallel Processing, 516-527.
+ doi:10.1007/978-3-662-48096-0_40
+ */
+public class AllocationOrderingAlgorithm extends ObservableAlgorithm {
+
+    private static final int UNALLOCATED = -1;
+
+    private IScheduler scheduler = new Scheduler();
+    private int numTasks;
+    private int bound = Integer.MAX_VALUE; // Stores current best finish time
+
+    private int[] weights;
+    private int[] parentStarts;
+    private int[] parents;
+    private int[] parentCosts;
+    private int[] childStarts;
+    private int[] children;
+    private int[] equivalentPredecessors;
+
+    // The tasks in topological order, which is the order they are allocated in
+    private int[] topologicalOrder;
+
+    // Allocation phase state
+    private int[] allocation; // Processor of each task, or UNALLOCATED
+    private int[] allocatedWork; // Total weight of the tasks allocated to each processor
+
+    // Ordering phase state
+    private ScheduleState schedule;
+    private int[] unorderedWork; // Total weight of the tasks on each processor not ordered yet
+    private int[] unorderedParents;
+    // Only append tasks in order of start time.  This relies on every task taking some
+    // time, so it is turned off if any task has a weight of 0.
+    private boolean canonicalOrder;
+
+    // The bound on the empty schedule, which every schedule has to meet whatever the allocation
+    private int rootBound;
+    private int[] bottomLevels;
+
+    // Scratch space for the bounds
+    private int[] topLevels;
+    private int[] earliestStarts;
+    private int[] shortestTails;
+
+    private long allocationsExplored = 0;
+    private long orderingsExplored = 0;
+
+    public AllocationOrderingAlgorithm(TaskModel taskModel, int numOfProcessors) {
+        super(taskModel, numOfProcessors);
+    }
+
+    @Override
+    public ISchedule run() {
+        numTasks = taskModel.getTaskModelSize();
+        weights = taskModel.getWeights();
+        parentStarts = taskModel.getParentStarts();
+        parents = taskModel.getParents();
+        parentCosts = taskModel.getParentCosts();
+        childStarts = taskModel.getChildStarts();
+        children = taskModel.getChildren();
+        equivalentPredecessors = taskModel.getEquivalentPredecessors();
+
+        topologicalOrder = getTopologicalOrder();
+        canonicalOrder = true;
+        for (int weight : weights) {
+            if (weight == 0) canonicalOrder = false;
+        }
+
+        allocation = new int[numTasks];
+        Arrays.fill(allocation, UNALLOCATED);
+        allocatedWork = new int[numOfProcessors];
+        unorderedWork = new int[numOfProcessors];
+        unorderedParents = new int[numTasks];
+        bottomLevels = taskModel.getBottomLevels();
+        topLevels = new int[numTasks];
+        earliestStarts = new int[numOfProcessors];
+        shortestTails = new int[numOfProcessors];
+        schedule = new ScheduleState(taskModel, numOfProcessors);
+        rootBound = (int) Math.ceil(cost(schedule));
+
+        // Only schedules which beat the heuristics need to be searched
+        bound = useHeuristicSchedule().getFinishTime();
+
+        if (numTasks > 0) allocate(0, 0);
+        fire(EventType.ALGORTHIM_FINISHED);
+        return bestSchedule;
+    }
+
+    @Override
+    public String getStatistics() {
+        return "Allocations explored: " + allocationsExplored + System.lineSeparator()
+                + "Orderings explored: " + orderingsExplored;
+    }
+
+    /**
+     * Give the next task in topological order each processor it can go on, and search below
+     * each allocation that can still beat the bound.
+     * @param position how many tasks have been allocated
+     * @param processorsUsed how many processors have a task allocated to them
+     */
+    private void allocate(int position, int processorsUsed) {
+        int task = topologicalOrder[position];
+
+        // Processors are identical, so only the first unused processor needs to be tried
+        int numChoices = Math.min(processorsUsed + 1, numOfProcessors);
+        for (int processor = 0; processor < numChoices; processor++) {
+            allocation[task] = processor;
+            allocatedWork[processor] += weights[task];
+            numBranches++;
+            allocationsExplored++;
+            fire(EventType.NUM_BRANCHES_CHANGED);
+
+            int cost = getAllocationBound();
+            if (cost < bound) {
+                if (stopRequested) { // Out of time, so only remember how good it could be
+                    openLowerBound = Math.min(openLowerBound, cost);
+                } else if (position + 1 < numTasks) { // Keep allocating
+                    allocate(position + 1, Math.max(processorsUsed, processor + 1));
+                } else { // Every task has a processor, so order them
+                    startOrdering();
+                }
+            }
+
+            allocatedWork[processor] -= weights[task];
+            allocation[task] = UNALLOCATED;
+        }
+    }
+
+    private void startOrdering() {
+        System.arraycopy(allocatedWork, 0, unorderedWork, 0, numOfProcessors);
+        for (int task = 0; task < numTasks; task++) {
+            unorderedParents[task] = parentStarts[task + 1] - parentStarts[task];
+        }
+        order(0, -1, -1);
+    }
+
+    /**
+     * Append each task that can come next to its processor, and search below each
+     * partial schedule that can still beat the bound.
+     * @param depth number of tasks already ordered
+     * @param lastStart start time of the task appended last
+     * @param lastRank position in topological order of the task appended last
+     */
+    private void order(int depth, int lastStart, int lastRank) {
+        for (int rank = 0; rank < numTasks; rank++) {
+            int task = topologicalOrder[rank];
+            if (schedule.isScheduled(task) || unorderedParents[task] > 0) continue;
+
+            // Equivalent tasks on the same processor are interchangeable, so they are only tried in one order
+            int processor = allocation[task];
+            int equivalentPredecessor = equivalentPredecessors[task];
+            if (equivalentPredecessor != TaskModel.NO_TASK && allocation[equivalentPredecessor] == processor
+                    && !schedule.isScheduled(equivalentPredecessor)) continue;
+
+            // Tasks are appended in order of start time, so each schedule is only built one way
+            int startTime = scheduler.getEarliestStartTime(task, processor, schedule);
+            if (canonicalOrder && (startTime < lastStart || (startTime == lastStart && rank < lastRank))) continue;
+
+            schedule.schedule(task, processor, startTime);
+            unorderedWork[processor] -= weights[task];
+            numBranches++;
+            orderingsExplored++;
+            fire(EventType.NUM_BRANCHES_CHANGED);
+
+            double cost = Math.max(cost(schedule), getOrderingBound(canonicalOrder ? startTime : 0));
+            if (cost < bound) {
+                if (depth + 1 == numTasks) { // Update the best schedule
+                    bestSchedule = schedule.copy().asSchedule();
+                    fire(EventType.BEST_SCHEDULE_UPDATED);
+                    bound = bestSchedule.getFinishTime();
+                } else if (stopRequested) { // Out of time, so only remember how good it could be
+                    openLowerBound = Math.min(openLowerBound, cost);
+                } else { // Keep ordering
+                    for (int i = childStarts[task]; i < childStarts[task + 1]; i++) unorderedParents[children[i]]--;
+                    order(depth + 1, startTime, rank);
+                    for (int i = childStarts[task]; i < childStarts[task + 1]; i++) unorderedParents[children[i]]++;
+                }
+            }
+
+            // Start backtracking
+            unorderedWork[processor] += weights[task];
+            schedule.remove(task);
+        }
+    }
+
+    // The longest path through the graph, where a link only costs anything once both its
+    // tasks are known to be on different processors.  Or the work on a processor, plus the
+    // earliest any of its tasks can start and the shortest path after any of them.
+    private int getAllocationBound() {
+        int bound = rootBound;
+        Arrays.fill(earliestStarts, Integer.MAX_VALUE);
+        Arrays.fill(shortestTails, Integer.MAX_VALUE);
+        for (int task : topologicalOrder) {
+            int topLevel = 0;
+            for (int i = parentStarts[task]; i < parentStarts[task + 1]; i++) {
+                int parent = parents[i];
+                int arrival = topLevels[parent] + weights[parent];
+                if (allocation[task] != UNALLOCATED && allocation[parent] != UNALLOCATED && allocation[parent] != allocation[task]) {
+                    arrival += parentCosts[i];
+                }
+                topLevel = Math.max(topLevel, arrival);
+            }
+            topLevels[task] = topLevel;
+            bound = Math.max(bound, topLevel + weights[task]);
+
+            int processor = allocation[task];
+            if (processor != UNALLOCATED) {
+                earliestStarts[processor] = Math.min(earliestStarts[processor], topLevel);
+                shortestTails[processor] = Math.min(shortestTails[processor], bottomLevels[task] - weights[task]);
+            }
+        }
+        for (int processor = 0; processor < numOfProcessors; processor++) {
+            if (allocatedWork[processor] == 0) continue;
+            bound = Math.max(bound, earliestStarts[processor] + allocatedWork[processor] + shortestTails[processor]);
+        }
+        return bound;
+    }
+
+    // The same for a partial ordering, where every task has a processor.  The tasks ordered so far
+    // have their start times, and the rest start after everything already on their processor
+    // and no earlier than the last task appended.
+    private int getOrderingBound(int earliestStart) {
+        int bound = 0;
+        for (int task : topologicalOrder) {
+            int processor = allocation[task];
+            int topLevel;
+            if (schedule.isScheduled(task)) {
+                topLevel = schedule.getStartTimeOf(task);
+            } else {
+                topLevel = Math.max(earliestStart, schedule.getFinishTime(processor));
+                for (int i = parentStarts[task]; i < parentStarts[task + 1]; i++) {
+                    int parent = parents[i];
+                    int arrival = topLevels[parent] + weights[parent];
+                    if (allocation[parent] != processor) arrival += parentCosts[i];
+                    topLevel = Math.max(topLevel, arrival);
+                }
+            }
+            topLevels[task] = topLevel;
+            bound = Math.max(bound, topLevel + weights[task]);
+        }
+        for (int processor = 0; processor < numOfProcessors; processor++) {
+            bound = Math.max(bound, schedule.getFinishTime(processor) + unorderedWork[processor]);
+        }
+        return bound;
+    }
+
+    private int[] getTopologicalOrder() {
+        int[] order = new int[numTasks];
+        int[] unvisitedParents = new int[numTasks];
+        int size = 0;
+        for (int task = 0; task < numTasks; task++) {
+            unvisitedParents[task] = parentStarts[task + 1] - parentStarts[task];
+            if (unvisitedParents[task] == 0) order[size++] = task;
+        }
+        for (int i = 0; i < size; i++) {
+            int task = order[i];
+            for (int j = childStarts[task]; j < childStarts[task + 1]; j++) {
+                if (--unvisitedParents[children[j]] == 0) order[size++] = children[j];
+            }
+        }
+        return order;
+    }
+}
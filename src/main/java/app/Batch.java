@@ -0,0 +1,234 @@
+package app;
+
+import fileIO.DotGraph;
+import fileIO.FileParser;
+import scheduleModel.ISchedule;
+import taskModel.TaskModel;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+
+/**
+ * Schedules many task graphs in one JVM, so the start up and warm up are only paid once.
+ * Each graph is parsed, scheduled and written out as one job, and the jobs all run on one
+ * shared pool of threads: while one graph is being searched, others are being read and
+ * written.  The fork search runs on the shared pool itself, so a big graph can use every
+ * thread while nothing else needs them, and small graphs are searched side by side.
+ * The biggest files are started first, so the small graphs fill in around them at the end.
+ *
+ * Each schedule is written next to its graph as INPUT-output.dot, and the results of all
+ * of them can be written to a CSV file with writeSummary().
+ */
+public class Batch {
+    public static final String SUMMARY_HEADER = "input,graph,tasks,processors,makespan,optimal,lower bound,"
+            + "parse ms,solve ms,render ms,output,error";
+    private static final String OUTPUT_SUFFIX = "-output.dot";
+
+    private final List<File> inputs;
+    private final int numOfProcessors;
+    private final int numberOfCores;
+    private final Function<TaskModel, IAlgorithm> algorithms;
+    private int timeoutSeconds = 0;
+
+    /**
+     * @param inputs the graphs to schedule
+     * @param numOfProcessors the number of processors to schedule every graph on
+     * @param numberOfCores the number of threads in the shared pool
+     * @param algorithms makes the algorithm to schedule a graph with
+     */
+    public Batch(List<File> inputs, int numOfProcessors, int numberOfCores, Function<TaskModel, IAlgorithm> algorithms) {
+        this.inputs = inputs;
+        this.numOfProcessors = numOfProcessors;
+        this.numberOfCores = numberOfCores;
+        this.algorithms = algorithms;
+    }
+
+    /**
+     * The graphs to schedule: every .dot file in a directory (except the schedules written by an
+     * earlier batch), or every file listed in a manifest.  A manifest has one file on each line,
+     * relative to the manifest, and blank lines and lines starting with # are skipped.
+     * @param directoryOrManifest
+     * @return the graph files, in order
+     * @throws IOException if the directory or manifest cannot be read
+     */
+    public static List<File> getInputs(File directoryOrManifest) throws IOException {
+        List<File> inputs = new ArrayList<>();
+        if (directoryOrManifest.isDirectory()) {
+            File[] files = directoryOrManifest.listFiles();
+            if (files == null) throw new IOException("Could not list " + directoryOrManifest);
+            for (File file : files) {
+                String name = file.getName();
+                if (file.isFile() && name.endsWith(".dot") && !name.endsWith(OUTPUT_SUFFIX)) inputs.add(file);
+            }
+            inputs.sort(Comparator.comparing(File::getName));
+        } else {
+            File directory = directoryOrManifest.getAbsoluteFile().getParentFile();
+            for (String line : Files.readAllLines(directoryOrManifest.toPath(), StandardCharsets.UTF_8)) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                File file = new File(line);
+                inputs.add(file.isAbsolute() ? file : new File(directory, line));
+            }
+        }
+        return inputs;
+    }
+
+    /**
+     * Stop searching each graph after this long, and use the best schedule found so far.
+     * @param timeoutSeconds the time limit for each graph, or 0 for none
+     */
+    public void setTimeout(int timeoutSeconds) {
+        this.timeoutSeconds = timeoutSeconds;
+    }
+
+    /**
+     * Schedule every graph.  A graph that cannot be read or scheduled does not stop the others;
+     * its result has the error instead.
+     * @return the results, in the same order as the inputs
+     */
+    public List<Result> run() {
+        ForkJoinPool pool = new ForkJoinPool(numberOfCores);
+        Timer timer = new Timer(true);
+
+        // File size is a rough guide to how hard a graph is, without having to read it first
+        List<File> biggestFirst = new ArrayList<>(inputs);
+        biggestFirst.sort(Comparator.comparingLong(File::length).reversed());
+        Map<File, ForkJoinTask<Result>> jobs = new HashMap<>();
+        for (File input : biggestFirst) {
+            jobs.put(input, pool.submit(() -> solve(input, pool, timer)));
+        }
+
+        List<Result> results = new ArrayList<>();
+        for (File input : inputs) {
+            results.add(jobs.get(input).join());
+        }
+        timer.cancel();
+        pool.shutdown();
+        return results;
+    }
+
+    // Parse, schedule and write out one graph
+    private Result solve(File input, ForkJoinPool pool, Timer timer) {
+        Result result = new Result(input, numOfProcessors);
+        try {
+            long start = System.nanoTime();
+            TaskModel taskModel = new FileParser(input).getTaskModelFromFile();
+            result.graph = taskModel.getGraphId();
+            result.numTasks = taskModel.getTaskModelSize();
+            long parsed = System.nanoTime();
+            result.parseMillis = (parsed - start) / 1000000;
+
+            IAlgorithm algorithm = algorithms.apply(taskModel);
+            if (algorithm instanceof DFSAlgorithmFork) {
+                ((DFSAlgorithmFork) algorithm).setPool(pool);
+            }
+            TimerTask stop = new TimerTask() {
+                @Override
+                public void run() {
+                    algorithm.stop();
+                }
+            };
+            if (timeoutSeconds > 0) {
+                timer.schedule(stop, timeoutSeconds * 1000L);
+            }
+            ISchedule schedule = algorithm.run();
+            stop.cancel();
+            result.makespan = schedule.getFinishTime();
+            result.lowerBound = algorithm.getLowerBound();
+            result.optimal = algorithm.isOptimal();
+            long solved = System.nanoTime();
+            result.solveMillis = (solved - parsed) / 1000000;
+
+            String output = input.getPath().replace(".dot", "") + OUTPUT_SUFFIX;
+            new DotGraph(output, taskModel.getGraphId(), schedule, taskModel).render();
+            result.output = output;
+            result.renderMillis = (System.nanoTime() - solved) / 1000000;
+        } catch (Exception e) {
+            result.error = e.toString();
+        }
+        return result;
+    }
+
+    /**
+     * Write the results as CSV, one line for each graph after SUMMARY_HEADER.
+     * @param results
+     * @param file
+     * @throws IOException
+     */
+    public static void writeSummary(List<Result> results, File file) throws IOException {
+        try (PrintWriter out = new PrintWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))) {
+            out.println(SUMMARY_HEADER);
+            for (Result result : results) {
+                out.println(result.toCsv());
+            }
+        }
+    }
+
+    /**
+     * What happened to one graph.  Anything that was not worked out is -1 (or null),
+     * because the graph failed first.
+     */
+    public static class Result {
+        private final File input;
+        private final int numOfProcessors;
+        private String graph;
+        private int numTasks = -1;
+        private int makespan = -1;
+        private int lowerBound = -1;
+        private boolean optimal = false;
+        private long parseMillis = -1;
+        private long solveMillis = -1;
+        private long renderMillis = -1;
+        private String output;
+        private String error;
+
+        Result(File input, int numOfProcessors) {
+            this.input = input;
+            this.numOfProcessors = numOfProcessors;
+        }
+
+        public File getInput() {
+            return input;
+        }
+
+        public int getMakespan() {
+            return makespan;
+        }
+
+        public boolean isOptimal() {
+            return optimal;
+        }
+
+        public String getOutput() {
+            return output;
+        }
+
+        /**
+         * @return what went wrong, or null if the graph was scheduled
+         */
+        public String getError() {
+            return error;
+        }
+
+        public String toCsv() {
+            return String.join(",", quote(input.getPath()), quote(graph), Integer.toString(numTasks),
+                    Integer.toString(numOfProcessors), Integer.toString(makespan), Boolean.toString(optimal),
+                    Integer.toString(lowerBound), Long.toString(parseMillis), Long.toString(solveMillis),
+                    Long.toString(renderMillis), quote(output), quote(error));
+        }
+
+        // Quote a field if it has anything in it that CSV treats specially
+        private static String quote(String field) {
+            if (field == null) return "";
+            if (field.contains(",") || field.contains("\"") || field.contains("\n")) {
+                return "\"" + field.replace("\"", "\"\"") + "\"";
+            }
+            return field;
+        }
+    }
+}
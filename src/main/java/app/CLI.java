@@ -1,6 +1,10 @@
 package app;
 
 
+import app.bounds.CombinedBound;
+import app.cache.CanonicalGraph;
+import app.cache.ScheduleCache;
+import app.distributed.Coordinator;
 import fileIO.DotGraph;
 import fileIO.FileParser;
 import javafx.beans.Observable;
@@ -14,8 +18,15 @@ import view.listeners.AlgorithmObservable;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Timer;
+import java.util.TimerTask;
 
 
 /**
@@ -31,18 +42,53 @@ import java.util.List;
  * -p N use N cores for execution in parallel (default is sequential)
  * -v visualise the search
  * -o OUTPUT output file is named OUTPUT (default is INPUT-output.dot)
+ * -a ALGORITHM search algorithm to use: fork, dfs, inplace, astar, hdastar, smastar, idastar or ao (default is fork)
+ * -m STATES the most partial schedules smastar may keep in memory (default is 1000000)
+ * -b BOUNDS comma separated lower bounds to prune with: f1, f2, drt, comm, load (default is all of them)
+ * --timeout SECONDS stop searching after SECONDS and output the best schedule found so far
+ * --cutoff DEPTH fork searches deeper than DEPTH only when threads need work (default is 4)
+ * --deterministic the fork search returns the same schedule and branch count every run
+ * --order ORDER the order depth first searches try children in: cost, finish or bottomlevel (default is cost)
+ * --coordinator PORT split the fork search into work units for workers connecting on PORT
+ *   (run java -cp scheduler.jar app.distributed.Worker HOST PORT [N] on each machine)
+ * --checkpoint FILE the fork search saves itself to FILE every minute, and when it stops
+ * --resume carry on from the checkpoint in the --checkpoint FILE, if there is one
+ * --batch INPUT is a directory of dot files, or a file listing one dot file per line, to schedule
+ *   on a shared pool of N threads (see -p).  Each schedule goes next to its graph, and a summary
+ *   of them all to OUTPUT.csv (default is INPUT-summary.csv)
+ * --cache DIR look for an optimal schedule of the same graph (apart from names) in DIR before searching,
+ *   and keep the optimal schedules found there
+ * --stats print how fast the graph was read
+ *
+ * To keep one JVM scheduling graphs sent to it over HTTP, run java -cp scheduler.jar app.Daemon PORT [N] (see Daemon).
  */
 public class CLI {
     // Set constants
-    private static int MIN_ARGS = 2;
-    private static int MAX_ARGS = 7;
+    private static final int MIN_ARGS = 2;
+    private static final int NO_COORDINATOR = -1;
+    private static final int MAX_ARGS = 29;
 
     // Set defaults
-    private static boolean visualisation = false;
-    private static String outputFilename = null;
-    private static int numOfProcessors = 1;
-    private static int algorithmCores = 1;
-    private static String inputFilename = null;
+    private boolean visualisation = false;
+    private String outputFilename = null;
+    private int numOfProcessors = 1;
+    private int algorithmCores = 1;
+    private String inputFilename = null;
+    private String algorithmName = "fork";
+    private int maxStates = SMAStarAlgorithm.DEFAULT_MAX_STATES;
+    private String boundNames = CombinedBound.DEFAULT;
+    private int timeoutSeconds = 0;
+    private int cutoffDepth = DFSAlgorithmFork.DEFAULT_CUTOFF_DEPTH;
+    private boolean deterministic = false;
+    private ChildOrder childOrder = ChildOrder.DEFAULT;
+    private int coordinatorPort = NO_COORDINATOR;
+    private String checkpointFilename = null;
+    private boolean resume = false;
+    private Checkpoint checkpoint = null;
+    private boolean batch = false;
+    private String cacheDirectory = null;
+    private CanonicalGraph canonicalGraph = null;
+    private boolean parseStatistics = false;
     private static final String USAGE =
             "java -jar scheduler.jar INPUT.dot P [OPTION]\n" +
             "INPUT.dot  a task graph with integer weights in dot format\n" +
@@ -50,22 +96,50 @@ public class CLI {
             "Optional:\n" +
             "-p N       use N cores for execution in parallel (default is sequential)\n" +
             "-v         visualise the search\n" +
-            "-o OUTPUT  output file is named OUTPUT (default is input-OUTPUT.dot)";
-    private static TaskModel taskModel;
+            "-o OUTPUT  output file is named OUTPUT (default is input-OUTPUT.dot)\n" +
+            "-a ALG     search algorithm: fork, dfs, inplace, astar, hdastar, smastar, idastar or ao (default is fork)\n" +
+            "-m STATES  the most partial schedules smastar may keep in memory (default is 1000000)\n" +
+            "-b BOUNDS  comma separated lower bounds to prune with: f1, f2, drt, comm, load (default is all)\n" +
+            "--timeout SECONDS  stop searching after SECONDS and output the best schedule found so far\n" +
+            "--cutoff DEPTH     fork searches deeper than DEPTH only when threads need work (default is 4)\n" +
+            "--deterministic    the fork search returns the same schedule and branch count every run\n" +
+            "--order ORDER      the order depth first searches try children in: cost, finish or bottomlevel (default is cost)\n" +
+            "--coordinator PORT split the fork search into work units for workers connecting on PORT\n" +
+            "                   (run java -cp scheduler.jar app.distributed.Worker HOST PORT [N] on each machine)\n" +
+            "--checkpoint FILE  the fork search saves itself to FILE every minute, and when it stops\n" +
+            "--resume           carry on from the checkpoint in the --checkpoint FILE, if there is one\n" +
+            "--batch            INPUT is a directory of dot files, or a file listing one dot file per line, to\n" +
+            "                   schedule on a shared pool of N threads (see -p).  Each schedule goes next to\n" +
+            "                   its graph, and a summary of them all to OUTPUT.csv (default is INPUT-summary.csv)\n" +
+            "--cache DIR        look for an optimal schedule of the same graph (apart from names) in DIR\n" +
+            "                   before searching, and keep the optimal schedules found there\n" +
+            "--stats            print how fast the graph was read";
+    private TaskModel taskModel;
 
-    public static void main(String[] args) throws CloneNotSupportedException {
-        List<String> argsList = Arrays.asList(args);
+    public static void main(String[] args) {
+        CLI cli = new CLI();
+        try {
+            cli.parseOptions(Arrays.asList(args));
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage() + "  See usage below:\n");
+            System.out.println(USAGE);
+            return;
+        }
+        cli.start();
+    }
 
+    /**
+     * Read the arguments, in the form shown in USAGE.
+     * @param argsList
+     * @throws IllegalArgumentException if they are not valid, saying why
+     */
+    void parseOptions(List<String> argsList) {
         // Checks that there is a valid number of arguments
         if (argsList.size() < MIN_ARGS){
-            System.err.println("Not enough arguments.  See usage below:\n");
-            System.out.println(USAGE);
-            return;
+            throw new IllegalArgumentException("Not enough arguments.");
         }
         else if (argsList.size() > MAX_ARGS){
-            System.err.println("Too many arguments.  See usage below:\n");
-            System.out.println(USAGE);
-            return;
+            throw new IllegalArgumentException("Too many arguments.");
         }
 
         // Get mandatory arguments
@@ -74,9 +148,7 @@ public class CLI {
             numOfProcessors = Integer.parseInt(argsList.get(1));
             if (numOfProcessors < 0) throw new NumberFormatException();
         } catch (NumberFormatException e){
-            System.out.println("Not a valid integer for the number of processors. See usage below:\n");
-            System.out.println(USAGE);
-            return;
+            throw new IllegalArgumentException("Not a valid integer for the number of processors.");
         }
 
         // Check for visualisation (off by default)
@@ -91,18 +163,139 @@ public class CLI {
                 algorithmCores = Integer.parseInt(N);
                 if (algorithmCores < 0) throw new NumberFormatException();
             } catch (NumberFormatException e) {
-                System.out.println("Not a valid integer for the number of algorithm cores.  See usage below:\n");
-                System.out.println(USAGE);
-                return;
+                throw new IllegalArgumentException("Not a valid integer for the number of algorithm cores.");
+            }
+        }
+
+        // Check for which search algorithm to use (fork by default)
+        if (argsList.contains("-a")) {
+            algorithmName = argsList.get(argsList.indexOf("-a") + 1);
+            if (!Arrays.asList("fork", "dfs", "inplace", "astar", "hdastar", "smastar", "idastar", "ao").contains(algorithmName)) {
+                throw new IllegalArgumentException("Not a valid algorithm.");
+            }
+        }
+
+        // Check for a memory budget for the memory limited search
+        if (argsList.contains("-m")) {
+            String states = argsList.get(argsList.indexOf("-m") + 1);
+            try {
+                maxStates = Integer.parseInt(states);
+                if (maxStates < 1) throw new NumberFormatException();
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Not a valid integer for the number of states.");
+            }
+        }
+
+        // Check for which lower bounds to prune the search with (all by default)
+        if (argsList.contains("-b")) {
+            boundNames = argsList.get(argsList.indexOf("-b") + 1);
+            if (!CombinedBound.isValid(boundNames)) {
+                throw new IllegalArgumentException("Not a valid list of lower bounds.");
+            }
+        }
+
+        // Check for a time limit on the search (none by default)
+        if (argsList.contains("--timeout")) {
+            String seconds = argsList.get(argsList.indexOf("--timeout") + 1);
+            try {
+                timeoutSeconds = Integer.parseInt(seconds);
+                if (timeoutSeconds < 1) throw new NumberFormatException();
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Not a valid integer for the timeout.");
+            }
+        }
+
+        // Check for reproducible parallel search (off by default)
+        if (argsList.contains("--deterministic")) {
+            deterministic = true;
+        }
+
+        // Check for how deep the fork search always forks
+        if (argsList.contains("--cutoff")) {
+            String depth = argsList.get(argsList.indexOf("--cutoff") + 1);
+            try {
+                cutoffDepth = Integer.parseInt(depth);
+                if (cutoffDepth < 0) throw new NumberFormatException();
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Not a valid integer for the cutoff depth.");
+            }
+        }
+
+        // Check for the order to search children in (lowest cost by default)
+        if (argsList.contains("--order")) {
+            String order = argsList.get(argsList.indexOf("--order") + 1);
+            if (!ChildOrder.getNames().contains(order)) {
+                throw new IllegalArgumentException("Not a valid child order.");
+            }
+            childOrder = ChildOrder.fromName(order);
+        }
+
+        // Check for searching on other processes (off by default)
+        if (argsList.contains("--coordinator")) {
+            String port = argsList.get(argsList.indexOf("--coordinator") + 1);
+            try {
+                coordinatorPort = Integer.parseInt(port);
+                if (coordinatorPort < 0 || coordinatorPort > 65535) throw new NumberFormatException();
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Not a valid port for the coordinator.");
+            }
+        }
+
+        // Check for saving the search as it goes (off by default)
+        if (argsList.contains("--checkpoint")) {
+            checkpointFilename = argsList.get(argsList.indexOf("--checkpoint") + 1);
+            if (!algorithmName.equals("fork") || coordinatorPort != NO_COORDINATOR) {
+                throw new IllegalArgumentException("Only the fork search can be checkpointed.");
+            }
+        }
+        if (argsList.contains("--resume")) {
+            if (checkpointFilename == null) {
+                throw new IllegalArgumentException("There is no checkpoint to resume from without --checkpoint.");
+            }
+            resume = true;
+        }
+
+        // Check for scheduling many graphs at once (off by default)
+        if (argsList.contains("--batch")) {
+            if (visualisation || coordinatorPort != NO_COORDINATOR || checkpointFilename != null) {
+                throw new IllegalArgumentException("A batch cannot be visualised, distributed or checkpointed.");
+            }
+            batch = true;
+        }
+
+        // Check for reusing schedules of graphs seen before (off by default)
+        if (argsList.contains("--cache")) {
+            cacheDirectory = argsList.get(argsList.indexOf("--cache") + 1);
+            if (batch || coordinatorPort != NO_COORDINATOR) {
+                throw new IllegalArgumentException("A batch or distributed search cannot use the cache.");
             }
         }
 
+        // Check for printing how fast the graph was read (off by default)
+        if (argsList.contains("--stats")) {
+            parseStatistics = true;
+        }
+
         // Configure output filename
-        if (argsList.contains("-o")) {
+        if (batch) {
+            String input = new File(inputFilename).getPath();
+            outputFilename = argsList.contains("-o") ? argsList.get(argsList.indexOf("-o") + 1) + ".csv"
+                    : input.replace(".txt", "") + "-summary.csv";
+        } else if (argsList.contains("-o")) {
             outputFilename = argsList.get(argsList.indexOf("-o") + 1) + ".dot";
         } else {
             outputFilename = inputFilename.replace(".dot", "") + "-output.dot";
         }
+    }
+
+    /**
+     * Schedule the input the way the options say.
+     */
+    private void start() {
+        if (batch) {
+            runBatch();
+            return;
+        }
 
         // Create file parser
         FileParser fileParser = null;
@@ -115,11 +308,41 @@ public class CLI {
 
         // Parse the file
         taskModel = fileParser.getTaskModelFromFile();
+        if (parseStatistics) {
+            System.out.println(fileParser.getStatistics());
+        }
+
+        // Read the checkpoint.  If it is not there the search has not got as far as writing one, so start again.
+        if (resume) {
+            File checkpointFile = new File(checkpointFilename);
+            if (checkpointFile.exists()) {
+                try {
+                    checkpoint = Checkpoint.read(checkpointFile, taskModel, numOfProcessors);
+                    System.out.println("Resuming with " + checkpoint.getUnits().size() + " subtrees left to search.");
+                } catch (IOException e) {
+                    System.out.println("Could not resume from the checkpoint: " + e.getMessage());
+                    return;
+                }
+            } else {
+                System.out.println("There is no checkpoint at " + checkpointFilename + " yet, so starting from the beginning.");
+            }
+        }
+
+        // A graph that is the same as one scheduled before, apart from its names, does not need searching
+        if (cacheDirectory != null) {
+            ISchedule cached = useCache((cache, graph) -> cache.get(graph, taskModel, numOfProcessors));
+            if (cached != null) {
+                System.out.println("The cache has an optimal schedule of this graph, with a finish time of "
+                        + cached.getFinishTime() + ".");
+                writeOutput(cached);
+                return;
+            }
+        }
 
         if (visualisation) {
             // Visualisation
             System.out.println("Starting visualizer...");
-            new Thread(() -> Visualizer.launch(taskModel, new Schedule(numOfProcessors))).start();
+            new Thread(() -> Visualizer.launch(taskModel, new Schedule(numOfProcessors), this::visualizerReady)).start();
         } else {
             visualizerReady(null);
         }
@@ -130,9 +353,15 @@ public class CLI {
      * components can be then registered on the algorithm as listeners.
      * @param listeners
      */
-    public static void visualizerReady(List<AlgorithmListener> listeners) {
+    private void visualizerReady(List<AlgorithmListener> listeners) {
         // Set algorithm
-        IAlgorithm algorithm = new DFSAlgorithmFork(taskModel, numOfProcessors, algorithmCores);
+        IAlgorithm algorithm;
+        try {
+            algorithm = createAlgorithm(taskModel);
+        } catch (IOException e) {
+            System.out.println("Could not listen for workers on port " + coordinatorPort + ".");
+            return;
+        }
 
         // Register listeners with algorithm
         if (visualisation) {
@@ -141,24 +370,159 @@ public class CLI {
             }
         }
 
+        // Stop the search when it runs out of time
+        Timer timer = new Timer(true);
+        if (timeoutSeconds > 0) {
+            timer.schedule(new TimerTask() {
+                @Override
+                public void run() {
+                    algorithm.stop();
+                }
+            }, timeoutSeconds * 1000L);
+        }
+
         // Get optimal schedule
         System.out.println("Running algorithm...");
         ISchedule schedule = algorithm.run();
+        timer.cancel();
+        if (!algorithm.getStatistics().isEmpty()) {
+            System.out.println(algorithm.getStatistics());
+        }
+        if (algorithm.isOptimal()) {
+            System.out.println("The schedule is optimal, with a finish time of " + schedule.getFinishTime() + ".");
+        } else {
+            int gap = schedule.getFinishTime() - algorithm.getLowerBound();
+            System.out.println("Stopped after " + timeoutSeconds + " seconds.  The schedule has a finish time of "
+                    + schedule.getFinishTime() + ", and no schedule can finish before " + algorithm.getLowerBound()
+                    + String.format(" (a gap of %d, or %.1f%%).", gap, 100.0 * gap / schedule.getFinishTime()));
+        }
+
+        if (algorithm.isOptimal() && cacheDirectory != null) {
+            useCache((cache, graph) -> {
+                cache.put(graph, taskModel, numOfProcessors, schedule);
+                return null;
+            });
+        }
 
         // Uncomment to run validator
         // new ScheduleValidator(schedule).validate(taskModel);
 
-        //Write out to file
+        writeOutput(schedule);
+    }
+
+    // Write the schedule out to the output file, with the names of the tasks in the input
+    private void writeOutput(ISchedule schedule) {
         DotGraph dotGraph = new DotGraph(outputFilename, taskModel.getGraphId(), schedule, taskModel);
         dotGraph.render();
         System.out.println(outputFilename + " has been saved.");
     }
 
+    private interface CacheUse {
+        ISchedule apply(ScheduleCache cache, CanonicalGraph graph) throws IOException;
+    }
+
+    // Open the cache, use it, and close it again.  The search goes on without the cache if it cannot be used.
+    private ISchedule useCache(CacheUse use) {
+        if (canonicalGraph == null) {
+            canonicalGraph = new CanonicalGraph(taskModel);
+        }
+        try (ScheduleCache cache = new ScheduleCache(new File(cacheDirectory))) {
+            return use.apply(cache, canonicalGraph);
+        } catch (IOException e) {
+            System.out.println("Could not use the cache: " + e.getMessage());
+            return null;
+        }
+    }
+
     /**
-     * For other parties to know if visualization is turned on.
-     * @return true if visualization is on
+     * Schedule every graph in the batch, and write the summary.
      */
-    public static boolean isVisualisation() {
-        return visualisation;
+    private void runBatch() {
+        List<File> inputs;
+        try {
+            inputs = Batch.getInputs(new File(inputFilename));
+        } catch (IOException e) {
+            System.out.println("Could not read the batch: " + e.getMessage());
+            return;
+        }
+
+        System.out.println("Scheduling " + inputs.size() + " graphs...");
+        long start = System.currentTimeMillis();
+        Batch batch = new Batch(inputs, numOfProcessors, Math.max(algorithmCores, 1), taskModel -> {
+            try {
+                return createAlgorithm(taskModel);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        batch.setTimeout(timeoutSeconds);
+        List<Batch.Result> results = batch.run();
+
+        int failed = 0;
+        for (Batch.Result result : results) {
+            if (result.getError() != null) {
+                System.out.println(result.getInput() + " failed: " + result.getError());
+                failed++;
+            }
+        }
+        System.out.println("Scheduled " + (results.size() - failed) + " of " + results.size() + " graphs in "
+                + (System.currentTimeMillis() - start) / 1000.0 + " seconds.");
+        try {
+            Batch.writeSummary(results, new File(outputFilename));
+            System.out.println(outputFilename + " has been saved.");
+        } catch (IOException e) {
+            System.out.println("Could not save the summary: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Create the search algorithm the user asked for, with the lower bounds and child order they asked for.
+     * @param taskModel the graph to schedule
+     * @return the algorithm to run
+     * @throws IOException if the coordinator cannot listen for workers
+     */
+    IAlgorithm createAlgorithm(TaskModel taskModel) throws IOException {
+        IAlgorithm algorithm = createSearch(taskModel);
+        algorithm.setLowerBound(CombinedBound.fromNames(boundNames, taskModel));
+        algorithm.setChildOrder(childOrder);
+        return algorithm;
+    }
+
+    private IAlgorithm createSearch(TaskModel taskModel) throws IOException {
+        if (coordinatorPort != NO_COORDINATOR) {
+            // The workers parse the graph themselves, so they are sent the file as it is
+            String graph = new String(Files.readAllBytes(Paths.get(inputFilename)), StandardCharsets.UTF_8);
+            Coordinator coordinator = new Coordinator(graph, numOfProcessors, coordinatorPort);
+            coordinator.setCutoffDepth(cutoffDepth);
+            System.out.println("Waiting for workers on port " + coordinator.getPort() + "...");
+            return coordinator;
+        }
+        switch (algorithmName) {
+            case "dfs":
+                return new DFSAlgorithm(taskModel, numOfProcessors);
+            case "inplace":
+                return new DFSAlgorithmInPlace(taskModel, numOfProcessors);
+            case "astar":
+                return new AStarAlgorithm(taskModel, numOfProcessors);
+            case "hdastar":
+                return new HDAStarAlgorithm(taskModel, numOfProcessors, algorithmCores);
+            case "smastar":
+                return new SMAStarAlgorithm(taskModel, numOfProcessors, maxStates);
+            case "idastar":
+                return new IDAStarAlgorithm(taskModel, numOfProcessors);
+            case "ao":
+                return new AllocationOrderingAlgorithm(taskModel, numOfProcessors);
+            default:
+                DFSAlgorithmFork algorithm = new DFSAlgorithmFork(taskModel, numOfProcessors, algorithmCores);
+                algorithm.setCutoffDepth(cutoffDepth);
+                algorithm.setDeterministic(deterministic);
+                if (checkpointFilename != null) {
+                    algorithm.setCheckpoint(new File(checkpointFilename), DFSAlgorithmFork.DEFAULT_CHECKPOINT_INTERVAL_MILLIS);
+                }
+                if (checkpoint != null) {
+                    algorithm.resume(checkpoint);
+                }
+                return algorithm;
+        }
     }
 }
@@ -0,0 +1,116 @@
+package app;
+
+import scheduleModel.ISchedule;
+import scheduleModel.ScheduleState;
+import taskModel.TaskModel;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * What a search needs to carry on from where it was: the best schedule found so far,
+ * and the subtrees that have not been searched yet (see DFSAlgorithmFork.split()).
+ * Everything else has been searched and cannot beat the best schedule.
+ *
+ * The file is binary: a header naming the graph, then the best schedule and the unsearched
+ * units, written with ScheduleState.write() and WorkUnit.write().
+ */
+public class Checkpoint {
+    private static final int MAGIC = 0x53434b50; // "SCKP"
+    private static final int VERSION = 1;
+
+    private final ISchedule bestSchedule;
+    private final List<WorkUnit> units;
+    private final long numBranches;
+
+    /**
+     * @param bestSchedule the best complete schedule, or null if there is none
+     * @param units the subtrees left to search
+     * @param numBranches how many branches have been explored so far
+     */
+    public Checkpoint(ISchedule bestSchedule, List<WorkUnit> units, long numBranches) {
+        this.bestSchedule = bestSchedule;
+        this.units = units;
+        this.numBranches = numBranches;
+    }
+
+    public ISchedule getBestSchedule() {
+        return bestSchedule;
+    }
+
+    public List<WorkUnit> getUnits() {
+        return units;
+    }
+
+    public long getNumBranches() {
+        return numBranches;
+    }
+
+    /**
+     * Write the checkpoint to a file.  It is written next to the file and then moved over it,
+     * so if the process dies while writing, the last checkpoint is still there.
+     * @param file
+     * @param taskModel the graph being searched
+     * @param numOfProcessors
+     * @throws IOException
+     */
+    public void write(File file, TaskModel taskModel, int numOfProcessors) throws IOException {
+        File temporary = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporary)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(taskModel.getGraphId());
+            out.writeInt(taskModel.getTaskModelSize());
+            out.writeInt(numOfProcessors);
+            out.writeLong(numBranches);
+
+            out.writeBoolean(bestSchedule != null);
+            if (bestSchedule != null) {
+                ScheduleState.write(out, bestSchedule, taskModel);
+            }
+            out.writeInt(units.size());
+            for (WorkUnit unit : units) {
+                unit.write(out);
+            }
+        }
+        Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Read a checkpoint written by write().
+     * @param file
+     * @param taskModel the graph being searched
+     * @param numOfProcessors
+     * @return the checkpoint
+     * @throws IOException if it cannot be read, or is a checkpoint of a different search
+     */
+    public static Checkpoint read(File file, TaskModel taskModel, int numOfProcessors) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException(file + " is not a checkpoint");
+            }
+            String graphId = in.readUTF();
+            int numTasks = in.readInt();
+            int checkpointProcessors = in.readInt();
+            if (!graphId.equals(taskModel.getGraphId()) || numTasks != taskModel.getTaskModelSize()
+                    || checkpointProcessors != numOfProcessors) {
+                throw new IOException(file + " is a checkpoint of " + graphId + " on " + checkpointProcessors + " processors");
+            }
+            long numBranches = in.readLong();
+
+            ISchedule bestSchedule = null;
+            if (in.readBoolean()) {
+                bestSchedule = ScheduleState.read(in, taskModel, numOfProcessors).asSchedule();
+            }
+            int numUnits = in.readInt();
+            List<WorkUnit> units = new ArrayList<>(numUnits);
+            for (int i = 0; i < numUnits; i++) {
+                units.add(WorkUnit.read(in, taskModel, numOfProcessors));
+            }
+            return new Checkpoint(bestSchedule, units, numBranches);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package app;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The order the depth first searches try the children of a partial schedule in.
+ * Every (task, processor) placement is made and costed first, then searched in this
+ * order.  It never changes the makespan of the schedule found, only how soon a good
+ * complete schedule is found - and the sooner the bound is tight, the more of the
+ * remaining children get pruned.
+ * The orders are named so they can be picked from the command line:
+ *  cost         lowest lower bound first (the default)
+ *  finish       earliest finish time of the placed task first
+ *  bottomlevel  largest bottom level of the placed task first
+ * Ties are broken by the lower bound, and then by the order the children were made in.
+ */
+public enum ChildOrder {
+    LOWEST_COST("cost"),
+    EARLIEST_FINISH("finish"),
+    LARGEST_BOTTOM_LEVEL("bottomlevel");
+
+    public static final ChildOrder DEFAULT = LOWEST_COST;
+
+    private final String name;
+
+    ChildOrder(String name) {
+        this.name = name;
+    }
+
+    /**
+     * The value children are sorted by, smallest first.
+     * @param cost the lower bound of the child
+     * @param finishTime the finish time of the task that was placed
+     * @param bottomLevel the bottom level of the task that was placed
+     * @return the sort key
+     */
+    public double getKey(double cost, int finishTime, int bottomLevel) {
+        switch (this) {
+            case EARLIEST_FINISH:
+                return finishTime;
+            case LARGEST_BOTTOM_LEVEL:
+                return -bottomLevel;
+            default:
+                return cost;
+        }
+    }
+
+    /**
+     * Compare two children by their keys, and then by their lower bounds.
+     * @return a negative number if the first child should be searched first
+     */
+    public static int compare(double key, double cost, double otherKey, double otherCost) {
+        int result = Double.compare(key, otherKey);
+        if (result == 0) {
+            result = Double.compare(cost, otherCost);
+        }
+        return result;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the names of all the orders, as accepted by fromName()
+     */
+    public static List<String> getNames() {
+        return Arrays.asList(LOWEST_COST.name, EARLIEST_FINISH.name, LARGEST_BOTTOM_LEVEL.name);
+    }
+
+    /**
+     * @param name
+     * @return the order with the given name
+     * @throws IllegalArgumentException if no order has that name
+     */
+    public static ChildOrder fromName(String name) {
+        for (ChildOrder order : values()) {
+            if (order.name.equals(name.trim())) return order;
+        }
+        throw new IllegalArgumentException("Unknown child order: " + name);
+    }
+}
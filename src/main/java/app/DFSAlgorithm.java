@@ -1,5 +1,6 @@
 package app;
 
+import app.heuristics.Heuristics;
 import scheduleModel.*;
 import taskModel.Task;
 import taskModel.TaskModel;
@@ -35,10 +36,11 @@ public class DFSAlgorithm implements IAlgorithm, AlgorithmObservable {
     private int numOfProcessors;
     private int recursionLevel = 0; // debugging
 
-    private int bound = Integer.MAX_VALUE; // Stores current best finish time
+    private int bound; // Stores current best finish time
     private ISchedule bestSchedule; // Stores current best schedule
 
     private int numBranches = 0; // debugging
+    private ChildOrder childOrder = ChildOrder.DEFAULT;
     private List<AlgorithmListener> listeners = new ArrayList<>();
 
     public DFSAlgorithm(TaskModel taskModel, int numOfProcessors) {
@@ -52,9 +54,15 @@ public class DFSAlgorithm implements IAlgorithm, AlgorithmObservable {
         int depth = 0;
         // Create a blank schedule
         Schedule schedule = new Schedule(numOfProcessors);
-        List<Task> freeTasks = getFreeTasks(schedule, taskModel.getTasks());
+        List<Task> freeTasks = getFreeTasks(schedule);
         Set<Task> previousTasks = new HashSet<>();
 
+        // Start from the best schedule the list scheduling heuristics can find,
+        // so only schedules which beat it are searched
+        bestSchedule = Heuristics.getBestSchedule(taskModel, numOfProcessors).asSchedule();
+        bound = bestSchedule.getFinishTime();
+        fire(EventType.BEST_SCHEDULE_UPDATED);
+
         // Make initial call
         run(freeTasks, depth, schedule, previousTasks, null);
         fire(EventType.ALGORTHIM_FINISHED);
@@ -66,6 +74,11 @@ public class DFSAlgorithm implements IAlgorithm, AlgorithmObservable {
         return bestSchedule;
     }
 
+    @Override
+    public void setChildOrder(ChildOrder childOrder) {
+        this.childOrder = childOrder;
+    }
+
     /**
      * The depth-first-search-branch-and-bound algorithm.
      * Recursively creates a schedule tree, with pruning, to find the optimal schedule
@@ -79,8 +92,13 @@ public class DFSAlgorithm implements IAlgorithm, AlgorithmObservable {
         recursionLevel++;
 
         if (!freeTasks.isEmpty()) {
-            // Get the previous tasks above this layer in the recursion call
+            // Get the previous tasks above this layer in the recursion call, and the ones tried in this layer
             Set<Task> previousTasks = new HashSet<>(cleanPreviousTasks);
+            Set<Task> triedTasks = new HashSet<>();
+
+            // Make every child and work out its cost before searching any of them,
+            // so the most promising ones (by childOrder) are searched first
+            List<Child> children = new ArrayList<>();
 
             // Iterate through each eligible task
             for (Task currentTask : freeTasks) {
@@ -100,10 +118,13 @@ public class DFSAlgorithm implements IAlgorithm, AlgorithmObservable {
 
                 // Try scheduling task on each processor and add copy to set of unique schedules
                 Set<ISchedule> schedules = new HashSet<>();
+                ISchedule onPreviousProcessor = null;
                 for (IProcessor currentProcessor : processors) {
                     scheduler.schedule(currentTask, currentProcessor, schedule);
                     try {
-                        schedules.add((ISchedule) ((Schedule) schedule).clone());
+                        ISchedule copy = (ISchedule) ((Schedule) schedule).clone();
+                        schedules.add(copy);
+                        if (currentProcessor == previousProcessor) onPreviousProcessor = copy;
                     } catch (CloneNotSupportedException e) {
                         e.printStackTrace();
                     }
@@ -111,38 +132,56 @@ public class DFSAlgorithm implements IAlgorithm, AlgorithmObservable {
                 }
 
                 // Remember that we have scheduled this task.
-                // When we come back from the recursive call and go onto the
-                // next currentTask, we know from previousTasks that THIS currentTask has been
-                // tried on all the processors.
+                // Below each of its children, we know from previousTasks that THIS currentTask
+                // and every task before it have been tried on all the processors.  That does
+                // not depend on the order the children are searched in, so they can be sorted.
                 previousTasks.add(currentTask);
+                triedTasks.add(currentTask);
+                Set<Task> childPreviousTasks = new HashSet<>(previousTasks);
+                Set<Task> childTriedTasks = new HashSet<>(triedTasks);
 
-                // Go through each of the unique created schedules at this level
                 for (ISchedule currentSchedule : schedules) {
-                    numBranches++;
-                    fire(EventType.NUM_BRANCHES_CHANGED);
-                    depth++;
-
-                    // Check if bad schedule
-                    if (cost(currentSchedule) < bound) {
-                        int numTasks = taskModel.getTasks().size();
-                        if (depth == numTasks) { // Update the best schedule
-                            try {
-                                bestSchedule = (ISchedule) ((Schedule) currentSchedule).clone();
-                                if (CLI.isVisualisation()) fire(EventType.BEST_SCHEDULE_UPDATED);
-                            } catch (CloneNotSupportedException e) {
-                                e.printStackTrace();
-                            }
-                            bound = bestSchedule.getFinishTime();
-                        } else if (depth < numTasks) { // Keep building the schedule
-                            // Set new list of free tasks
-                            List<Task> newFreeTasks = getFreeTasks(currentSchedule, taskModel.getTasks());
-                            run(newFreeTasks, depth, currentSchedule, previousTasks, currentSchedule.getProcessorOf(currentTask));
+                    double cost = cost(currentSchedule);
+                    double key = childOrder.getKey(cost, currentSchedule.getFinishTimeOf(currentTask), currentTask.getBottomLevel());
+                    // A task tried in an earlier layer gives something different on any processor
+                    // that has been given a task since.  previousTasks can only say that of the
+                    // processor the last task went on, so below a child on any other processor
+                    // the tasks from earlier layers are forgotten, which only means searching more.
+                    Set<Task> below = currentSchedule == onPreviousProcessor ? childPreviousTasks : childTriedTasks;
+                    children.add(new Child(currentTask, currentSchedule, cost, key, below));
+                }
+            }
+
+            // Sort the unique schedules, so they are no longer searched in hash order
+            Collections.sort(children);
 
+            // Go through each of the unique created schedules at this level
+            for (Child child : children) {
+                ISchedule currentSchedule = child.schedule;
+                numBranches++;
+                fire(EventType.NUM_BRANCHES_CHANGED);
+                depth++;
+
+                // Check if bad schedule
+                if (child.cost < bound) {
+                    int numTasks = taskModel.getTaskModelSize();
+                    if (depth == numTasks) { // Update the best schedule
+                        try {
+                            bestSchedule = (ISchedule) ((Schedule) currentSchedule).clone();
+                            if (!listeners.isEmpty()) fire(EventType.BEST_SCHEDULE_UPDATED);
+                        } catch (CloneNotSupportedException e) {
+                            e.printStackTrace();
                         }
+                        bound = bestSchedule.getFinishTime();
+                    } else if (depth < numTasks) { // Keep building the schedule
+                        // Set new list of free tasks
+                        List<Task> newFreeTasks = getFreeTasks(currentSchedule);
+                        run(newFreeTasks, depth, currentSchedule, child.previousTasks, currentSchedule.getProcessorOf(child.task));
+
                     }
-                    // Start backtracking
-                    depth--;
                 }
+                // Start backtracking
+                depth--;
             }
         }
     }
@@ -155,16 +194,42 @@ public class DFSAlgorithm implements IAlgorithm, AlgorithmObservable {
         return costFunctionOutputs.last();
     }
 
-    private List<Task> getFreeTasks(ISchedule schedule, List<Task> allTasks) {
-        List<Task> newFreeTasks = new ArrayList<>();
+    /**
+     * A child of a search node, with what it is sorted by and the previousTasks to search it with.
+     */
+    private static class Child implements Comparable<Child> {
+        private Task task;
+        private ISchedule schedule;
+        private double cost;
+        private double key;
+        private Set<Task> previousTasks;
+
+        Child(Task task, ISchedule schedule, double cost, double key, Set<Task> previousTasks) {
+            this.task = task;
+            this.schedule = schedule;
+            this.cost = cost;
+            this.key = key;
+            this.previousTasks = previousTasks;
+        }
 
-        // Create list of tasks which haven't been scheduled yet
+        @Override
+        public int compareTo(Child other) {
+            return ChildOrder.compare(key, cost, other.key, other.cost);
+        }
+    }
+
+    private List<Task> getFreeTasks(ISchedule schedule) {
+        List<Task> newFreeTasks = new ArrayList<>();
         List<Task> scheduledTasks = schedule.getTasks();
-        allTasks.removeAll(scheduledTasks);
 
-        // Check if each unscheduled task's dependencies have been satisfied
+        // Check if each unscheduled task's dependencies have been satisfied.
+        // Equivalent tasks are interchangeable, so they are only tried in one order.
+        Task[] allTasks = taskModel.getTaskArray();
+        int[] equivalentPredecessors = taskModel.getEquivalentPredecessors();
         for (Task task : allTasks) {
-            if (scheduledTasks.containsAll(task.getParents())) {
+            int equivalentPredecessor = equivalentPredecessors[task.getIndex()];
+            if (equivalentPredecessor != TaskModel.NO_TASK && !scheduledTasks.contains(allTasks[equivalentPredecessor])) continue;
+            if (!scheduledTasks.contains(task) && scheduledTasks.containsAll(task.getParents())) {
                 newFreeTasks.add(task);
             }
         }
@@ -185,7 +250,7 @@ public class DFSAlgorithm implements IAlgorithm, AlgorithmObservable {
     // Fire an event to GUI listeners
     @Override
     public void fire(EventType eventType) {
-        if (!CLI.isVisualisation()) return; // ignore if user didn't want visualization
+        if (listeners.isEmpty()) return; // nobody is visualising the search
         switch (eventType) {
             case BEST_SCHEDULE_UPDATED:
                 for (AlgorithmListener listener : listeners) {
@@ -1,14 +1,26 @@
 package app;
 
+import app.bounds.CombinedBound;
+import app.bounds.LowerBound;
+import app.heuristics.Heuristics;
 import scheduleModel.*;
 import taskModel.Task;
 import taskModel.TaskModel;
 import view.listeners.AlgorithmListener;
 import view.listeners.AlgorithmObservable;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
 import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.DoubleAccumulator;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Our algorithm was based on pseudocode from the following source:
@@ -32,13 +44,47 @@ public class DFSAlgorithmFork implements IAlgorithm, AlgorithmObservable {
     private TaskModel taskModel;
     private int numOfProcessors;
 
-    private static ForkJoinPool pool;
-    private static ISchedule bestSchedule;
-    private static int bound = Integer.MAX_VALUE;
+    private static final int NO_PROCESSOR = -1;
+
+    // Deeper than the cutoff, a subtree is only forked when the pool has fewer than this many
+    // spare tasks queued.  Otherwise it is searched straight away on the same thread.
+    public static final int DEFAULT_CUTOFF_DEPTH = 4;
+    private static final int SURPLUS_TASKS = 2;
+
+    // In deterministic mode, the number of subtrees searched at once from the same starting bound
+    public static final int DETERMINISTIC_BATCH_SIZE = 64;
+
+    // The best schedule found by any thread
+    private Incumbent incumbent = new Incumbent();
 
     private List<AlgorithmListener> listeners = new ArrayList<>();
     private int numberOfCores;
 
+    // Partial schedules already searched by any thread, or null to search duplicates again
+    private TranspositionTable<SearchPosition> transpositionTable;
+    private LongAdder duplicatesSkipped = new LongAdder();
+    private LongAdder numBranches = new LongAdder();
+    private LongAdder subtreesForked = new LongAdder();
+    private LowerBound lowerBound;
+    private FixedTaskOrder fixedTaskOrder;
+    private ChildOrder childOrder = ChildOrder.DEFAULT;
+    private int cutoffDepth = DEFAULT_CUTOFF_DEPTH;
+    private boolean deterministic = false;
+    // The threads search() uses, made on its first call unless the pool is shared (see setPool())
+    private ForkJoinPool pool;
+    private boolean poolShared = false;
+
+    // Where to save the search every checkpointIntervalMillis, or null not to
+    public static final long DEFAULT_CHECKPOINT_INTERVAL_MILLIS = 60000;
+    private File checkpointFile;
+    private long checkpointIntervalMillis = DEFAULT_CHECKPOINT_INTERVAL_MILLIS;
+    private Checkpoint resumeFrom;
+    private LongAdder checkpointsWritten = new LongAdder();
+
+    // Set by stop(), and the smallest lower bound of the schedules left unexplored because of it
+    private AtomicBoolean stopRequested = new AtomicBoolean(false);
+    private DoubleAccumulator openLowerBound = new DoubleAccumulator(Math::min, Double.POSITIVE_INFINITY);
+
     /**
      * This class is used to parallelize our algorithm.  The non-parallelized version
      * of our algorithm can be found in DFSAlgorithm.java.  This class has to nest
@@ -47,56 +93,355 @@ public class DFSAlgorithmFork implements IAlgorithm, AlgorithmObservable {
      * @param taskModel
      * @param numOfProcessors
      * @param numberOfCores
+     * @param transpositionTableSize the number of searched schedules to remember, or 0 for none (the default).
+     *                               previousTasks already stops most schedules being reached twice, so the
+     *                               table only finds duplicates on some graphs, e.g. forks and joins on 3 or
+     *                               more processors, and elsewhere only costs the time to look them up.
      */
-    public DFSAlgorithmFork(TaskModel taskModel, int numOfProcessors, int numberOfCores) {
+    public DFSAlgorithmFork(TaskModel taskModel, int numOfProcessors, int numberOfCores, int transpositionTableSize) {
         this.taskModel = taskModel;
         this.numOfProcessors = numOfProcessors;
         this.numberOfCores = numberOfCores;
+        if (transpositionTableSize > 0) {
+            transpositionTable = new TranspositionTable<>(transpositionTableSize);
+        }
+        lowerBound = CombinedBound.fromNames(CombinedBound.DEFAULT, taskModel);
+        fixedTaskOrder = new FixedTaskOrder(taskModel);
+    }
+
+    public DFSAlgorithmFork(TaskModel taskModel, int numOfProcessors, int numberOfCores) {
+        this(taskModel, numOfProcessors, numberOfCores, 0);
     }
 
     @Override
     public ISchedule run() {
         int depth = 0;
-        Schedule schedule = new Schedule(numOfProcessors);
-        List<Task> freeTasks = getFreeTasks(schedule, taskModel.getTasks());
+        ScheduleState schedule = new ScheduleState(taskModel, numOfProcessors);
         Set<Task> pTasks = new HashSet<>();
+        List<Task> freeTasks = getFreeTasks(schedule, pTasks);
+
+        // Start from the best schedule the list scheduling heuristics can find,
+        // so only schedules which beat it are searched
+        incumbent = new Incumbent();
+        incumbent.offer(Heuristics.getBestSchedule(taskModel, numOfProcessors).asSchedule());
+        fire(EventType.BEST_SCHEDULE_UPDATED);
 
-        // Create thread pool
-        pool = new ForkJoinPool(numberOfCores);
+        // Create thread pool, unless the search is sharing one
+        ForkJoinPool pool = poolShared ? this.pool : new ForkJoinPool(numberOfCores);
 
         // Create task and start on thread from thread pool
-        DFSAlgorithmTask task = new DFSAlgorithmTask(freeTasks, depth, schedule, pTasks, null, taskModel, listeners);
-        pool.invoke(task); // Start the task (the RecursiveAction) and wait for it to be done
+        DFSAlgorithmTask task = new DFSAlgorithmTask(freeTasks, depth, schedule, pTasks, NO_PROCESSOR, incumbent, null);
+        if (checkpointFile != null || resumeFrom != null) {
+            runCheckpointed(pool);
+        } else if (deterministic) {
+            runDeterministic(pool, task);
+        } else {
+            pool.invoke(task); // Start the task (the RecursiveAction) and wait for it to be done
+        }
+        if (!poolShared) {
+            pool.shutdown();
+        }
 
         // Inform GUI that algorithm is done
         fire(EventType.ALGORTHIM_FINISHED);
-        return bestSchedule;
+        return incumbent.getSchedule();
+    }
+
+    // Search so that nothing depends on how the threads are timed.  The search down to the cutoff
+    // depth is done on this thread, collecting the subtrees below it in order.  The subtrees are
+    // then searched in batches of a fixed size, each one sequentially and starting from the best
+    // schedule found before its batch, so what each subtree explores and finds is always the same.
+    // The results are taken in subtree order, so of two equally good schedules the first one wins.
+    private void runDeterministic(ForkJoinPool pool, DFSAlgorithmTask root) {
+        List<DFSAlgorithmTask> subtrees = new ArrayList<>();
+        root.frontier = subtrees;
+        root.compute();
+
+        for (int start = 0; start < subtrees.size(); start += DETERMINISTIC_BATCH_SIZE) {
+            List<DFSAlgorithmTask> batch = subtrees.subList(start, Math.min(start + DETERMINISTIC_BATCH_SIZE, subtrees.size()));
+            for (DFSAlgorithmTask subtree : batch) {
+                subtree.frontier = null;
+                subtree.incumbent = new Incumbent();
+                subtree.incumbent.offer(incumbent.getSchedule());
+            }
+            subtreesForked.add(batch.size());
+            pool.invoke(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    invokeAll(batch);
+                }
+            });
+            for (DFSAlgorithmTask subtree : batch) {
+                incumbent.offer(subtree.incumbent.getSchedule());
+            }
+        }
+    }
+
+    /**
+     * Split the search into subtrees that can be searched separately, e.g. by other processes.
+     * The search down to the cutoff depth is done on this thread, seeding the incumbent with the
+     * heuristics, and the subtrees below it are returned in the order they would have been searched.
+     * Anything found above the cutoff depth is left in getIncumbent().
+     * @return the subtrees, each of which may contain a better schedule than the incumbent
+     */
+    public List<WorkUnit> split() {
+        ScheduleState schedule = new ScheduleState(taskModel, numOfProcessors);
+        incumbent = new Incumbent();
+        incumbent.offer(Heuristics.getBestSchedule(taskModel, numOfProcessors).asSchedule());
+
+        List<DFSAlgorithmTask> subtrees = new ArrayList<>();
+        new DFSAlgorithmTask(getFreeTasks(schedule, new HashSet<>()), 0, schedule, new HashSet<>(), NO_PROCESSOR, incumbent, subtrees).compute();
+
+        List<WorkUnit> units = new ArrayList<>();
+        for (DFSAlgorithmTask subtree : subtrees) {
+            units.add(new WorkUnit(subtree.schedule, subtree.cleanPreviousTasks, subtree.previousProcessor,
+                    lowerBound.estimate(subtree.schedule)));
+        }
+        return units;
+    }
+
+    /**
+     * Search one of the subtrees from split(), possibly split by another instance, pruning against
+     * and updating getIncumbent().  Can be called any number of times; the threads are kept between calls.
+     * @param unit
+     * @return the number of branches explored in the subtree
+     */
+    public long search(WorkUnit unit) {
+        if (pool == null) {
+            pool = new ForkJoinPool(numberOfCores);
+        }
+        long branchesBefore = getNumBranches();
+        ScheduleState schedule = unit.getSchedule();
+        pool.invoke(new DFSAlgorithmTask(getFreeTasks(schedule, unit.getPreviousTasks()), schedule.getNumScheduled(), schedule,
+                unit.getPreviousTasks(), unit.getPreviousProcessor(), incumbent, null));
+        return getNumBranches() - branchesBefore;
+    }
+
+    /**
+     * The best schedule found so far.  Offering it a schedule found elsewhere makes the
+     * search prune against that schedule too.
+     * @return the incumbent
+     */
+    public Incumbent getIncumbent() {
+        return incumbent;
+    }
+
+    // Search the subtrees at the cutoff depth in parallel, keeping track of which ones are done so
+    // that the rest can be saved.  The checkpoints are written on a thread of their own, so the search
+    // threads never wait for the disk; all they do is add their subtree to a concurrent set when it is done.
+    private void runCheckpointed(ForkJoinPool pool) {
+        List<WorkUnit> units;
+        if (resumeFrom != null) {
+            if (resumeFrom.getBestSchedule() != null) {
+                incumbent.offer(resumeFrom.getBestSchedule());
+            }
+            numBranches.add(resumeFrom.getNumBranches());
+            units = resumeFrom.getUnits();
+        } else {
+            units = split();
+        }
+        fire(EventType.BEST_SCHEDULE_UPDATED);
+
+        Set<WorkUnit> searched = ConcurrentHashMap.newKeySet();
+        ScheduledExecutorService writer = null;
+        if (checkpointFile != null) {
+            writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "checkpoint");
+                thread.setDaemon(true);
+                return thread;
+            });
+            writer.scheduleWithFixedDelay(() -> writeCheckpoint(units, searched),
+                    checkpointIntervalMillis, checkpointIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+
+        List<RecursiveAction> subtrees = new ArrayList<>();
+        for (WorkUnit unit : units) {
+            subtrees.add(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    if (unit.getCost() >= incumbent.getBound()) { // Nothing in it can beat the best schedule
+                        searched.add(unit);
+                    } else if (stopRequested.get()) {
+                        openLowerBound.accumulate(unit.getCost());
+                    } else {
+                        ScheduleState schedule = unit.getSchedule();
+                        new DFSAlgorithmTask(getFreeTasks(schedule, unit.getPreviousTasks()), schedule.getNumScheduled(), schedule,
+                                unit.getPreviousTasks(), unit.getPreviousProcessor(), incumbent, null).compute();
+                        // If the search was stopped, part of the subtree may have been left out
+                        if (!stopRequested.get()) searched.add(unit);
+                    }
+                }
+            });
+        }
+        subtreesForked.add(subtrees.size());
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                invokeAll(subtrees);
+            }
+        });
+
+        // One last checkpoint, so a stopped search can be resumed from exactly where it stopped
+        if (writer != null) {
+            writer.shutdownNow();
+            try {
+                writer.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            writeCheckpoint(units, searched);
+        }
+    }
+
+    private void writeCheckpoint(List<WorkUnit> units, Set<WorkUnit> searched) {
+        // The subtrees are checked before the best schedule is read, so a schedule found
+        // in a subtree that is left out of the checkpoint is always in it
+        List<WorkUnit> unsearched = new ArrayList<>();
+        for (WorkUnit unit : units) {
+            if (!searched.contains(unit)) unsearched.add(unit);
+        }
+        try {
+            new Checkpoint(incumbent.getSchedule(), unsearched, getNumBranches()).write(checkpointFile, taskModel, numOfProcessors);
+            checkpointsWritten.increment();
+        } catch (IOException e) {
+            System.err.println("Could not write the checkpoint to " + checkpointFile + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Save the search to a file every so often, and once more when it finishes or is stopped,
+     * so it can be carried on with resume() if the process dies.  Only the subtrees at the
+     * cutoff depth are saved, so a resumed search searches the ones that were in progress again.
+     * A checkpointed search is not deterministic.
+     * @param file where to write the checkpoint
+     * @param intervalMillis how long to wait between checkpoints
+     */
+    public void setCheckpoint(File file, long intervalMillis) {
+        this.checkpointFile = file;
+        this.checkpointIntervalMillis = intervalMillis;
+    }
+
+    /**
+     * Carry on from a checkpoint instead of starting the search from the beginning.
+     * @param checkpoint a checkpoint of a search of the same graph on the same number of processors
+     */
+    public void resume(Checkpoint checkpoint) {
+        this.resumeFrom = checkpoint;
     }
 
     @Override
     public ISchedule getBestSchedule() {
-        return bestSchedule;
+        return incumbent.getSchedule();
+    }
+
+    @Override
+    public void setLowerBound(LowerBound lowerBound) {
+        this.lowerBound = lowerBound;
+    }
+
+    @Override
+    public void setChildOrder(ChildOrder childOrder) {
+        this.childOrder = childOrder;
+    }
+
+    /**
+     * Search on the threads of a pool shared with other work, instead of making a pool of
+     * numberOfCores threads for each run.  The search can use every thread in the pool, and
+     * leaves it running when it is done.  run() may be called from one of the pool's threads.
+     * @param pool
+     */
+    public void setPool(ForkJoinPool pool) {
+        this.pool = pool;
+        poolShared = true;
+    }
+
+    /**
+     * Set how deep subtrees are always forked as new tasks.  Below this depth a subtree
+     * is only forked if the other threads are running out of work, because forking copies
+     * the search state and costs more than searching a small subtree.
+     * @param cutoffDepth the depth, or 0 to only fork when threads need work
+     */
+    public void setCutoffDepth(int cutoffDepth) {
+        this.cutoffDepth = cutoffDepth;
+    }
+
+    /**
+     * Make every run return the same schedule after exploring the same number of branches,
+     * however many cores it runs on.  The subtrees at the cutoff depth are searched in
+     * parallel, but each one on a single thread, and the transposition table is not used
+     * because which of two duplicates gets searched would depend on timing.
+     * @param deterministic
+     */
+    public void setDeterministic(boolean deterministic) {
+        this.deterministic = deterministic;
+    }
+
+    @Override
+    public void stop() {
+        stopRequested.set(true);
     }
 
-    // The DFS branch and bound algorithm.
-    static class DFSAlgorithmTask extends RecursiveAction implements AlgorithmObservable {
+    @Override
+    public int getLowerBound() {
+        // Makespans are whole numbers, so a lower bound can be rounded up
+        return (int) Math.min(incumbent.getBound(), Math.ceil(openLowerBound.get()));
+    }
+
+    @Override
+    public String getStatistics() {
+        String statistics = "Branches explored: " + getNumBranches() + System.lineSeparator()
+                + "Subtrees forked: " + subtreesForked.sum();
+        if (transpositionTable != null) {
+            statistics += System.lineSeparator() + "Duplicate schedules skipped: " + getDuplicatesSkipped();
+        }
+        if (checkpointFile != null) {
+            statistics += System.lineSeparator() + "Checkpoints written: " + checkpointsWritten.sum();
+        }
+        return statistics;
+    }
+
+    /**
+     * Get the number of search nodes explored by all the threads.
+     * @return the number of branches
+     */
+    public long getNumBranches() {
+        return numBranches.sum();
+    }
+
+    /**
+     * Get the number of partial schedules which were not searched because
+     * the same schedule had already been reached another way.
+     * @return the number of duplicates
+     */
+    public long getDuplicatesSkipped() {
+        return duplicatesSkipped.sum();
+    }
+
+    // The DFS branch and bound algorithm.  This is an inner class so that every task in a run
+    // shares the run's incumbent, transposition table and counters, and nothing is static.
+    class DFSAlgorithmTask extends RecursiveAction implements AlgorithmObservable {
         private List<Task> freeTasks;
         private int depth;
-        private ISchedule schedule;
+        private ScheduleState schedule;
         private Set<Task> cleanPreviousTasks;
-        private IProcessor previousProcessor;
+        private int previousProcessor;
         private Scheduler scheduler;
-        private TaskModel taskModel;
-        private List<AlgorithmListener> listeners;
 
-        public DFSAlgorithmTask(List<Task> freeTasks, int depth, ISchedule schedule, Set<Task> cleanPreviousTasks, IProcessor pProc, TaskModel taskModel, List<AlgorithmListener> listeners) {
-            this.taskModel = taskModel;
+        // The best schedule to prune against.  This is the run's incumbent, except for the
+        // subtrees of a deterministic search, which each have their own.
+        private Incumbent incumbent;
+        // In a deterministic search, where to put the subtrees at the cutoff depth instead of searching them
+        private List<DFSAlgorithmTask> frontier;
+
+        public DFSAlgorithmTask(List<Task> freeTasks, int depth, ScheduleState schedule, Set<Task> cleanPreviousTasks, int pProc,
+                                Incumbent incumbent, List<DFSAlgorithmTask> frontier) {
             this.freeTasks = freeTasks;
             this.depth = depth;
             this.schedule = schedule;
             this.previousProcessor = pProc;
             this.cleanPreviousTasks = cleanPreviousTasks;
-            this.listeners = listeners;
+            this.incumbent = incumbent;
+            this.frontier = frontier;
             scheduler = new Scheduler();
         }
 
@@ -104,11 +449,17 @@ public class DFSAlgorithmFork implements IAlgorithm, AlgorithmObservable {
         @Override
         protected void compute() {
             if (!freeTasks.isEmpty()) {
-                // Get previous tasks
+                // Get previous tasks, and the ones tried in this layer
                 Set<Task> previousTasks = new HashSet<>(cleanPreviousTasks);
+                Set<Task> triedTasks = new HashSet<>();
+
+                // Make every child and work out its cost before searching any of them,
+                // so the most promising ones (by childOrder) are searched first
+                List<Child> children = new ArrayList<>();
 
                 // Iterate through each task in this layer of tasks
                 for (Task currentTask : freeTasks) {
+                    int taskIndex = currentTask.getIndex();
 
                     // If the task we are currently scheduling
                     // has been already scheduled in the past after scheduling
@@ -116,88 +467,142 @@ public class DFSAlgorithmFork implements IAlgorithm, AlgorithmObservable {
                     // tried on all the processors.  There is no point trying this task
                     // on all the processors again - we should just stick them on the same
                     // processor as that is the only thing that can give us something different.
-                    Set<IProcessor> processors = new HashSet<>();
+                    int firstProcessor = 0;
+                    int lastProcessor = schedule.getNumOfProcessors() - 1; // Otherwise we need to try it on all processors
                     if (previousTasks.contains(currentTask)) {
-                        processors.add(previousProcessor);
-                    } else {
-                        processors.addAll(schedule.getProcessors()); // Otherwise we need to try it on all processors
-                    }
-
-                    // Try scheduling task on each processor and add copy to set of unique schedules
-                    Set<ISchedule> schedules = new HashSet<>();
-                    for (IProcessor currentProcessor : processors) {
-                        scheduler.schedule(currentTask, currentProcessor, schedule);
-                        try {
-                            schedules.add((ISchedule) ((Schedule) schedule).clone());
-                        } catch (CloneNotSupportedException e) {
-                            e.printStackTrace();
-                        }
-                        scheduler.remove(currentTask, schedule);
+                        firstProcessor = previousProcessor;
+                        lastProcessor = previousProcessor;
                     }
 
                     // Remember that we have scheduled this task.
-                    // When we come back from the recursive call and go onto the
-                    // next currentTask, we know from previousTasks that THIS currentTask has been
-                    // tried on all the processors.
+                    // Below each of its children, we know from previousTasks that THIS currentTask
+                    // and every task before it have been tried on all the processors.  That does
+                    // not depend on the order the children are searched in, so they can be sorted.
                     previousTasks.add(currentTask);
-
-                    // Stores which tasks will be pursued recursively in parallel with each other
-                    List<DFSAlgorithmTask> tasks = new ArrayList<>();
-
-                    // Go through each of the unique created schedules at this level
-                    for (ISchedule currentSchedule : schedules) {
-                        depth++;
+                    triedTasks.add(currentTask);
+                    Set<Task> childPreviousTasks = null;
+                    Set<Task> childTriedTasks = null;
+
+                    // Try scheduling task on each processor of a copy of the schedule.
+                    // Processors are identical, so putting the task on any empty processor gives
+                    // the same schedule - only the first empty one is tried.
+                    boolean triedEmptyProcessor = false;
+                    for (int currentProcessor = firstProcessor; currentProcessor <= lastProcessor; currentProcessor++) {
+                        if (schedule.isEmpty(currentProcessor)) {
+                            if (triedEmptyProcessor) continue;
+                            triedEmptyProcessor = true;
+                        }
+                        ScheduleState child = schedule.copy();
+                        scheduler.schedule(taskIndex, currentProcessor, child);
+                        numBranches.increment();
                         fire(EventType.NUM_BRANCHES_CHANGED);
 
-                        // Check if bad schedule
-                        if (cost(currentSchedule) < bound) {
-                            int numTasks = taskModel.getTasks().size();
-                            if (depth == numTasks) { // Update the best schedule
-                                bound = currentSchedule.getFinishTime();
-                                try {
-                                    bestSchedule = (ISchedule) ((Schedule) currentSchedule).clone();
-                                    if (CLI.isVisualisation()) fire(EventType.BEST_SCHEDULE_UPDATED);
-                                } catch (CloneNotSupportedException e){
-                                    e.printStackTrace();
-                                }
-                            } else if (depth < numTasks) { // Keep building the schedule
-                                // Set new list of tasks
-                                List<Task> newFreeTasks = getFreeTasks(currentSchedule, taskModel.getTasks());
-                                // Create next task
-                                DFSAlgorithmTask dTask = new DFSAlgorithmTask(newFreeTasks, depth, currentSchedule, previousTasks, currentSchedule.getProcessorOf(currentTask), taskModel, listeners);
+                        // Check if bad schedule, against the best schedule any thread has found so far
+                        double cost = cost(child);
+                        if (cost < incumbent.getBound()) {
+                            // A task tried in an earlier layer gives something different on any processor
+                            // that has been given a task since.  previousTasks can only say that of the
+                            // processor the last task went on, so below a child on any other processor
+                            // the tasks from earlier layers are forgotten, which only means searching more.
+                            Set<Task> below;
+                            if (currentProcessor == previousProcessor) {
+                                if (childPreviousTasks == null) childPreviousTasks = new HashSet<>(previousTasks);
+                                below = childPreviousTasks;
+                            } else {
+                                if (childTriedTasks == null) childTriedTasks = new HashSet<>(triedTasks);
+                                below = childTriedTasks;
+                            }
+                            double key = childOrder.getKey(cost, child.getFinishTimeOf(taskIndex), currentTask.getBottomLevel());
+                            children.add(new Child(currentTask, child, cost, key, below));
+                        }
+                    }
+                }
+                Collections.sort(children);
+
+                // Stores which tasks will be pursued recursively in parallel with each other
+                List<DFSAlgorithmTask> tasks = new ArrayList<>();
+
+                // Go through each of the unique created schedules at this level
+                for (Child child : children) {
+                    ScheduleState currentSchedule = child.schedule;
+                    int taskIndex = child.task.getIndex();
+                    double cost = child.cost;
+                    depth++;
+
+                    // The best schedule may have improved since the child was costed
+                    if (cost < incumbent.getBound()) {
+                        int numTasks = taskModel.getTaskModelSize();
+                        if (depth == numTasks) { // Update the best schedule
+                            // Nothing else changes this state, so it can be kept as it is.  Another
+                            // thread may have found something better since the check above.
+                            if (incumbent.offer(currentSchedule.asSchedule()) && !listeners.isEmpty()) {
+                                fire(EventType.BEST_SCHEDULE_UPDATED);
+                            }
+                        } else if (stopRequested.get() && frontier == null) {
+                            // Out of time, so only remember how good it could be.  Subtrees being
+                            // collected for later are still collected, so they can be saved.
+                            openLowerBound.accumulate(cost);
+                        } else if (!deterministic && transpositionTable != null && !isNew(new SearchPosition(currentSchedule, taskIndex, child.previousTasks))) {
+                            // The same schedule (possibly with the processors numbered differently)
+                            // was reached another way first, so it is already being searched
+                            duplicatesSkipped.increment();
+                        } else if (depth < numTasks) { // Keep building the schedule
+                            // Set new list of tasks
+                            List<Task> newFreeTasks = getFreeTasks(currentSchedule, child.previousTasks);
+                            // Create next task.  Nothing changes the child's previousTasks after this,
+                            // so it can be searched later or on another thread.
+                            DFSAlgorithmTask dTask = new DFSAlgorithmTask(newFreeTasks, depth, currentSchedule, child.previousTasks, currentSchedule.getProcessorOf(taskIndex),
+                                    incumbent, frontier);
+                            if (frontier != null && depth >= cutoffDepth) {
+                                // Deterministic search or split(): leave it to be searched later, in order
+                                frontier.add(dTask);
+                            } else if (deterministic || frontier != null) {
+                                dTask.compute();
+                            } else if (shouldFork(depth)) {
                                 // Remember that we created this task
                                 tasks.add(dTask);
                                 // Do this task asynchronously
                                 dTask.fork();
+                                subtreesForked.increment();
+                            } else {
+                                // Not worth a new task, so search it on this thread
+                                dTask.compute();
                             }
                         }
-                        // Backtracking
-                        depth--;
-                    }
-                    // Once all the baby schedules have been done, join the tasks together
-                    for (DFSAlgorithmTask task : tasks){
-                        task.join();
                     }
+                    // Backtracking
+                    depth--;
+                }
+                // Once all the baby schedules have been done, join the tasks together
+                for (DFSAlgorithmTask task : tasks){
+                    task.join();
                 }
             }
         }
 
-        // Cost function
-        private double cost(ISchedule schedule) {
-            TreeSet<Double> costFunctionOutputs = new TreeSet<>();
-            costFunctionOutputs.add(((double) schedule.f1()));
-            costFunctionOutputs.add(schedule.f2(taskModel));
-            return costFunctionOutputs.last();
+        // Fork near the root, where subtrees are big, and deeper down only while the pool is short of work
+        private boolean shouldFork(int depth) {
+            return depth < cutoffDepth || getSurplusQueuedTaskCount() < SURPLUS_TASKS;
+        }
+
+        // Add a position to the transposition table, and return false if it was already there
+        private boolean isNew(SearchPosition position) {
+            return transpositionTable.add(position.hash, position.schedule.getNumScheduled(), position);
+        }
+
+        // Cost function - the chosen lower bound on the partial schedule
+        private double cost(ScheduleState schedule) {
+            return lowerBound.estimate(schedule);
         }
 
         @Override
         public void addAlgorithmListener(AlgorithmListener listener) {
-            this.listeners.add(listener);
+            listeners.add(listener);
         }
 
         @Override
         public void removeAlgorithmListener(AlgorithmListener listener) {
-            this.listeners.remove(listener);
+            listeners.remove(listener);
         }
 
         // Fire events that need to be fired while the algorithm is running
@@ -206,7 +611,7 @@ public class DFSAlgorithmFork implements IAlgorithm, AlgorithmObservable {
             switch (eventType) {
                 case BEST_SCHEDULE_UPDATED:
                     for (AlgorithmListener listener : listeners) {
-                        listener.bestScheduleUpdated(bestSchedule);
+                        listener.bestScheduleUpdated(incumbent.getSchedule());
                     }
                     break;
                 case NUM_BRANCHES_CHANGED:
@@ -218,20 +623,75 @@ public class DFSAlgorithmFork implements IAlgorithm, AlgorithmObservable {
         }
     }
 
-    private static List<Task> getFreeTasks(ISchedule schedule, List<Task> allTasks) {
-        List<Task> newFreeTasks = new ArrayList<>();
+    /**
+     * A child of a search node, with what it is sorted by and the previousTasks to search it with.
+     */
+    private static class Child implements Comparable<Child> {
+        private Task task;
+        private ScheduleState schedule;
+        private double cost;
+        private double key;
+        private Set<Task> previousTasks;
+
+        Child(Task task, ScheduleState schedule, double cost, double key, Set<Task> previousTasks) {
+            this.task = task;
+            this.schedule = schedule;
+            this.cost = cost;
+            this.key = key;
+            this.previousTasks = previousTasks;
+        }
 
-        // Create list of tasks which haven't been scheduled yet
-        List<Task> scheduledTasks = schedule.getTasks();
-        allTasks.removeAll(scheduledTasks);
+        @Override
+        public int compareTo(Child other) {
+            return ChildOrder.compare(key, cost, other.key, other.cost);
+        }
+    }
 
-        // Check if each unscheduled task's dependencies have been satisfied
-        for (Task task : allTasks) {
-            if (scheduledTasks.containsAll(task.getParents())) {
-                newFreeTasks.add(task);
+    // previousTasks are the tasks which may only go on the processor of the last task scheduled
+    private List<Task> getFreeTasks(ScheduleState schedule, Set<Task> previousTasks) {
+        List<Task> newFreeTasks = new ArrayList<>();
+        TaskModel taskModel = schedule.getTaskModel();
+        Task[] allTasks = taskModel.getTaskArray();
+        int[] parentStarts = taskModel.getParentStarts();
+        int[] parents = taskModel.getParents();
+        int[] equivalentPredecessors = taskModel.getEquivalentPredecessors();
+
+        int[] freeTaskIndices = new int[allTasks.length];
+        int numFree = 0;
+
+        // Check if each unscheduled task's dependencies have been satisfied.
+        // The task array is already sorted the same way as Collections.sort would.
+        for (int i = 0; i < allTasks.length; i++) {
+            if (schedule.isScheduled(i)) continue;
+
+            // Equivalent tasks are only tried in one order
+            int equivalentPredecessor = equivalentPredecessors[i];
+            if (equivalentPredecessor != TaskModel.NO_TASK && !schedule.isScheduled(equivalentPredecessor)) continue;
+
+            boolean free = true;
+            for (int j = parentStarts[i]; j < parentStarts[i + 1]; j++) {
+                if (!schedule.isScheduled(parents[j])) {
+                    free = false;
+                    break;
+                }
             }
+            if (free) freeTaskIndices[numFree++] = i;
+        }
+
+        // If the free tasks have a fixed order, only the first one needs to be tried.
+        // Not if any of them is one of previousTasks, as it could then only go on one
+        // processor, and the schedules the order keeps might need it somewhere else.
+        int first = fixedTaskOrder.getFirstTask(schedule, freeTaskIndices, numFree);
+        for (int i = 0; i < numFree && first != TaskModel.NO_TASK; i++) {
+            if (previousTasks.contains(allTasks[freeTaskIndices[i]])) first = TaskModel.NO_TASK;
+        }
+        if (first != TaskModel.NO_TASK) {
+            newFreeTasks.add(allTasks[first]);
+            return newFreeTasks;
+        }
+        for (int i = 0; i < numFree; i++) {
+            newFreeTasks.add(allTasks[freeTaskIndices[i]]);
         }
-        Collections.sort(newFreeTasks);
         return newFreeTasks;
     }
 
@@ -245,11 +705,16 @@ public class DFSAlgorithmFork implements IAlgorithm, AlgorithmObservable {
         listeners.remove(listener);
     }
 
-    // Fire events that need to be scheduled once the algorithm is done
+    // Fire events that happen outside the search: the first schedule and the end of the algorithm
     @Override
     public void fire(AlgorithmObservable.EventType eventType) {
-        if (!CLI.isVisualisation()) return;
+        if (listeners.isEmpty()) return;
         switch (eventType) {
+            case BEST_SCHEDULE_UPDATED:
+                for (AlgorithmListener listener : listeners) {
+                    listener.bestScheduleUpdated(incumbent.getSchedule());
+                }
+                break;
             case ALGORTHIM_FINISHED:
                 for (AlgorithmListener listener: listeners) {
                     listener.algorithmFinished();
@@ -257,4 +722,56 @@ public class DFSAlgorithmFork implements IAlgorithm, AlgorithmObservable {
                 break;
         }
     }
+
+    /**
+     * A partial schedule in the transposition table.  What gets searched below a schedule depends on
+     * previousTasks as well as on the schedule: the ones that are not scheduled yet may only go on the
+     * same processor as the last task.  So two visits are only the same position if that is the same
+     * too, otherwise each could be relying on the other to search the schedules previousTasks leaves out.
+     */
+    private static class SearchPosition {
+        private final ScheduleState schedule;
+        private final int lastTask;
+        private final long[] sleepingTasks; // Bit set of the previousTasks that are not scheduled yet
+        private final boolean anySleeping;
+        private final long hash;
+
+        SearchPosition(ScheduleState schedule, int lastTask, Set<Task> previousTasks) {
+            this.schedule = schedule;
+            this.lastTask = lastTask;
+            sleepingTasks = new long[(schedule.getTaskModel().getTaskModelSize() + 63) / 64];
+            long hash = schedule.getSignature();
+            boolean anySleeping = false;
+            for (Task task : previousTasks) {
+                int index = task.getIndex();
+                if (!schedule.isScheduled(index)) {
+                    sleepingTasks[index >>> 6] |= 1L << index;
+                    hash += ScheduleState.mix(index + 1);
+                    anySleeping = true;
+                }
+            }
+            // Which processor the last task is on only matters if some tasks have to go on it.
+            // The processor is known by what is on it, as the processors may be numbered differently.
+            if (anySleeping) {
+                hash ^= ScheduleState.mix(schedule.getProcessorHash(schedule.getProcessorOf(lastTask)) + 1);
+            }
+            this.anySleeping = anySleeping;
+            this.hash = hash;
+        }
+
+        // The processors may be numbered differently, but the last tasks are on the same processor
+        // in one of them if and only if they are in the other
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof SearchPosition)) return false;
+            SearchPosition position = (SearchPosition) o;
+            return schedule.equals(position.schedule) && Arrays.equals(sleepingTasks, position.sleepingTasks)
+                    && (!anySleeping || schedule.getProcessorOf(lastTask) == schedule.getProcessorOf(position.lastTask));
+        }
+
+        @Override
+        public int hashCode() {
+            return (int) (hash ^ (hash >>> 32));
+        }
+    }
 }
@@ -0,0 +1,242 @@
+package app;
+
+import scheduleModel.*;
+import taskModel.Task;
+import taskModel.TaskModel;
+
+import java.util.*;
+
+/**
+ * A sequential version of DFSAlgorithm which does not copy schedules.
+ * There is only ever one schedule: a task is scheduled on it, the search
+ * carries on below it, and the task is removed again when we backtrack.
+ * The children of a node are all costed first and then searched in the order
+ * chosen by setChildOrder(), so a good schedule is found early.
+ *
+ * Everything the search needs to remember per level (which tasks are free,
+ * which tasks were already tried and the sorted children) is kept in arrays
+ * that are allocated once in run(), so exploring a node does not allocate
+ * anything in the search itself.
+ */
+
+/**
+ * The search and pruning are the same as DFSAlgorithm, which is based on:
+ * Venugopalan, S., & Sinnen, O. (2016). Memory limited algorithms for optimal
+ task scheduling on parallel systems. Journal of Parallel and Distributed
+ Computing, 92, 35-49. doi:10.1016/j.jpdc.2016.03.003
+ */
+public class DFSAlgorithmInPlace extends ObservableAlgorithm {
+
+    private static final int NOT_TRIED = -1;
+
+    private IScheduler scheduler;
+    private int numTasks;
+    private int bound = Integer.MAX_VALUE; // Stores current best finish time
+
+    // The one schedule that gets modified
+    private ScheduleState schedule;
+
+    // All the tasks in the order they are tried (largest bottom level first),
+    // and each task's children as indices in that array (see TaskModel.getChildren())
+    private Task[] tasks;
+    private int[] childStarts;
+    private int[] children;
+
+    // Search state, indexed by position in the tasks array
+    private boolean[] scheduled;
+    private int[] unscheduledParents;
+    private int[] triedAtDepth; // Depth at which a task was tried in an earlier branch, or NOT_TRIED
+    private int[] lastPlacedAtDepth; // Depth at which each processor was last given a task, or NOT_TRIED
+    private int[] equivalentPredecessors;
+    private int[][] freeTasks; // The tasks to try at each depth
+
+    // The children to search at each depth, sorted by childOrder.  Each child's
+    // task is given by its position in freeTasks.
+    private int[][] candidateFreeIndices;
+    private int[][] candidateProcessors;
+    private double[][] candidateCosts;
+    private double[][] candidateKeys;
+
+    public DFSAlgorithmInPlace(TaskModel taskModel, int numOfProcessors) {
+        super(taskModel, numOfProcessors);
+        scheduler = new Scheduler();
+    }
+
+    @Override
+    public ISchedule run() {
+        tasks = taskModel.getTaskArray();
+        numTasks = tasks.length;
+
+        childStarts = taskModel.getChildStarts();
+        children = taskModel.getChildren();
+        int[] parentStarts = taskModel.getParentStarts();
+        unscheduledParents = new int[numTasks];
+        for (int i = 0; i < numTasks; i++) {
+            unscheduledParents[i] = parentStarts[i + 1] - parentStarts[i];
+        }
+
+        equivalentPredecessors = taskModel.getEquivalentPredecessors();
+        scheduled = new boolean[numTasks];
+        freeTasks = new int[numTasks][numTasks];
+        triedAtDepth = new int[numTasks];
+        Arrays.fill(triedAtDepth, NOT_TRIED);
+        lastPlacedAtDepth = new int[numOfProcessors];
+        Arrays.fill(lastPlacedAtDepth, NOT_TRIED);
+
+        int maxChildren = numTasks * numOfProcessors;
+        candidateFreeIndices = new int[numTasks][maxChildren];
+        candidateProcessors = new int[numTasks][maxChildren];
+        candidateCosts = new double[numTasks][maxChildren];
+        candidateKeys = new double[numTasks][maxChildren];
+
+        // Only schedules which beat the heuristics need to be searched
+        bound = useHeuristicSchedule().getFinishTime();
+
+        schedule = new ScheduleState(taskModel, numOfProcessors);
+
+        search(0);
+        fire(EventType.ALGORTHIM_FINISHED);
+        return bestSchedule;
+    }
+
+    /**
+     * Try every free task on every processor of the schedule and search below
+     * each one that can still beat the bound, most promising first.
+     * @param depth number of tasks already scheduled
+     */
+    private void search(int depth) {
+        int[] free = freeTasks[depth];
+        int numFree = 0;
+        for (int t = 0; t < numTasks; t++) {
+            if (scheduled[t] || unscheduledParents[t] > 0) continue;
+
+            // Equivalent tasks are interchangeable, so they are only tried in one order
+            int equivalentPredecessor = equivalentPredecessors[t];
+            if (equivalentPredecessor != TaskModel.NO_TASK && !scheduled[equivalentPredecessor]) continue;
+            free[numFree++] = t;
+        }
+
+        // If the free tasks have a fixed order, only the first one needs to be tried.
+        // Not if any of them was already tried, as it could then not go on every processor,
+        // and the schedules the order keeps might need it somewhere else.
+        int first = fixedTaskOrder.getFirstTask(schedule, free, numFree);
+        for (int i = 0; i < numFree && first != TaskModel.NO_TASK; i++) {
+            if (triedAtDepth[free[i]] != NOT_TRIED) first = TaskModel.NO_TASK;
+        }
+        if (first != TaskModel.NO_TASK) {
+            free[0] = first;
+            numFree = 1;
+        }
+
+        // Make every child and work out its cost before searching any of them,
+        // so that the most promising ones (by childOrder) are searched first
+        int[] childFreeIndices = candidateFreeIndices[depth];
+        int[] childProcessors = candidateProcessors[depth];
+        double[] childCosts = candidateCosts[depth];
+        double[] childKeys = candidateKeys[depth];
+        int numChildren = 0;
+        for (int i = 0; i < numFree; i++) {
+            int t = free[i];
+
+            // Same idea as previousTasks in DFSAlgorithm: if this task was already tried
+            // in an earlier branch, putting it on a processor nothing has been put on since
+            // gives a schedule that branch already tried.  The only new schedules come from
+            // processors that have been given a task since then.
+            boolean alreadyTried = triedAtDepth[t] != NOT_TRIED;
+            boolean triedEmptyProcessor = false;
+
+            for (int processor = 0; processor < numOfProcessors; processor++) {
+                if (alreadyTried && lastPlacedAtDepth[processor] < triedAtDepth[t]) continue;
+
+                // Processors are identical, so only one empty processor needs to be tried
+                if (schedule.isEmpty(processor)) {
+                    if (triedEmptyProcessor) continue;
+                    triedEmptyProcessor = true;
+                }
+
+                scheduler.schedule(t, processor, schedule);
+                numBranches++;
+                fire(EventType.NUM_BRANCHES_CHANGED);
+
+                double cost = cost(schedule);
+                if (cost < bound) {
+                    // Insert the child into the children made so far, keeping them sorted
+                    double key = childOrder.getKey(cost, schedule.getFinishTimeOf(t), tasks[t].getBottomLevel());
+                    int j = numChildren++;
+                    while (j > 0 && ChildOrder.compare(key, cost, childKeys[j - 1], childCosts[j - 1]) < 0) {
+                        childFreeIndices[j] = childFreeIndices[j - 1];
+                        childProcessors[j] = childProcessors[j - 1];
+                        childCosts[j] = childCosts[j - 1];
+                        childKeys[j] = childKeys[j - 1];
+                        j--;
+                    }
+                    childFreeIndices[j] = i;
+                    childProcessors[j] = processor;
+                    childCosts[j] = cost;
+                    childKeys[j] = key;
+                }
+                schedule.remove(t);
+            }
+        }
+
+        for (int c = 0; c < numChildren; c++) {
+            // The bound may have improved since the child was costed
+            if (childCosts[c] >= bound) continue;
+
+            int t = free[childFreeIndices[c]];
+            int processor = childProcessors[c];
+            scheduler.schedule(t, processor, schedule);
+            if (depth + 1 == numTasks) { // Update the best schedule
+                bestSchedule = schedule.copy().asSchedule();
+                fire(EventType.BEST_SCHEDULE_UPDATED);
+                bound = bestSchedule.getFinishTime();
+            } else if (stopRequested) { // Out of time, so only remember how good it could be
+                openLowerBound = Math.min(openLowerBound, childCosts[c]);
+            } else { // Keep building the schedule
+                markTriedBefore(free, numFree, childFreeIndices[c], depth);
+                markScheduled(t);
+                int lastPlaced = lastPlacedAtDepth[processor];
+                lastPlacedAtDepth[processor] = depth;
+                search(depth + 1);
+                lastPlacedAtDepth[processor] = lastPlaced;
+                unmarkScheduled(t);
+            }
+
+            // Start backtracking
+            schedule.remove(t);
+        }
+
+        // Forget the tasks tried at this depth before going back up
+        for (int t = 0; t < numTasks; t++) {
+            if (triedAtDepth[t] == depth) triedAtDepth[t] = NOT_TRIED;
+        }
+    }
+
+    // Below a child, the tasks counted as tried are the free tasks before the child's task, the
+    // same as if the free tasks had been searched one after another.  This does not depend on
+    // the order the children are searched in, which is what makes it safe to sort them.
+    private void markTriedBefore(int[] free, int numFree, int freeIndex, int depth) {
+        for (int i = 0; i < numFree; i++) {
+            int t = free[i];
+            if (i < freeIndex) {
+                if (triedAtDepth[t] == NOT_TRIED) triedAtDepth[t] = depth;
+            } else if (triedAtDepth[t] == depth) {
+                triedAtDepth[t] = NOT_TRIED;
+            }
+        }
+    }
+
+    private void markScheduled(int t) {
+        scheduled[t] = true;
+        for (int i = childStarts[t]; i < childStarts[t + 1]; i++) {
+            unscheduledParents[children[i]]--;
+        }
+    }
+
+    private void unmarkScheduled(int t) {
+        scheduled[t] = false;
+        for (int i = childStarts[t]; i < childStarts[t + 1]; i++) {
+            unscheduledParents[children[i]]++;
+        }
+    }
+}
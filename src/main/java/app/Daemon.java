@@ -0,0 +1,291 @@
+package app;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import fileIO.DotGraph;
+import fileIO.FileParser;
+import scheduleModel.ISchedule;
+import taskModel.TaskModel;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+
+/**
+ * Keeps a JVM running to schedule task graphs sent to it over HTTP, so each graph does not
+ * pay for starting and warming up a JVM.  It only listens on the loopback address.
+ * The usage at command line is:
+ *
+ * java -cp scheduler.jar app.Daemon PORT [N]
+ * PORT is the port to listen on
+ * N is the number of graphs to schedule at once, and of threads for the fork searches to share (default is 1)
+ *
+ * POST /schedule?processors=P[&priority=N][&timeout=SECONDS][&options=OPTIONS]
+ *   with a task graph in DOT format as the body.  The response is the schedule in DOT format,
+ *   with its makespan in X-Makespan, its lower bound in X-Lower-Bound and X-Optimal saying if
+ *   it is optimal.  Jobs with a higher priority (default 0) are started first, and jobs with
+ *   the same priority in the order they came in.  The timeout counts from when the search starts.
+ *   OPTIONS are CLI options for the search, separated by spaces: -p, -a, -m, -b, --cutoff,
+ *   --deterministic and --order.
+ * GET /status
+ *   how many jobs are waiting, being scheduled and done.
+ */
+public class Daemon {
+    private static final Set<String> ALLOWED_OPTIONS = new HashSet<>(Arrays.asList(
+            "-p", "-a", "-m", "-b", "--cutoff", "--deterministic", "--order"));
+    private static final String DOT_CONTENT_TYPE = "text/vnd.graphviz; charset=utf-8";
+
+    private final HttpServer server;
+    private final ThreadPoolExecutor jobs; // Takes the highest priority job first
+    private final ForkJoinPool pool; // Shared by the fork searches
+    private final ExecutorService requests;
+    private final Timer timer = new Timer("daemon-timeouts", true);
+    private final AtomicLong numJobs = new AtomicLong();
+
+    // Told the number of each job (counted from 0 in the order they came in) as it starts, for testing
+    volatile LongConsumer onJobStart = sequence -> { };
+
+    /**
+     * @param port the port to listen on, or 0 for any free port (see getPort())
+     * @param numberOfJobs the number of graphs to schedule at once
+     * @throws IOException if the port cannot be listened on
+     */
+    public Daemon(int port, int numberOfJobs) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        jobs = new ThreadPoolExecutor(numberOfJobs, numberOfJobs, 0, TimeUnit.MILLISECONDS, new PriorityBlockingQueue<>());
+        pool = new ForkJoinPool(numberOfJobs);
+
+        // Each request waits for its job on a thread of its own, so waiting requests do not hold up new ones
+        requests = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "daemon-request");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(requests);
+        server.createContext("/schedule", this::schedule);
+        server.createContext("/status", this::status);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("java -cp scheduler.jar app.Daemon PORT [N]");
+            return;
+        }
+        int numberOfJobs = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+        Daemon daemon = new Daemon(Integer.parseInt(args[0]), numberOfJobs);
+        daemon.start();
+        System.out.println("Scheduling graphs sent to http://localhost:" + daemon.getPort() + "/schedule");
+    }
+
+    /**
+     * @return the port the daemon is listening on
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stop listening, and stop every job.
+     */
+    public void stop() {
+        server.stop(0);
+        jobs.shutdownNow();
+        pool.shutdownNow();
+        requests.shutdownNow();
+        timer.cancel();
+    }
+
+    private void schedule(HttpExchange exchange) throws IOException {
+        try {
+            if (!exchange.getRequestMethod().equals("POST")) {
+                respond(exchange, 405, "Send the graph with POST.\n");
+                return;
+            }
+            Map<String, String> parameters = getParameters(exchange.getRequestURI().getRawQuery());
+            Job job;
+            try {
+                job = new Job(readAll(exchange.getRequestBody()), parameters, numJobs.getAndIncrement());
+            } catch (IllegalArgumentException e) {
+                respond(exchange, 400, e.getMessage() + "\n");
+                return;
+            } catch (IndexOutOfBoundsException e) {
+                respond(exchange, 400, "An option is missing its value.\n");
+                return;
+            }
+
+            jobs.execute(job);
+            Job.Result result = job.result.get();
+            if (result.error != null) {
+                respond(exchange, 400, result.error + "\n");
+                return;
+            }
+            exchange.getResponseHeaders().set("Content-Type", DOT_CONTENT_TYPE);
+            exchange.getResponseHeaders().set("X-Makespan", Integer.toString(result.makespan));
+            exchange.getResponseHeaders().set("X-Lower-Bound", Integer.toString(result.lowerBound));
+            exchange.getResponseHeaders().set("X-Optimal", Boolean.toString(result.optimal));
+            respond(exchange, 200, result.dot);
+        } catch (RejectedExecutionException | InterruptedException | ExecutionException e) {
+            respond(exchange, 503, "The daemon is stopping.\n");
+        }
+    }
+
+    private void status(HttpExchange exchange) throws IOException {
+        respond(exchange, 200, "waiting: " + jobs.getQueue().size() + "\n"
+                + "scheduling: " + jobs.getActiveCount() + "\n"
+                + "done: " + jobs.getCompletedTaskCount() + "\n");
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        if (!exchange.getResponseHeaders().containsKey("Content-Type")) {
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        }
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    private static Map<String, String> getParameters(String query) throws UnsupportedEncodingException {
+        Map<String, String> parameters = new HashMap<>();
+        if (query == null) return parameters;
+        for (String parameter : query.split("&")) {
+            int equals = parameter.indexOf('=');
+            if (equals < 0) continue;
+            parameters.put(URLDecoder.decode(parameter.substring(0, equals), "UTF-8"),
+                    URLDecoder.decode(parameter.substring(equals + 1), "UTF-8"));
+        }
+        return parameters;
+    }
+
+    /**
+     * One graph to schedule.  Everything it needs is its own, apart from the threads
+     * the fork search runs on, so any number of jobs can run at once.
+     */
+    private class Job implements Runnable, Comparable<Job> {
+        private final byte[] graph;
+        private final CLI options;
+        private final int priority;
+        private final int timeoutSeconds;
+        private final long sequence;
+        private final CompletableFuture<Result> result = new CompletableFuture<>();
+
+        // Check everything that can be checked before the job waits for its turn
+        Job(byte[] graph, Map<String, String> parameters, long sequence) {
+            this.graph = graph;
+            this.sequence = sequence;
+            priority = getInteger(parameters, "priority", 0);
+            timeoutSeconds = getInteger(parameters, "timeout", 0);
+            if (!parameters.containsKey("processors")) {
+                throw new IllegalArgumentException("Say how many processors to schedule on, e.g. ?processors=2");
+            }
+
+            List<String> args = new ArrayList<>(Arrays.asList("-", parameters.get("processors")));
+            String optionString = parameters.getOrDefault("options", "").trim();
+            if (!optionString.isEmpty()) {
+                for (String option : optionString.split("\\s+")) {
+                    if (option.startsWith("-") && !ALLOWED_OPTIONS.contains(option)) {
+                        throw new IllegalArgumentException("The daemon does not take the option " + option + ".");
+                    }
+                    args.add(option);
+                }
+            }
+            options = new CLI();
+            options.parseOptions(args);
+        }
+
+        private int getInteger(Map<String, String> parameters, String name, int defaultValue) {
+            if (!parameters.containsKey(name)) return defaultValue;
+            try {
+                int value = Integer.parseInt(parameters.get(name));
+                if (name.equals("timeout") && value < 0) throw new NumberFormatException();
+                return value;
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Not a valid integer for the " + name + ".");
+            }
+        }
+
+        @Override
+        public void run() {
+            TimerTask stop = null;
+            try {
+                onJobStart.accept(sequence);
+                TaskModel taskModel = new FileParser(new ByteArrayInputStream(graph)).getTaskModelFromFile();
+                IAlgorithm algorithm = options.createAlgorithm(taskModel);
+                if (algorithm instanceof DFSAlgorithmFork) {
+                    ((DFSAlgorithmFork) algorithm).setPool(pool);
+                }
+
+                stop = new TimerTask() {
+                    @Override
+                    public void run() {
+                        algorithm.stop();
+                    }
+                };
+                if (timeoutSeconds > 0) {
+                    timer.schedule(stop, timeoutSeconds * 1000L);
+                }
+                ISchedule schedule = algorithm.run();
+
+                Result done = new Result();
+                done.makespan = schedule.getFinishTime();
+                done.lowerBound = algorithm.getLowerBound();
+                done.optimal = algorithm.isOptimal();
+                done.dot = new DotGraph(null, taskModel.getGraphId(), schedule, taskModel).toDot();
+                result.complete(done);
+            } catch (Exception e) {
+                Result failed = new Result();
+                failed.error = "Could not schedule the graph: " + e;
+                result.complete(failed);
+            } finally {
+                if (stop != null) stop.cancel();
+                // Even after an Error, e.g. running out of memory, the request must not wait for ever
+                if (!result.isDone()) {
+                    Result failed = new Result();
+                    failed.error = "Could not schedule the graph.";
+                    result.complete(failed);
+                }
+            }
+        }
+
+        // Highest priority first, then first come first served
+        @Override
+        public int compareTo(Job other) {
+            if (priority != other.priority) return Integer.compare(other.priority, priority);
+            return Long.compare(sequence, other.sequence);
+        }
+
+        private class Result {
+            private int makespan;
+            private int lowerBound;
+            private boolean optimal;
+            private String dot;
+            private String error;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package app;
+
+import scheduleModel.ScheduleState;
+import taskModel.TaskModel;
+
+/**
+ * Checks whether the free tasks of a partial schedule can be scheduled in one
+ * fixed order.  This is the case when the free tasks look like part of a fork,
+ * join or chain:
+ *  - every free task has at most one parent and at most one child,
+ *  - the free tasks which have a child all have the same child,
+ *  - the free tasks which have a parent all have it on the same processor.
+ * Then, if sorting the tasks by data ready time (ties broken by largest out-edge
+ * cost first) also sorts them by out-edge cost, some optimal schedule starts the
+ * tasks in that order.  So only the first task in the order has to be tried,
+ * on each processor, instead of every free task.
+ *
+ * The order has to hold on every processor, so it must sort the tasks both by when
+ * their data arrives on the parents' processor and by when it arrives anywhere else.
+ * A task with no child has nothing to send, so it comes after every task with a
+ * child, even one whose out-edge costs nothing.
+ *
+ * Searches which only try a task on one processor once it has been tried at an
+ * earlier level must not use the order when any of the free tasks is one of those,
+ * as the task may then not go where the schedules the order keeps need it.
+ */
+
+/**
+ * Based on:
+ * Orr, M., & Sinnen, O. (2015). A duplicate-free state-space model for optimal
+ task scheduling. Euro-Par 2015: Parallel Processing, 516-527.
+ doi:10.1007/978-3-662-48096-0_40
+ */
+public class FixedTaskOrder {
+
+    private int[] parentStarts;
+    private int[] parents;
+    private int[] parentCosts;
+    private int[] childStarts;
+    private int[] children;
+    private int[] childCosts;
+
+    public FixedTaskOrder(TaskModel taskModel) {
+        parentStarts = taskModel.getParentStarts();
+        parents = taskModel.getParents();
+        parentCosts = taskModel.getParentCosts();
+        childStarts = taskModel.getChildStarts();
+        children = taskModel.getChildren();
+        childCosts = taskModel.getChildCosts();
+    }
+
+    /**
+     * Find the task to schedule next if the free tasks have a fixed order.
+     * This does not allocate anything, and can be used by many threads at once.
+     * @param state
+     * @param freeTasks indices of the free tasks
+     * @param numFree the number of free tasks in freeTasks
+     * @return the index of the first task in the fixed order, or TaskModel.NO_TASK
+     *         if the tasks do not have a fixed order
+     */
+    public int getFirstTask(ScheduleState state, int[] freeTasks, int numFree) {
+        if (numFree < 2) return TaskModel.NO_TASK;
+
+        int commonChild = TaskModel.NO_TASK;
+        int parentProcessor = ScheduleState.UNSCHEDULED;
+        for (int i = 0; i < numFree; i++) {
+            int task = freeTasks[i];
+            int numParents = parentStarts[task + 1] - parentStarts[task];
+            int numChildren = childStarts[task + 1] - childStarts[task];
+            if (numParents > 1 || numChildren > 1) return TaskModel.NO_TASK;
+
+            if (numChildren == 1) {
+                int child = children[childStarts[task]];
+                if (commonChild == TaskModel.NO_TASK) {
+                    commonChild = child;
+                } else if (child != commonChild) {
+                    return TaskModel.NO_TASK;
+                }
+            }
+            if (numParents == 1) {
+                int processor = state.getProcessorOf(parents[parentStarts[task]]);
+                if (parentProcessor == ScheduleState.UNSCHEDULED) {
+                    parentProcessor = processor;
+                } else if (processor != parentProcessor) {
+                    return TaskModel.NO_TASK;
+                }
+            }
+        }
+
+        // Sorting by data ready time must also sort by the data ready time on the parents'
+        // processor, and by out-edge cost, largest first.  That fails if a task comes first
+        // but its data arrives later somewhere, or it has a cheaper out-edge.
+        int first = freeTasks[0];
+        for (int i = 0; i < numFree; i++) {
+            int a = freeTasks[i];
+            for (int j = 0; j < numFree; j++) {
+                int b = freeTasks[j];
+                if (comesBefore(state, a, b) && (localDataReadyTime(state, a) > localDataReadyTime(state, b)
+                        || outEdgeCost(a) < outEdgeCost(b))) {
+                    return TaskModel.NO_TASK;
+                }
+            }
+            if (comesBefore(state, a, first)) first = a;
+        }
+        return first;
+    }
+
+    // Order by data ready time, then largest out-edge cost, then index
+    private boolean comesBefore(ScheduleState state, int a, int b) {
+        if (dataReadyTime(state, a) != dataReadyTime(state, b)) {
+            return dataReadyTime(state, a) < dataReadyTime(state, b);
+        }
+        if (localDataReadyTime(state, a) != localDataReadyTime(state, b)) {
+            return localDataReadyTime(state, a) < localDataReadyTime(state, b);
+        }
+        if (outEdgeCost(a) != outEdgeCost(b)) {
+            return outEdgeCost(a) > outEdgeCost(b);
+        }
+        return a < b;
+    }
+
+    // When the data from the task's parent (if any) arrives on a processor other than the parent's
+    private int dataReadyTime(ScheduleState state, int task) {
+        if (parentStarts[task + 1] == parentStarts[task]) return 0;
+        int link = parentStarts[task];
+        return state.getFinishTimeOf(parents[link]) + parentCosts[link];
+    }
+
+    // When the data from the task's parent (if any) is ready on the parent's own processor
+    private int localDataReadyTime(ScheduleState state, int task) {
+        if (parentStarts[task + 1] == parentStarts[task]) return 0;
+        return state.getFinishTimeOf(parents[parentStarts[task]]);
+    }
+
+    // The cost of the link to the task's child, or -1 if it has none, so it sorts
+    // after even a link that costs nothing
+    private int outEdgeCost(int task) {
+        if (childStarts[task + 1] == childStarts[task]) return -1;
+        return childCosts[childStarts[task]];
+    }
+}
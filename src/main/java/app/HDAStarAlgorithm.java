@@ -0,0 +1,225 @@
+package app;
+
+import scheduleModel.*;
+import taskModel.TaskModel;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Parallel best-first search where every partial schedule belongs to one worker
+ * thread, chosen by the schedule's hash.  Each worker has its own open list and
+ * its own set of schedules it has seen, so neither needs locking.  When a worker
+ * creates a schedule that belongs to another worker, it sends it to that worker's
+ * inbox, which is a lock-free queue.  Identical schedules always hash to the same
+ * worker, so duplicates are still found even though no set is shared.
+ *
+ * Unlike AStarAlgorithm, the first complete schedule found is not necessarily the
+ * best, because each worker only expands its own cheapest schedule.  Complete
+ * schedules become the incumbent instead, and the search carries on until every
+ * schedule that could beat the incumbent has been expanded.
+ */
+
+/**
+ * Based on:
+ * Kishimoto, A., Fukunaga, A., & Botea, A. (2013). Evaluation of a simple, scalable,
+ parallel best-first search strategy. Artificial Intelligence, 195, 222-248.
+ doi:10.1016/j.artint.2012.10.007
+ */
+public class HDAStarAlgorithm extends ObservableAlgorithm {
+
+    private int numberOfWorkers;
+    private Worker[] workers;
+    private volatile int bound; // Finish time of the incumbent
+
+    // The number of schedules in any open list or inbox.  Children are counted before
+    // their parent is removed, so this is only 0 once the search is over.
+    private AtomicLong pending = new AtomicLong();
+
+    private LongAdder branches = new LongAdder();
+    private LongAdder schedulesSent = new LongAdder();
+    private LongAdder duplicatesSkipped = new LongAdder();
+
+    /**
+     * @param taskModel
+     * @param numOfProcessors
+     * @param numberOfWorkers the number of threads to search with
+     */
+    public HDAStarAlgorithm(TaskModel taskModel, int numOfProcessors, int numberOfWorkers) {
+        super(taskModel, numOfProcessors);
+        this.numberOfWorkers = Math.max(1, numberOfWorkers);
+    }
+
+    public HDAStarAlgorithm(TaskModel taskModel, int numOfProcessors) {
+        this(taskModel, numOfProcessors, Runtime.getRuntime().availableProcessors());
+    }
+
+    @Override
+    public ISchedule run() {
+        // Only schedules which beat the heuristics need to be searched
+        bound = useHeuristicSchedule().getFinishTime();
+
+        workers = new Worker[numberOfWorkers];
+        for (int i = 0; i < numberOfWorkers; i++) {
+            workers[i] = new Worker(i);
+        }
+
+        ScheduleState root = new ScheduleState(taskModel, numOfProcessors);
+        pending.set(1);
+        workers[getOwner(root)].inbox.add(new SearchNode(root, 0, cost(root)));
+
+        Thread[] threads = new Thread[numberOfWorkers];
+        for (int i = 0; i < numberOfWorkers; i++) {
+            threads[i] = new Thread(workers[i]);
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                stop();
+            }
+        }
+
+        // If the search was stopped, the cheapest schedule left anywhere is as good as we can prove
+        if (stopRequested) {
+            for (Worker worker : workers) {
+                for (SearchNode node : worker.open) openLowerBound = Math.min(openLowerBound, node.cost);
+                for (SearchNode node : worker.inbox) openLowerBound = Math.min(openLowerBound, node.cost);
+            }
+        }
+
+        numBranches = (int) Math.min(Integer.MAX_VALUE, branches.sum());
+        fire(EventType.ALGORTHIM_FINISHED);
+        return bestSchedule;
+    }
+
+    @Override
+    public String getStatistics() {
+        return "Branches explored: " + branches.sum() + System.lineSeparator()
+                + "Schedules sent to other workers (of " + numberOfWorkers + "): " + schedulesSent.sum() + System.lineSeparator()
+                + "Duplicate schedules skipped: " + duplicatesSkipped.sum();
+    }
+
+    // The worker a schedule belongs to.  The hash does not depend on how the processors are numbered.
+    private int getOwner(ScheduleState state) {
+        return Math.floorMod(state.hashCode(), numberOfWorkers);
+    }
+
+    // Replace the incumbent if a complete schedule beats it
+    private synchronized void updateBestSchedule(ScheduleState state) {
+        if (state.getFinishTime() < bound) {
+            bestSchedule = state.asSchedule();
+            bound = state.getFinishTime();
+            fire(EventType.BEST_SCHEDULE_UPDATED);
+        }
+    }
+
+    /**
+     * One search thread.  Only this thread touches its open list and seen set;
+     * other threads only add to its inbox.
+     */
+    private class Worker implements Runnable {
+        private int id;
+        private PriorityQueue<SearchNode> open = new PriorityQueue<>();
+        private Set<ScheduleState> seen = new HashSet<>();
+        private ConcurrentLinkedQueue<SearchNode> inbox = new ConcurrentLinkedQueue<>();
+
+        private IScheduler scheduler = new Scheduler();
+        private int[] freeTasks = new int[taskModel.getTaskModelSize()];
+
+        Worker(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public void run() {
+            while (!stopRequested) {
+                // Take in the schedules other workers have sent, dropping any seen before
+                SearchNode received;
+                while ((received = inbox.poll()) != null) {
+                    if (received.cost < bound && seen.add(received.state)) {
+                        open.add(received);
+                    } else {
+                        if (received.cost < bound) duplicatesSkipped.increment();
+                        pending.decrementAndGet();
+                    }
+                }
+
+                SearchNode node = open.poll();
+                if (node == null) {
+                    if (pending.get() == 0) return;
+                    Thread.yield(); // Wait for other workers to send something
+                    continue;
+                }
+
+                // The incumbent may have improved since this schedule was added
+                if (node.cost < bound) expand(node);
+                pending.decrementAndGet();
+            }
+        }
+
+        // Try each free task on each processor, and send each child that can beat the incumbent to its owner
+        private void expand(SearchNode node) {
+            branches.increment();
+            fire(EventType.NUM_BRANCHES_CHANGED);
+
+            int numTasks = freeTasks.length;
+            int numFree = getFreeTasks(node.state, freeTasks);
+            for (int i = 0; i < numFree; i++) {
+                int task = freeTasks[i];
+
+                // Processors are identical, so only one empty processor needs to be tried
+                boolean triedEmptyProcessor = false;
+                for (int processor = 0; processor < numOfProcessors; processor++) {
+                    if (node.state.isEmpty(processor)) {
+                        if (triedEmptyProcessor) continue;
+                        triedEmptyProcessor = true;
+                    }
+
+                    ScheduleState child = node.state.copy();
+                    scheduler.schedule(task, processor, child);
+                    double cost = cost(child);
+                    if (cost >= bound) continue;
+
+                    if (node.depth + 1 == numTasks) {
+                        updateBestSchedule(child);
+                    } else {
+                        int owner = getOwner(child);
+                        if (owner != id) schedulesSent.increment();
+                        pending.incrementAndGet();
+                        workers[owner].inbox.add(new SearchNode(child, node.depth + 1, cost));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * An entry in an open list.  Entries are ordered by cost, and between
+     * equally cheap schedules the one with more tasks scheduled comes first.
+     */
+    private static class SearchNode implements Comparable<SearchNode> {
+        private ScheduleState state;
+        private int depth;
+        private double cost;
+
+        SearchNode(ScheduleState state, int depth, double cost) {
+            this.state = state;
+            this.depth = depth;
+            this.cost = cost;
+        }
+
+        @Override
+        public int compareTo(SearchNode other) {
+            int result = Double.compare(cost, other.cost);
+            if (result == 0) {
+                result = Integer.compare(other.depth, depth);
+            }
+            return result;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package app;
 
+import app.bounds.LowerBound;
 import scheduleModel.ISchedule;
 
 /**
@@ -9,4 +10,54 @@ import scheduleModel.ISchedule;
 public interface IAlgorithm {
     ISchedule run();
     ISchedule getBestSchedule();
+
+    /**
+     * Statistics about the search for the user to see once run() has finished.
+     * @return a human readable summary, or an empty string if there is nothing to report
+     */
+    default String getStatistics() {
+        return "";
+    }
+
+    /**
+     * Choose the lower bound used to prune the search.  Algorithms which do not
+     * search over ScheduleState keep their own bound and ignore this.
+     * @param lowerBound
+     */
+    default void setLowerBound(LowerBound lowerBound) {
+    }
+
+    /**
+     * Choose the order the children of a partial schedule are searched in.  Only the
+     * depth first searches use this; the best first searches always expand the
+     * cheapest schedule next.
+     * @param childOrder
+     */
+    default void setChildOrder(ChildOrder childOrder) {
+    }
+
+    /**
+     * Ask the search to stop as soon as it can, from any thread.  run() then returns
+     * the best schedule found so far instead of a proven optimal one.  Algorithms
+     * which cannot stop early ignore this and run to the end.
+     */
+    default void stop() {
+    }
+
+    /**
+     * The best lower bound on the optimal makespan once run() has returned.  This is
+     * the makespan of the best schedule unless the search was stopped before it
+     * could rule out everything shorter.
+     * @return a makespan that no schedule can beat
+     */
+    default int getLowerBound() {
+        return getBestSchedule().getFinishTime();
+    }
+
+    /**
+     * @return true if the best schedule has been proven to be optimal
+     */
+    default boolean isOptimal() {
+        return getLowerBound() >= getBestSchedule().getFinishTime();
+    }
 }
@@ -0,0 +1,154 @@
+package app;
+
+import scheduleModel.*;
+import taskModel.TaskModel;
+
+import java.util.*;
+
+/**
+ * Iterative-deepening A* (IDA*) on the makespan.
+ * Each iteration is a depth-first search which only follows partial schedules
+ * whose lower bound is within a threshold.  The first threshold is the lower bound
+ * of the empty schedule, and each following iteration raises it to the smallest
+ * lower bound that went over the previous one.  The first complete schedule found
+ * is therefore optimal.  The search starts with the heuristic schedule, and stops
+ * as soon as the threshold reaches its makespan, as nothing shorter is then left.
+ *
+ * Like DFSAlgorithm only the current path is held in memory, but partial schedules
+ * are never explored past a bound which is too optimistic to be beaten.
+ */
+public class IDAStarAlgorithm extends ObservableAlgorithm {
+
+    private IScheduler scheduler;
+    private int numTasks;
+
+    private int[][] freeTasks; // Free tasks at each depth
+    private int nextThreshold; // Smallest cost that went over the current threshold, at most the best makespan
+    private long iterationBranches;
+    private List<Iteration> iterations = new ArrayList<>();
+
+    public IDAStarAlgorithm(TaskModel taskModel, int numOfProcessors) {
+        super(taskModel, numOfProcessors);
+        scheduler = new Scheduler();
+        numTasks = taskModel.getTaskModelSize();
+    }
+
+    @Override
+    public ISchedule run() {
+        ScheduleState schedule = new ScheduleState(taskModel, numOfProcessors);
+        freeTasks = new int[numTasks][numTasks];
+
+        int heuristicMakespan = useHeuristicSchedule().getFinishTime();
+
+        // Makespans are whole numbers, so a lower bound can always be rounded up
+        int threshold = (int) Math.ceil(cost(schedule));
+
+        // Once every schedule below the heuristic's makespan has been ruled out, the heuristic schedule is optimal
+        boolean found = false;
+        while (!found && threshold < heuristicMakespan) {
+            nextThreshold = heuristicMakespan;
+            iterationBranches = 0;
+
+            found = search(schedule, 0, threshold);
+
+            // Out of time.  The earlier iterations ruled out everything below the threshold.
+            if (stopRequested && !found) {
+                openLowerBound = threshold;
+                break;
+            }
+
+            iterations.add(new Iteration(threshold, iterationBranches));
+            threshold = nextThreshold;
+        }
+
+        fire(EventType.ALGORTHIM_FINISHED);
+        return bestSchedule;
+    }
+
+    @Override
+    public String getStatistics() {
+        StringBuilder statistics = new StringBuilder();
+        for (int i = 0; i < iterations.size(); i++) {
+            if (i > 0) statistics.append(System.lineSeparator());
+            statistics.append("Iteration ").append(i + 1)
+                    .append(": threshold ").append(iterations.get(i).getThreshold())
+                    .append(", ").append(iterations.get(i).getBranches()).append(" branches");
+        }
+        return statistics.toString();
+    }
+
+    public List<Iteration> getIterations() {
+        return iterations;
+    }
+
+    /**
+     * Depth-first search below a schedule, which is modified in place and
+     * restored before returning.
+     * @param schedule
+     * @param depth the number of tasks scheduled so far
+     * @param threshold the largest cost which may be explored in this iteration
+     * @return true if a complete schedule within the threshold was found
+     */
+    private boolean search(ScheduleState schedule, int depth, int threshold) {
+        if (stopRequested) return false;
+
+        int numFree = getFreeTasks(schedule, freeTasks[depth]);
+        for (int i = 0; i < numFree; i++) {
+            int task = freeTasks[depth][i];
+
+            // Processors are identical, so only one empty processor needs to be tried
+            boolean triedEmptyProcessor = false;
+
+            for (int processor = 0; processor < numOfProcessors; processor++) {
+                if (schedule.isEmpty(processor)) {
+                    if (triedEmptyProcessor) continue;
+                    triedEmptyProcessor = true;
+                }
+
+                scheduler.schedule(task, processor, schedule);
+                iterationBranches++;
+                numBranches++;
+                fire(EventType.NUM_BRANCHES_CHANGED);
+
+                boolean found = false;
+                int cost = (int) Math.ceil(cost(schedule));
+                if (cost > threshold) {
+                    // Too expensive for this iteration, but it may set the next threshold
+                    if (cost < nextThreshold) nextThreshold = cost;
+                } else if (depth + 1 == numTasks) {
+                    bestSchedule = schedule.copy().asSchedule();
+                    fire(EventType.BEST_SCHEDULE_UPDATED);
+                    found = true;
+                } else {
+                    found = search(schedule, depth + 1, threshold);
+                }
+
+                // Backtrack
+                schedule.remove(task);
+                if (found) return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The threshold used for one depth-first pass, and how many branches it explored.
+     */
+    public static class Iteration {
+        private int threshold;
+        private long branches;
+
+        Iteration(int threshold, long branches) {
+            this.threshold = threshold;
+            this.branches = branches;
+        }
+
+        public int getThreshold() {
+            return threshold;
+        }
+
+        public long getBranches() {
+            return branches;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package app;
+
+import scheduleModel.ISchedule;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The best complete schedule found so far by a parallel search, shared by all of
+ * its threads.  The makespan and the schedule are kept together in one snapshot
+ * which is never modified, only replaced with compare-and-set.  So the bound a
+ * thread prunes against always belongs to the schedule that will be returned,
+ * a better schedule is never overwritten by a worse one, and reading the bound
+ * costs a single volatile read.
+ */
+public class Incumbent {
+
+    private AtomicReference<Snapshot> best = new AtomicReference<>(new Snapshot(Integer.MAX_VALUE, null));
+
+    /**
+     * @return the makespan of the best schedule, or Integer.MAX_VALUE if there is none yet
+     */
+    public int getBound() {
+        return best.get().makespan;
+    }
+
+    /**
+     * @return the best schedule, or null if there is none yet
+     */
+    public ISchedule getSchedule() {
+        return best.get().schedule;
+    }
+
+    /**
+     * Make a schedule the incumbent if it is better than the current one.
+     * The schedule must not be modified afterwards.
+     * @param schedule a complete schedule
+     * @return true if the schedule is now the incumbent
+     */
+    public boolean offer(ISchedule schedule) {
+        Snapshot offered = new Snapshot(schedule.getFinishTime(), schedule);
+        while (true) {
+            Snapshot current = best.get();
+            if (offered.makespan >= current.makespan) return false;
+            if (best.compareAndSet(current, offered)) return true;
+        }
+    }
+
+    private static class Snapshot {
+        private final int makespan;
+        private final ISchedule schedule;
+
+        Snapshot(int makespan, ISchedule schedule) {
+            this.makespan = makespan;
+            this.schedule = schedule;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package app;
+
+import app.bounds.CombinedBound;
+import app.bounds.LowerBound;
+import app.heuristics.Heuristics;
+import scheduleModel.ISchedule;
+import scheduleModel.ScheduleState;
+import taskModel.TaskModel;
+import view.listeners.AlgorithmListener;
+import view.listeners.AlgorithmObservable;
+
+import java.util.*;
+
+/**
+ * Common plumbing for the search algorithms that run on a single thread.
+ * It keeps track of the task model, the best schedule found so far and the
+ * GUI listeners, so that each search strategy only has to implement run().
+ */
+public abstract class ObservableAlgorithm implements IAlgorithm, AlgorithmObservable {
+
+    protected TaskModel taskModel;
+    protected int numOfProcessors;
+
+    protected ISchedule bestSchedule; // Stores current best schedule
+    protected int numBranches = 0;
+
+    protected FixedTaskOrder fixedTaskOrder;
+    protected LowerBound lowerBound;
+    protected ChildOrder childOrder = ChildOrder.DEFAULT;
+
+    // Set by stop(), possibly from another thread, and checked by the search
+    protected volatile boolean stopRequested = false;
+    // The smallest lower bound of the schedules left unexplored because the search was stopped
+    protected double openLowerBound = Double.POSITIVE_INFINITY;
+
+    private List<AlgorithmListener> listeners = new ArrayList<>();
+
+    public ObservableAlgorithm(TaskModel taskModel, int numOfProcessors) {
+        this.taskModel = taskModel;
+        this.numOfProcessors = numOfProcessors;
+        fixedTaskOrder = new FixedTaskOrder(taskModel);
+        lowerBound = CombinedBound.fromNames(CombinedBound.DEFAULT, taskModel);
+    }
+
+    @Override
+    public void setLowerBound(LowerBound lowerBound) {
+        this.lowerBound = lowerBound;
+    }
+
+    @Override
+    public void setChildOrder(ChildOrder childOrder) {
+        this.childOrder = childOrder;
+    }
+
+    @Override
+    public ISchedule getBestSchedule() {
+        return bestSchedule;
+    }
+
+    @Override
+    public void stop() {
+        stopRequested = true;
+    }
+
+    @Override
+    public int getLowerBound() {
+        // Makespans are whole numbers, so a lower bound can be rounded up
+        return (int) Math.min(bestSchedule.getFinishTime(), Math.ceil(openLowerBound));
+    }
+
+    // Start from the best schedule the list scheduling heuristics can find,
+    // so there is something to return even if the search is stopped straight away
+    protected ScheduleState useHeuristicSchedule() {
+        ScheduleState initialSchedule = Heuristics.getBestSchedule(taskModel, numOfProcessors);
+        bestSchedule = initialSchedule.asSchedule();
+        fire(EventType.BEST_SCHEDULE_UPDATED);
+        return initialSchedule;
+    }
+
+    /**
+     * Get the number of search nodes the algorithm has explored.
+     * @return the number of branches
+     */
+    public int getNumBranches() {
+        return numBranches;
+    }
+
+    // Cost function - the larger of the two lower bounds on a partial schedule
+    protected double cost(ISchedule schedule) {
+        return Math.max((double) schedule.f1(), schedule.f2(taskModel));
+    }
+
+    // Same as above for the compact schedule representation, using whichever lower bounds were chosen
+    protected double cost(ScheduleState state) {
+        return lowerBound.estimate(state);
+    }
+
+    // Check if a task (by index) has not been scheduled yet but all its parents have been,
+    // and so has the task before it in its equivalence class
+    protected boolean isFree(ScheduleState state, int task) {
+        if (state.isScheduled(task)) return false;
+        int equivalentPredecessor = taskModel.getEquivalentPredecessors()[task];
+        if (equivalentPredecessor != TaskModel.NO_TASK && !state.isScheduled(equivalentPredecessor)) return false;
+        int[] parentStarts = taskModel.getParentStarts();
+        int[] parents = taskModel.getParents();
+        for (int i = parentStarts[task]; i < parentStarts[task + 1]; i++) {
+            if (!state.isScheduled(parents[i])) return false;
+        }
+        return true;
+    }
+
+    // Put the tasks to try next into freeTasks, and return how many there are.
+    // If the free tasks have a fixed order, only the first of them needs to be tried.
+    protected int getFreeTasks(ScheduleState state, int[] freeTasks) {
+        int numFree = 0;
+        for (int task = 0; task < taskModel.getTaskModelSize(); task++) {
+            if (isFree(state, task)) freeTasks[numFree++] = task;
+        }
+
+        int first = fixedTaskOrder.getFirstTask(state, freeTasks, numFree);
+        if (first != TaskModel.NO_TASK) {
+            freeTasks[0] = first;
+            return 1;
+        }
+        return numFree;
+    }
+
+    @Override
+    public void addAlgorithmListener(AlgorithmListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void removeAlgorithmListener(AlgorithmListener listener) {
+        listeners.remove(listener);
+    }
+
+    // Fire an event to GUI listeners
+    @Override
+    public void fire(EventType eventType) {
+        if (listeners.isEmpty()) return; // nobody is visualising the search
+        switch (eventType) {
+            case BEST_SCHEDULE_UPDATED:
+                for (AlgorithmListener listener : listeners) {
+                    listener.bestScheduleUpdated(bestSchedule);
+                }
+                break;
+            case ALGORTHIM_FINISHED:
+                for (AlgorithmListener listener: listeners) {
+                    listener.algorithmFinished();
+                }
+                break;
+            case NUM_BRANCHES_CHANGED:
+                for (AlgorithmListener listener: listeners) {
+                    listener.numberOfBranchesChanged();
+                }
+                break;
+        }
+    }
+}
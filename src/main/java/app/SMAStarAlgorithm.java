@@ -0,0 +1,226 @@
+package app;
+
+import scheduleModel.*;
+import taskModel.TaskModel;
+
+import java.util.*;
+
+/**
+ * Memory-bounded best-first search (simplified SMA*).
+ * This behaves exactly like AStarAlgorithm until the number of stored partial
+ * schedules reaches the budget.  From then on, before a schedule is expanded the
+ * worst leaves of the search tree are dropped to make room for its children.
+ * A dropped schedule leaves its cost behind in its parent, and the parent goes
+ * back onto the open list with the cheapest of those costs so the dropped schedules
+ * can be regenerated later if they become the most promising ones again.  Each one
+ * comes back with the cost it left behind, so nothing learned below it is lost.
+ *
+ * The budget is never exceeded, so the search can use all the memory it is
+ * given without running out of heap.
+ */
+
+/**
+ * Based on the memory limited algorithms described in:
+ * Venugopalan, S., & Sinnen, O. (2016). Memory limited algorithms for optimal
+ task scheduling on parallel systems. Journal of Parallel and Distributed
+ Computing, 92, 35-49. doi:10.1016/j.jpdc.2016.03.003
+ */
+public class SMAStarAlgorithm extends ObservableAlgorithm {
+
+    public static final int DEFAULT_MAX_STATES = 1000000;
+
+    private IScheduler scheduler;
+    private int maxStates;
+
+    private int storedStates = 0;
+    private long droppedStates = 0;
+    private long nextNodeId = 0;
+
+    /**
+     * @param taskModel
+     * @param numOfProcessors
+     * @param maxStates the maximum number of partial schedules to keep in memory.
+     *                  This is raised to the smallest budget that still lets the
+     *                  search make progress if it is too small.
+     */
+    public SMAStarAlgorithm(TaskModel taskModel, int numOfProcessors, int maxStates) {
+        super(taskModel, numOfProcessors);
+        scheduler = new Scheduler();
+
+        // Enough room for a whole path from the root plus all the children of its deepest node
+        int numTasks = taskModel.getTaskModelSize();
+        int minimumStates = numTasks + 1 + numTasks * numOfProcessors;
+        this.maxStates = Math.max(maxStates, minimumStates);
+    }
+
+    public SMAStarAlgorithm(TaskModel taskModel, int numOfProcessors) {
+        this(taskModel, numOfProcessors, DEFAULT_MAX_STATES);
+    }
+
+    @Override
+    public ISchedule run() {
+        int numTasks = taskModel.getTaskModelSize();
+
+        // Nodes that are waiting to be expanded, cheapest first.  These are the leaves of
+        // the search tree, plus any node that has forgotten some of its children and so
+        // needs to be expanded again to bring them back.
+        TreeSet<SearchNode> open = new TreeSet<>();
+
+        useHeuristicSchedule();
+        ScheduleState root = new ScheduleState(taskModel, numOfProcessors);
+        SearchNode rootNode = new SearchNode(root, null, -1, 0, cost(root));
+        open.add(rootNode);
+        storedStates = 1;
+
+        while (!open.isEmpty()) {
+            // Out of time, so the cheapest schedule left (or forgotten) is as good as we can prove
+            if (stopRequested) {
+                openLowerBound = open.first().cost;
+                break;
+            }
+
+            SearchNode node = open.pollFirst();
+            numBranches++;
+            fire(EventType.NUM_BRANCHES_CHANGED);
+
+            // Nothing left in (or forgotten from) the tree can do better than this schedule
+            if (node.depth == numTasks) {
+                bestSchedule = node.state.asSchedule();
+                fire(EventType.BEST_SCHEDULE_UPDATED);
+                break;
+            }
+
+            // Create the children that are not already in memory.  A child that was forgotten
+            // cannot be cheaper than the cost it left behind in this node.
+            List<SearchNode> children = expand(node);
+            node.forgottenCosts.clear();
+
+            // Make room for the children by forgetting the worst leaves
+            while (storedStates + children.size() > maxStates) {
+                SearchNode worst = getWorstLeaf(open, node);
+                if (worst == null) break;
+                drop(worst, open);
+            }
+
+            node.children.addAll(children);
+            storedStates += children.size();
+            open.addAll(children);
+        }
+
+        fire(EventType.ALGORTHIM_FINISHED);
+        return bestSchedule;
+    }
+
+    @Override
+    public String getStatistics() {
+        return "Partial schedules dropped to stay within the budget of " + maxStates + ": " + droppedStates;
+    }
+
+    public long getDroppedStates() {
+        return droppedStates;
+    }
+
+    // Create the children of a schedule which are not in memory, by trying each free task on each processor
+    private List<SearchNode> expand(SearchNode node) {
+        // Children are numbered by the order they are generated in, so we know which ones we already have
+        Set<Integer> inMemory = new HashSet<>();
+        for (SearchNode child : node.children) {
+            inMemory.add(child.successorIndex);
+        }
+
+        List<SearchNode> children = new ArrayList<>();
+        int[] freeTasks = new int[taskModel.getTaskModelSize()];
+        int numFree = getFreeTasks(node.state, freeTasks);
+        int successorIndex = 0;
+        for (int i = 0; i < numFree; i++) {
+            int task = freeTasks[i];
+
+            // Processors are identical, so only one empty processor needs to be tried
+            boolean triedEmptyProcessor = false;
+            for (int processor = 0; processor < numOfProcessors; processor++) {
+                if (node.state.isEmpty(processor)) {
+                    if (triedEmptyProcessor) continue;
+                    triedEmptyProcessor = true;
+                }
+                if (inMemory.contains(successorIndex)) {
+                    successorIndex++;
+                    continue;
+                }
+
+                // A child is never cheaper than its parent, or than it was found to be before it was forgotten
+                double minimumCost = node.forgottenCosts.getOrDefault(successorIndex, node.cost);
+                ScheduleState child = node.state.copy();
+                scheduler.schedule(task, processor, child);
+                children.add(new SearchNode(child, node, successorIndex, node.depth + 1, Math.max(cost(child), minimumCost)));
+                successorIndex++;
+            }
+        }
+        return children;
+    }
+
+    // The most expensive leaf that may be dropped.  Neither the node being expanded nor its
+    // children are dropped, or it would go straight back onto the open list to regenerate them.
+    private SearchNode getWorstLeaf(TreeSet<SearchNode> open, SearchNode expanding) {
+        for (SearchNode candidate : open.descendingSet()) {
+            if (candidate.children.isEmpty() && candidate != expanding && candidate.parent != null
+                    && candidate.parent != expanding) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    // Forget a leaf, remembering its cost in its parent.  The parent goes (back) onto
+    // the open list with that cost so the leaf can be regenerated when it is worth it.
+    private void drop(SearchNode leaf, TreeSet<SearchNode> open) {
+        SearchNode parent = leaf.parent;
+        open.remove(leaf);
+        parent.children.remove(leaf);
+        storedStates--;
+        droppedStates++;
+
+        open.remove(parent);
+        parent.forgottenCosts.put(leaf.successorIndex, leaf.cost);
+        parent.cost = Collections.min(parent.forgottenCosts.values());
+        open.add(parent);
+    }
+
+    /**
+     * A node in the part of the search tree held in memory.  Nodes are ordered
+     * by cost, then deepest first, so the first node in the open list is the one
+     * to expand and the last leaf is the one to drop.
+     */
+    private class SearchNode implements Comparable<SearchNode> {
+        private ScheduleState state;
+        private SearchNode parent;
+        private int successorIndex;
+        private int depth;
+        private double cost;
+        private long id;
+
+        private List<SearchNode> children = new ArrayList<>();
+        // The cost each forgotten child left behind, by successorIndex
+        private Map<Integer, Double> forgottenCosts = new HashMap<>();
+
+        SearchNode(ScheduleState state, SearchNode parent, int successorIndex, int depth, double cost) {
+            this.state = state;
+            this.parent = parent;
+            this.successorIndex = successorIndex;
+            this.depth = depth;
+            this.cost = cost;
+            this.id = nextNodeId++;
+        }
+
+        @Override
+        public int compareTo(SearchNode other) {
+            int result = Double.compare(cost, other.cost);
+            if (result == 0) {
+                result = Integer.compare(other.depth, depth);
+            }
+            if (result == 0) {
+                result = Long.compare(id, other.id);
+            }
+            return result;
+        }
+    }
+}
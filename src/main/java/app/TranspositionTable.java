@@ -0,0 +1,90 @@
+package app;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A fixed size table of search positions that have already been searched, shared by
+ * all the threads of a parallel search.  Positions are found by a 64 bit hash, and a
+ * position only counts as seen if it equals the one stored, so two positions whose
+ * hashes collide are both searched.  Entries are only ever written with compare-and-set,
+ * so no locking is needed.
+ *
+ * The table is split into buckets of a few entries.  When a bucket is full, the
+ * entry with the most tasks scheduled is replaced, because the part of the search
+ * below it is the smallest and so the cheapest to search again.  Losing an entry
+ * only means a position may be searched twice - it never loses a schedule.
+ *
+ * @param <T> what a position is.  equals() must only be true of positions which have
+ *            exactly the same search below them.
+ */
+public class TranspositionTable<T> {
+
+    private static final int BUCKET_SIZE = 4;
+
+    private AtomicReferenceArray<Entry<T>> entries;
+    private int bucketMask;
+
+    /**
+     * @param size the number of positions to remember.  This is rounded up to a
+     *             power of two of at least one bucket.
+     */
+    public TranspositionTable(int size) {
+        int capacity = BUCKET_SIZE;
+        while (capacity < size && capacity < (1 << 30)) {
+            capacity <<= 1;
+        }
+        entries = new AtomicReferenceArray<>(capacity);
+        bucketMask = capacity / BUCKET_SIZE - 1;
+    }
+
+    /**
+     * Record that a position is going to be searched.
+     * @param hash the hash of the position
+     * @param depth the number of tasks scheduled in the position
+     * @param position
+     * @return false if the position was already in the table, so it does not need
+     *         to be searched again
+     */
+    public boolean add(long hash, int depth, T position) {
+        Entry<T> entry = new Entry<>(hash, depth, position);
+
+        int start = (int) ((hash ^ (hash >>> 32)) & bucketMask) * BUCKET_SIZE;
+        int deepest = start;
+        Entry<T> deepestEntry = null;
+        for (int i = start; i < start + BUCKET_SIZE; i++) {
+            Entry<T> current = entries.get(i);
+            if (current == null) {
+                if (entries.compareAndSet(i, null, entry)) return true;
+                current = entries.get(i); // Another thread got there first
+            }
+            if (current.hash == hash && current.position.equals(position)) return false;
+            if (deepestEntry == null || current.depth > deepestEntry.depth) {
+                deepestEntry = current;
+                deepest = i;
+            }
+        }
+
+        // The bucket is full, so replace the deepest position if this one is no deeper.
+        // If another thread changes it first, just give up - this is only a cache.
+        if (deepestEntry.depth >= depth) {
+            entries.compareAndSet(deepest, deepestEntry, entry);
+        }
+        return true;
+    }
+
+    public int getSize() {
+        return entries.length();
+    }
+
+    private static class Entry<T> {
+        private final long hash;
+        private final int depth;
+        private final T position;
+
+        Entry(long hash, int depth, T position) {
+            this.hash = hash;
+            this.depth = depth;
+            this.position = position;
+        }
+    }
+}
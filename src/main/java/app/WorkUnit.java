@@ -0,0 +1,93 @@
+package app;
+
+import scheduleModel.ScheduleState;
+import taskModel.Task;
+import taskModel.TaskModel;
+import taskModel.TaskNotFoundException;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A subtree of the fork search that can be searched on its own, somewhere else or
+ * later: the partial schedule at its root, plus what the search needs to carry on
+ * below it the same way it would have (the tasks already tried on every processor,
+ * and the processor of the last task).  See DFSAlgorithmFork.split().
+ */
+public class WorkUnit {
+    private final ScheduleState schedule;
+    private final Set<Task> previousTasks;
+    private final int previousProcessor;
+    private final double cost;
+
+    /**
+     * @param schedule the partial schedule, which must not be modified afterwards
+     * @param previousTasks
+     * @param previousProcessor
+     * @param cost a lower bound on every schedule in the subtree
+     */
+    public WorkUnit(ScheduleState schedule, Set<Task> previousTasks, int previousProcessor, double cost) {
+        this.schedule = schedule;
+        this.previousTasks = previousTasks;
+        this.previousProcessor = previousProcessor;
+        this.cost = cost;
+    }
+
+    public ScheduleState getSchedule() {
+        return schedule;
+    }
+
+    public Set<Task> getPreviousTasks() {
+        return previousTasks;
+    }
+
+    public int getPreviousProcessor() {
+        return previousProcessor;
+    }
+
+    public double getCost() {
+        return cost;
+    }
+
+    /**
+     * Write the unit so it can be searched by another process or run, see read().
+     * Tasks are written by name, like ScheduleState.write().
+     * @param out
+     * @throws IOException
+     */
+    public void write(DataOutput out) throws IOException {
+        schedule.write(out);
+        out.writeInt(previousTasks.size());
+        for (Task task : previousTasks) {
+            out.writeUTF(task.getName());
+        }
+        out.writeInt(previousProcessor);
+        out.writeDouble(cost);
+    }
+
+    /**
+     * @param in
+     * @param taskModel the graph the unit is for
+     * @param numOfProcessors
+     * @return the unit written by write()
+     * @throws IOException if it cannot be read, or is not a unit of this graph
+     */
+    public static WorkUnit read(DataInput in, TaskModel taskModel, int numOfProcessors) throws IOException {
+        ScheduleState schedule = ScheduleState.read(in, taskModel, numOfProcessors);
+        int numPreviousTasks = in.readInt();
+        Set<Task> previousTasks = new HashSet<>();
+        for (int i = 0; i < numPreviousTasks; i++) {
+            String name = in.readUTF();
+            try {
+                previousTasks.add(taskModel.get(name));
+            } catch (TaskNotFoundException e) {
+                throw new IOException("Not a task in the graph: " + name);
+            }
+        }
+        int previousProcessor = in.readInt();
+        return new WorkUnit(schedule, previousTasks, previousProcessor, in.readDouble());
+    }
+}
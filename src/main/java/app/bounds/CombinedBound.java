@@ -0,0 +1,86 @@
+package app.bounds;
+
+import scheduleModel.ScheduleState;
+import taskModel.TaskModel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The largest of several lower bounds, which is still a lower bound.
+ * It is never less than the finish time of the schedule so far, so for a complete
+ * schedule it is exactly the makespan, whichever bounds are used.  The algorithms
+ * rely on this when they compare a complete schedule against the best one.
+ * The bounds are named so they can be picked from the command line:
+ *  f1    start time + bottom level of the scheduled tasks
+ *  f2    all the work plus the idle time so far, over the processors
+ *  drt   data ready time + bottom level of the free tasks
+ *  comm  bottom level of the unscheduled children given where their parents are
+ *  load  the remaining work packed onto the processors after their finish times
+ */
+public class CombinedBound implements LowerBound {
+
+    public static final List<String> NAMES = Arrays.asList("f1", "f2", "drt", "comm", "load");
+    public static final String DEFAULT = "f1,f2,drt,comm,load";
+
+    private LowerBound[] bounds;
+
+    public CombinedBound(LowerBound... bounds) {
+        this.bounds = bounds;
+    }
+
+    /**
+     * Combine the bounds in a comma separated list of names, e.g. "f1,f2,drt".
+     * @param names
+     * @param taskModel
+     * @return the combined bound
+     * @throws IllegalArgumentException if a name is not one of NAMES
+     */
+    public static CombinedBound fromNames(String names, TaskModel taskModel) {
+        List<LowerBound> bounds = new ArrayList<>();
+        for (String name : names.split(",")) {
+            switch (name.trim()) {
+                case "f1":
+                    bounds.add(new StartTimeBound());
+                    break;
+                case "f2":
+                    bounds.add(new IdleTimeBound());
+                    break;
+                case "drt":
+                    bounds.add(new DataReadyTimeBound(taskModel));
+                    break;
+                case "comm":
+                    bounds.add(new CommunicationBound(taskModel));
+                    break;
+                case "load":
+                    bounds.add(new RemainingWorkBound(taskModel));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown lower bound: " + name);
+            }
+        }
+        return new CombinedBound(bounds.toArray(new LowerBound[bounds.size()]));
+    }
+
+    /**
+     * Check a comma separated list of bound names without needing a task model.
+     * @param names
+     * @return true if every name is one of NAMES
+     */
+    public static boolean isValid(String names) {
+        for (String name : names.split(",")) {
+            if (!NAMES.contains(name.trim())) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public double estimate(ScheduleState state) {
+        double bound = state.getFinishTime();
+        for (LowerBound lowerBound : bounds) {
+            bound = Math.max(bound, lowerBound.estimate(state));
+        }
+        return bound;
+    }
+}
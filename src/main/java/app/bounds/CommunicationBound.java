@@ -0,0 +1,72 @@
+package app.bounds;
+
+import scheduleModel.ScheduleState;
+import taskModel.TaskModel;
+
+/**
+ * A bottom level bound that takes into account where the parents of the
+ * unscheduled tasks have been placed.  A child of a scheduled task can either
+ * go on its parent's processor, after everything already there, or on another
+ * processor once the data has been sent over.  Whichever is earlier, plus the
+ * child's bottom level, is a bound on the makespan.  Unlike f1 this also counts
+ * the communication (or waiting) the current placement forces on tasks which
+ * are not free yet.
+ */
+public class CommunicationBound implements LowerBound {
+
+    private int[] weights;
+    private int[] bottomLevels;
+    private int[] childStarts;
+    private int[] children;
+    private int[] childCosts;
+
+    public CommunicationBound(TaskModel taskModel) {
+        weights = taskModel.getWeights();
+        bottomLevels = taskModel.getBottomLevels();
+        childStarts = taskModel.getChildStarts();
+        children = taskModel.getChildren();
+        childCosts = taskModel.getChildCosts();
+    }
+
+    @Override
+    public double estimate(ScheduleState state) {
+        int numOfProcessors = state.getNumOfProcessors();
+
+        // The two processors that finish first, so we know the earliest free
+        // processor other than any given one
+        int earliest = Integer.MAX_VALUE;
+        int secondEarliest = Integer.MAX_VALUE;
+        int earliestProcessor = -1;
+        for (int processor = 0; processor < numOfProcessors; processor++) {
+            int finishTime = state.getFinishTime(processor);
+            if (finishTime < earliest) {
+                secondEarliest = earliest;
+                earliest = finishTime;
+                earliestProcessor = processor;
+            } else if (finishTime < secondEarliest) {
+                secondEarliest = finishTime;
+            }
+        }
+
+        int bound = 0;
+        for (int task = 0; task < weights.length; task++) {
+            if (!state.isScheduled(task)) continue;
+            int processor = state.getProcessorOf(task);
+            int sameProcessor = state.getFinishTime(processor);
+            int otherProcessor = processor == earliestProcessor ? secondEarliest : earliest;
+
+            for (int i = childStarts[task]; i < childStarts[task + 1]; i++) {
+                int child = children[i];
+                if (state.isScheduled(child)) continue;
+
+                int startTime = sameProcessor;
+                if (otherProcessor != Integer.MAX_VALUE) {
+                    int dataArrives = state.getFinishTimeOf(task) + childCosts[i];
+                    startTime = Math.min(startTime, Math.max(otherProcessor, dataArrives));
+                }
+                bound = Math.max(bound, startTime + bottomLevels[child]);
+            }
+        }
+        return bound;
+    }
+}
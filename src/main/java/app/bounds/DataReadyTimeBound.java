@@ -0,0 +1,66 @@
+package app.bounds;
+
+import scheduleModel.ScheduleState;
+import taskModel.TaskModel;
+
+/**
+ * A free task cannot start on a processor until the processor has finished
+ * its last task and the data from all the task's parents has arrived there.
+ * The earliest of those times over all processors, plus the task's bottom
+ * level, is a bound on the makespan.  This bound is the largest of them over
+ * all the free tasks.
+ */
+
+/**
+ * Based on the data ready time bound in:
+ * Sinnen, O. (2014). Reducing the solution space of optimal task scheduling.
+ Computers & Operations Research, 43, 201-214. doi:10.1016/j.cor.2013.09.004
+ */
+public class DataReadyTimeBound implements LowerBound {
+
+    private int[] bottomLevels;
+    private int[] parentStarts;
+    private int[] parents;
+    private int[] parentCosts;
+
+    public DataReadyTimeBound(TaskModel taskModel) {
+        bottomLevels = taskModel.getBottomLevels();
+        parentStarts = taskModel.getParentStarts();
+        parents = taskModel.getParents();
+        parentCosts = taskModel.getParentCosts();
+    }
+
+    @Override
+    public double estimate(ScheduleState state) {
+        int bound = 0;
+        for (int task = 0; task < bottomLevels.length; task++) {
+            if (state.isScheduled(task) || !parentsScheduled(state, task)) continue;
+
+            int earliestStart = Integer.MAX_VALUE;
+            for (int processor = 0; processor < state.getNumOfProcessors(); processor++) {
+                earliestStart = Math.min(earliestStart, startTimeOn(state, task, processor));
+            }
+            bound = Math.max(bound, earliestStart + bottomLevels[task]);
+        }
+        return bound;
+    }
+
+    private boolean parentsScheduled(ScheduleState state, int task) {
+        for (int i = parentStarts[task]; i < parentStarts[task + 1]; i++) {
+            if (!state.isScheduled(parents[i])) return false;
+        }
+        return true;
+    }
+
+    // The earliest a free task could start at the end of a processor
+    private int startTimeOn(ScheduleState state, int task, int processor) {
+        int startTime = state.getFinishTime(processor);
+        for (int i = parentStarts[task]; i < parentStarts[task + 1]; i++) {
+            int parent = parents[i];
+            int dataArrives = state.getFinishTimeOf(parent);
+            if (state.getProcessorOf(parent) != processor) dataArrives += parentCosts[i];
+            startTime = Math.max(startTime, dataArrives);
+        }
+        return startTime;
+    }
+}
@@ -0,0 +1,15 @@
+package app.bounds;
+
+import scheduleModel.ScheduleState;
+
+/**
+ * The f2 bound: all the work plus the idle time so far, spread perfectly
+ * over the processors.
+ */
+public class IdleTimeBound implements LowerBound {
+
+    @Override
+    public double estimate(ScheduleState state) {
+        return state.f2();
+    }
+}
@@ -0,0 +1,20 @@
+package app.bounds;
+
+import scheduleModel.ScheduleState;
+
+/**
+ * A lower bound on the makespan of every complete schedule that can be built
+ * by adding tasks to the end of the processors of a partial schedule.
+ * Bounds must never overestimate, or the search algorithms could prune away
+ * the optimal schedule.  They are evaluated for every search node, so they
+ * should not allocate anything, and they may be called by many threads at once.
+ * The algorithms use them through CombinedBound.
+ */
+public interface LowerBound {
+
+    /**
+     * @param state a partial schedule
+     * @return a makespan which no completion of the schedule can beat
+     */
+    double estimate(ScheduleState state);
+}
@@ -0,0 +1,73 @@
+package app.bounds;
+
+import scheduleModel.ScheduleState;
+import taskModel.TaskModel;
+
+/**
+ * A bin packing style bound on the work that is left.  Unscheduled tasks can only
+ * go after the tasks already on each processor, so the remaining work has to fit
+ * into the gaps between each processor's finish time and the makespan.  The
+ * smallest makespan that leaves enough room is found by "filling" the processors
+ * up from the one which finishes first.  This is never less than f2, which spreads the
+ * idle time out as if the processors could share it.  The makespan must also leave
+ * room for the longest unscheduled task on at least one processor.
+ */
+public class RemainingWorkBound implements LowerBound {
+
+    private int[] weights;
+
+    public RemainingWorkBound(TaskModel taskModel) {
+        weights = taskModel.getWeights();
+    }
+
+    @Override
+    public double estimate(ScheduleState state) {
+        int numOfProcessors = state.getNumOfProcessors();
+
+        int remainingWork = 0;
+        int longestTask = 0;
+        for (int task = 0; task < weights.length; task++) {
+            if (state.isScheduled(task)) continue;
+            remainingWork += weights[task];
+            longestTask = Math.max(longestTask, weights[task]);
+        }
+
+        int earliestFinish = Integer.MAX_VALUE;
+        int latestFinish = 0;
+        for (int processor = 0; processor < numOfProcessors; processor++) {
+            earliestFinish = Math.min(earliestFinish, state.getFinishTime(processor));
+            latestFinish = Math.max(latestFinish, state.getFinishTime(processor));
+        }
+        if (remainingWork == 0) return latestFinish;
+
+        // The makespan is above the highest processor finish time at which the gaps below it
+        // are not enough for the remaining work.  Past that level every processor finishing
+        // at or below it takes an equal share of the rest, until they reach the next level.
+        int level = earliestFinish;
+        for (int processor = 0; processor < numOfProcessors; processor++) {
+            int finishTime = state.getFinishTime(processor);
+            if (finishTime > level && roomBelow(state, finishTime) < remainingWork) level = finishTime;
+        }
+        int processorsBelow = 0;
+        int finishTimesBelow = 0;
+        for (int processor = 0; processor < numOfProcessors; processor++) {
+            int finishTime = state.getFinishTime(processor);
+            if (finishTime <= level) {
+                processorsBelow++;
+                finishTimesBelow += finishTime;
+            }
+        }
+        double bound = (double) (finishTimesBelow + remainingWork) / processorsBelow;
+
+        return Math.max(Math.max(bound, latestFinish), earliestFinish + longestTask);
+    }
+
+    // The idle time the processors would have if they all finished at the given time
+    private int roomBelow(ScheduleState state, int level) {
+        int room = 0;
+        for (int processor = 0; processor < state.getNumOfProcessors(); processor++) {
+            room += Math.max(0, level - state.getFinishTime(processor));
+        }
+        return room;
+    }
+}
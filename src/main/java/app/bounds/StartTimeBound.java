@@ -0,0 +1,15 @@
+package app.bounds;
+
+import scheduleModel.ScheduleState;
+
+/**
+ * The f1 bound: a scheduled task still has its bottom level to go after it starts,
+ * so the makespan is at least the largest start time + bottom level.
+ */
+public class StartTimeBound implements LowerBound {
+
+    @Override
+    public double estimate(ScheduleState state) {
+        return state.f1();
+    }
+}
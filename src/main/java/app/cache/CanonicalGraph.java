@@ -0,0 +1,188 @@
+package app.cache;
+
+import scheduleModel.ScheduleState;
+import taskModel.TaskModel;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * A numbering of the tasks in a graph that only depends on its structure, weights and link
+ * costs, not on what the tasks or the graph are called.  Graphs that are the same apart from
+ * their names get the same numbering, so a schedule of one is a schedule of the other.
+ *
+ * The form of the graph is its weights and links written out in that numbering.  Two graphs
+ * with equal forms are the same graph, so the form (and its hash, see getKey()) can be used
+ * to look up schedules of graphs seen before.
+ *
+ * Tasks are numbered by colour refinement: a task's colour starts as its weight, and is then
+ * repeatedly mixed with the colours and link costs of its parents and children, until that no
+ * longer tells any more tasks apart.  Tasks that still share a colour are told apart by giving
+ * one of them a colour of its own and refining again.  Which one is picked can occasionally
+ * number two copies of a graph differently; that only means their forms differ.
+ */
+public class CanonicalGraph {
+    private static final long PARENT = 0x5bd1e995L;
+    private static final long CHILD = 0x1b873593L;
+    private static final long PICKED = 0x27d4eb2fL;
+
+    private final int[] order; // The task index of each number
+    private final byte[] form;
+
+    public CanonicalGraph(TaskModel taskModel) {
+        int numTasks = taskModel.getTaskModelSize();
+        int[] weights = taskModel.getWeights();
+
+        long[] colours = new long[numTasks];
+        for (int task = 0; task < numTasks; task++) {
+            colours[task] = ScheduleState.mix(weights[task]);
+        }
+        colours = refine(taskModel, colours);
+        int numColours;
+        while ((numColours = countColours(colours)) < numTasks) {
+            colours[pickTask(colours, numColours)] ^= PICKED;
+            colours = refine(taskModel, colours);
+        }
+
+        // Number the tasks in order of colour
+        long[] sorted = colours.clone();
+        Arrays.sort(sorted);
+        order = new int[numTasks];
+        for (int task = 0; task < numTasks; task++) {
+            order[Arrays.binarySearch(sorted, colours[task])] = task;
+        }
+        form = writeForm(taskModel);
+    }
+
+    /**
+     * @return the task index (see Task.getIndex()) of each task, in the order they are numbered
+     */
+    public int[] getOrder() {
+        return order;
+    }
+
+    /**
+     * @return the weights and links of the graph, with the tasks numbered in order
+     */
+    public byte[] getForm() {
+        return form;
+    }
+
+    /**
+     * A hash of the form and the number of processors, to look up schedules by.
+     * @param numOfProcessors
+     * @return a SHA-256 hash
+     */
+    public byte[] getKey(int numOfProcessors) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(form);
+            digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(numOfProcessors).array());
+            return digest.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Every JVM has SHA-256", e);
+        }
+    }
+
+    // Mix the colours of each task's parents and children into its colour, until no more tasks are told apart
+    private static long[] refine(TaskModel taskModel, long[] colours) {
+        int[] parentStarts = taskModel.getParentStarts();
+        int[] parents = taskModel.getParents();
+        int[] parentCosts = taskModel.getParentCosts();
+        int[] childStarts = taskModel.getChildStarts();
+        int[] children = taskModel.getChildren();
+        int[] childCosts = taskModel.getChildCosts();
+
+        int numColours = countColours(colours);
+        while (true) {
+            long[] refined = new long[colours.length];
+            for (int task = 0; task < colours.length; task++) {
+                long colour = colours[task];
+                colour = mixLinks(colour ^ PARENT, colours, parents, parentCosts, parentStarts[task], parentStarts[task + 1]);
+                colour = mixLinks(colour ^ CHILD, colours, children, childCosts, childStarts[task], childStarts[task + 1]);
+                refined[task] = colour;
+            }
+            int numRefined = countColours(refined);
+            if (numRefined == numColours) return colours;
+            colours = refined;
+            numColours = numRefined;
+        }
+    }
+
+    // Links are sorted first, so the colour does not depend on the order they are stored in
+    private static long mixLinks(long colour, long[] colours, int[] tasks, int[] costs, int start, int end) {
+        long[] links = new long[end - start];
+        for (int i = start; i < end; i++) {
+            links[i - start] = ScheduleState.mix(colours[tasks[i]] + 31 * ScheduleState.mix(costs[i]));
+        }
+        Arrays.sort(links);
+        for (long link : links) {
+            colour = ScheduleState.mix(colour + link);
+        }
+        return colour;
+    }
+
+    private static int countColours(long[] colours) {
+        long[] sorted = colours.clone();
+        Arrays.sort(sorted);
+        int numColours = sorted.length > 0 ? 1 : 0;
+        for (int i = 1; i < sorted.length; i++) {
+            if (sorted[i] != sorted[i - 1]) numColours++;
+        }
+        return numColours;
+    }
+
+    // A task with the smallest colour that more than one task has
+    private static int pickTask(long[] colours, int numColours) {
+        long[] sorted = colours.clone();
+        Arrays.sort(sorted);
+        for (int i = 1; i < sorted.length; i++) {
+            if (sorted[i] == sorted[i - 1]) {
+                for (int task = 0; task < colours.length; task++) {
+                    if (colours[task] == sorted[i]) return task;
+                }
+            }
+        }
+        throw new IllegalStateException("Every task has its own colour");
+    }
+
+    private byte[] writeForm(TaskModel taskModel) {
+        int[] weights = taskModel.getWeights();
+        int[] childStarts = taskModel.getChildStarts();
+        int[] children = taskModel.getChildren();
+        int[] childCosts = taskModel.getChildCosts();
+        int[] numbers = new int[order.length];
+        for (int number = 0; number < order.length; number++) {
+            numbers[order[number]] = number;
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(order.length);
+            for (int task : order) {
+                out.writeInt(weights[task]);
+            }
+            for (int task : order) {
+                // The links of each task, in order of the number of the child
+                long[] links = new long[childStarts[task + 1] - childStarts[task]];
+                for (int i = childStarts[task]; i < childStarts[task + 1]; i++) {
+                    links[i - childStarts[task]] = (long) numbers[children[i]] << 32 | (childCosts[i] & 0xffffffffL);
+                }
+                Arrays.sort(links);
+                out.writeInt(links.length);
+                for (long link : links) {
+                    out.writeLong(link);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,252 @@
+package app.cache;
+
+import scheduleModel.ISchedule;
+import scheduleModel.ScheduleState;
+import taskModel.Task;
+import taskModel.TaskModel;
+
+import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Optimal schedules found by earlier runs, kept in a directory.  Schedules are looked up by
+ * the form of their graph (see CanonicalGraph) and the number of processors, so a graph that
+ * is the same as an earlier one apart from its names gets the earlier schedule, with its own
+ * task names.
+ *
+ * Each schedule is in a file of its own, named after its key.  The keys are kept in an index,
+ * which is memory mapped, with when each was last used.  The index has room for a fixed number
+ * of schedules, and when it is full the least recently used one is deleted to make room.
+ * The index is locked while it is used, so more than one process can share the directory.
+ */
+public class ScheduleCache implements Closeable {
+    public static final int DEFAULT_CAPACITY = 4096;
+    private static final String INDEX_FILENAME = "index";
+    private static final String SCHEDULE_SUFFIX = ".schedule";
+    private static final int INDEX_MAGIC = 0x53434958; // "SCIX"
+    private static final int SCHEDULE_MAGIC = 0x53435343; // "SCSC"
+    private static final int VERSION = 1;
+
+    // The index is a header of magic, version, capacity and clock, then a slot for each schedule
+    private static final int CAPACITY_OFFSET = 8;
+    private static final int CLOCK_OFFSET = 16;
+    private static final int HEADER_SIZE = 24;
+    private static final int KEY_SIZE = 32;
+    private static final int SLOT_SIZE = KEY_SIZE + Long.BYTES; // The key, then when it was last used (0 if the slot is empty)
+
+    private final File directory;
+    private final RandomAccessFile indexFile;
+    private final FileChannel channel;
+    private final MappedByteBuffer index;
+    private final int capacity;
+
+    /**
+     * Open the cache in a directory, making it if it is not there yet.
+     * @param directory
+     * @param capacity the most schedules a new cache keeps (an existing cache keeps its own capacity)
+     * @throws IOException if the directory cannot be used, or has something other than a cache in it
+     */
+    public ScheduleCache(File directory, int capacity) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Could not make " + directory);
+        }
+        this.directory = directory;
+        indexFile = new RandomAccessFile(new File(directory, INDEX_FILENAME), "rw");
+        channel = indexFile.getChannel();
+        try {
+            FileLock lock = channel.lock();
+            try {
+                if (channel.size() == 0) {
+                    indexFile.writeInt(INDEX_MAGIC);
+                    indexFile.writeInt(VERSION);
+                    indexFile.writeInt(capacity);
+                    indexFile.setLength(HEADER_SIZE + (long) capacity * SLOT_SIZE);
+                }
+                indexFile.seek(0);
+                if (channel.size() < HEADER_SIZE || indexFile.readInt() != INDEX_MAGIC || indexFile.readInt() != VERSION) {
+                    throw new IOException(directory + " is not a schedule cache");
+                }
+                this.capacity = indexFile.readInt();
+                index = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) this.capacity * SLOT_SIZE);
+            } finally {
+                lock.release();
+            }
+        } catch (IOException e) {
+            indexFile.close();
+            throw e;
+        }
+    }
+
+    public ScheduleCache(File directory) throws IOException {
+        this(directory, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Look up a schedule of a graph.
+     * @param graph the graph, numbered by CanonicalGraph
+     * @param taskModel the graph the schedule is for
+     * @param numOfProcessors
+     * @return an optimal schedule of the graph, or null if there is not one in the cache
+     * @throws IOException
+     */
+    public synchronized ISchedule get(CanonicalGraph graph, TaskModel taskModel, int numOfProcessors) throws IOException {
+        byte[] key = graph.getKey(numOfProcessors);
+        FileLock lock = channel.lock();
+        try {
+            int slot = find(key);
+            if (slot < 0) return null;
+            File file = getFile(key);
+            try {
+                ISchedule schedule = read(file, graph, taskModel, numOfProcessors);
+                touch(slot);
+                return schedule;
+            } catch (IOException e) {
+                // It has been deleted, or was not written by this version, so forget it
+                index.putLong(HEADER_SIZE + slot * SLOT_SIZE + KEY_SIZE, 0);
+                file.delete();
+                return null;
+            }
+        } finally {
+            lock.release();
+        }
+    }
+
+    /**
+     * Keep an optimal schedule of a graph.
+     * @param graph the graph, numbered by CanonicalGraph
+     * @param taskModel the graph the schedule is for
+     * @param numOfProcessors
+     * @param schedule
+     * @throws IOException
+     */
+    public synchronized void put(CanonicalGraph graph, TaskModel taskModel, int numOfProcessors, ISchedule schedule)
+            throws IOException {
+        byte[] key = graph.getKey(numOfProcessors);
+        FileLock lock = channel.lock();
+        try {
+            int slot = find(key);
+            if (slot < 0) {
+                slot = leastRecentlyUsed();
+                if (index.getLong(HEADER_SIZE + slot * SLOT_SIZE + KEY_SIZE) != 0) {
+                    byte[] evicted = new byte[KEY_SIZE];
+                    index.position(HEADER_SIZE + slot * SLOT_SIZE);
+                    index.get(evicted);
+                    getFile(evicted).delete();
+                }
+            }
+            write(getFile(key), graph, taskModel, numOfProcessors, schedule);
+            index.position(HEADER_SIZE + slot * SLOT_SIZE);
+            index.put(key);
+            touch(slot);
+        } finally {
+            lock.release();
+        }
+    }
+
+    /**
+     * @return the number of schedules in the cache
+     */
+    public synchronized int size() {
+        int size = 0;
+        for (int slot = 0; slot < capacity; slot++) {
+            if (index.getLong(HEADER_SIZE + slot * SLOT_SIZE + KEY_SIZE) != 0) size++;
+        }
+        return size;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        index.force();
+        indexFile.close();
+    }
+
+    // The slot with the key, or -1
+    private int find(byte[] key) {
+        byte[] slotKey = new byte[KEY_SIZE];
+        for (int slot = 0; slot < capacity; slot++) {
+            if (index.getLong(HEADER_SIZE + slot * SLOT_SIZE + KEY_SIZE) == 0) continue;
+            index.position(HEADER_SIZE + slot * SLOT_SIZE);
+            index.get(slotKey);
+            if (Arrays.equals(key, slotKey)) return slot;
+        }
+        return -1;
+    }
+
+    // An empty slot if there is one, since it was last used at 0
+    private int leastRecentlyUsed() {
+        int leastRecent = 0;
+        for (int slot = 1; slot < capacity; slot++) {
+            if (index.getLong(HEADER_SIZE + slot * SLOT_SIZE + KEY_SIZE)
+                    < index.getLong(HEADER_SIZE + leastRecent * SLOT_SIZE + KEY_SIZE)) {
+                leastRecent = slot;
+            }
+        }
+        return leastRecent;
+    }
+
+    // Mark a slot as just used.  The clock counts uses, so it is the same for every process.
+    private void touch(int slot) {
+        long clock = index.getLong(CLOCK_OFFSET) + 1;
+        index.putLong(CLOCK_OFFSET, clock);
+        index.putLong(HEADER_SIZE + slot * SLOT_SIZE + KEY_SIZE, clock);
+    }
+
+    private File getFile(byte[] key) {
+        StringBuilder name = new StringBuilder();
+        for (byte b : key) {
+            name.append(String.format("%02x", b));
+        }
+        return new File(directory, name.append(SCHEDULE_SUFFIX).toString());
+    }
+
+    // The schedule file has the form of the graph, so a hash collision cannot give the wrong schedule
+    private static void write(File file, CanonicalGraph graph, TaskModel taskModel, int numOfProcessors,
+                              ISchedule schedule) throws IOException {
+        Task[] tasks = taskModel.getTaskArray();
+        File temporary = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporary)))) {
+            out.writeInt(SCHEDULE_MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(numOfProcessors);
+            out.writeInt(graph.getForm().length);
+            out.write(graph.getForm());
+            for (int task : graph.getOrder()) {
+                out.writeInt(schedule.getProcessors().indexOf(schedule.getProcessorOf(tasks[task])));
+                out.writeInt(schedule.getStartTimeOf(tasks[task]));
+            }
+        }
+        Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Each task in the file goes to the task with the same number in this graph
+    private static ISchedule read(File file, CanonicalGraph graph, TaskModel taskModel, int numOfProcessors)
+            throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != SCHEDULE_MAGIC || in.readInt() != VERSION || in.readInt() != numOfProcessors) {
+                throw new IOException(file + " is not a schedule for this cache");
+            }
+            byte[] form = new byte[in.readInt()];
+            in.readFully(form);
+            if (!Arrays.equals(form, graph.getForm())) {
+                throw new IOException(file + " is a schedule of a different graph");
+            }
+
+            List<int[]> placements = new ArrayList<>();
+            for (int task : graph.getOrder()) {
+                int processor = in.readInt();
+                if (processor < 0 || processor >= numOfProcessors) {
+                    throw new IOException("Not a valid processor: " + processor);
+                }
+                placements.add(new int[]{task, processor, in.readInt()});
+            }
+            return ScheduleState.of(taskModel, numOfProcessors, placements).asSchedule();
+        }
+    }
+}
@@ -0,0 +1,342 @@
+package app.distributed;
+
+import app.ChildOrder;
+import app.DFSAlgorithmFork;
+import app.IAlgorithm;
+import app.Incumbent;
+import app.WorkUnit;
+import app.bounds.CombinedBound;
+import app.bounds.LowerBound;
+import fileIO.FileParser;
+import scheduleModel.ISchedule;
+import taskModel.TaskModel;
+
+import java.io.*;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs the fork search across several processes, possibly on other machines.
+ * The search tree is split at the cutoff depth into work units (see DFSAlgorithmFork.split()),
+ * which are handed out over TCP to the Workers that connect, one unit per worker at a time.
+ * Whenever a worker finds a better schedule it is sent to every other worker, so they all
+ * prune against the best schedule anyone has found.
+ *
+ * A worker that disconnects, or is not heard from for Protocol.TIMEOUT_MILLIS, is treated
+ * as dead and the unit it was searching is put back at the front of the queue for another
+ * worker.  Workers can connect at any time, and run() waits until every unit has been
+ * searched, so it never finishes if no worker ever connects (unless it is stopped).
+ *
+ * The lower bound and child order are only used to split the search; the workers search
+ * their units with the default ones.
+ */
+public class Coordinator implements IAlgorithm {
+
+    private static final int NO_UNIT = -1;
+
+    private final String graph;
+    private final TaskModel taskModel;
+    private final int numOfProcessors;
+    private final ServerSocket serverSocket;
+
+    private LowerBound lowerBound;
+    private ChildOrder childOrder = ChildOrder.DEFAULT;
+    private int cutoffDepth = DFSAlgorithmFork.DEFAULT_CUTOFF_DEPTH;
+
+    private volatile Incumbent incumbent = new Incumbent();
+    private List<WorkUnit> units;
+    // Ids of the units no worker is searching, the ones to search next at the front
+    private final LinkedBlockingDeque<Integer> queue = new LinkedBlockingDeque<>();
+    private final List<Connection> connections = new CopyOnWriteArrayList<>();
+
+    // Guarded by this
+    private boolean[] finished;
+    private int remaining;
+    private boolean stopRequested = false;
+
+    private volatile boolean done = false;
+    private final AtomicInteger workersConnected = new AtomicInteger();
+    private final LongAdder unitsRequeued = new LongAdder();
+    private final LongAdder numBranches = new LongAdder();
+
+    /**
+     * Start listening for workers.
+     * @param graph the task graph in DOT format, which is sent to every worker
+     * @param numOfProcessors
+     * @param port the port to listen on, or 0 for any free port (see getPort())
+     * @throws IOException if the port cannot be listened on
+     */
+    public Coordinator(String graph, int numOfProcessors, int port) throws IOException {
+        this.graph = graph;
+        this.numOfProcessors = numOfProcessors;
+        taskModel = new FileParser(new ByteArrayInputStream(graph.getBytes(StandardCharsets.UTF_8))).getTaskModelFromFile();
+        lowerBound = CombinedBound.fromNames(CombinedBound.DEFAULT, taskModel);
+        serverSocket = new ServerSocket(port);
+    }
+
+    /**
+     * @return the port workers should connect to
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public TaskModel getTaskModel() {
+        return taskModel;
+    }
+
+    /**
+     * Set how deep the search tree is split into work units.  Deeper gives more, smaller units,
+     * which share the work out more evenly but each cost a round trip.
+     * @param cutoffDepth
+     */
+    public void setCutoffDepth(int cutoffDepth) {
+        this.cutoffDepth = cutoffDepth;
+    }
+
+    @Override
+    public void setLowerBound(LowerBound lowerBound) {
+        this.lowerBound = lowerBound;
+    }
+
+    @Override
+    public void setChildOrder(ChildOrder childOrder) {
+        this.childOrder = childOrder;
+    }
+
+    @Override
+    public ISchedule run() {
+        DFSAlgorithmFork splitter = new DFSAlgorithmFork(taskModel, numOfProcessors, 1);
+        splitter.setLowerBound(lowerBound);
+        splitter.setChildOrder(childOrder);
+        splitter.setCutoffDepth(cutoffDepth);
+        List<WorkUnit> splitUnits = splitter.split();
+        numBranches.add(splitter.getNumBranches());
+
+        synchronized (this) {
+            units = splitUnits;
+            incumbent = splitter.getIncumbent();
+            finished = new boolean[units.size()];
+            remaining = units.size();
+        }
+        for (int id = 0; id < units.size(); id++) {
+            queue.add(id);
+        }
+
+        Thread acceptor = new Thread(this::acceptWorkers, "coordinator");
+        acceptor.setDaemon(true);
+        acceptor.start();
+
+        // Wait for the workers to search every unit
+        synchronized (this) {
+            while (remaining > 0 && !stopRequested) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    stopRequested = true;
+                }
+            }
+        }
+
+        done = true;
+        for (Connection connection : connections) {
+            connection.sendDone();
+        }
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            // Already closed
+        }
+        return incumbent.getSchedule();
+    }
+
+    private void acceptWorkers() {
+        while (!done) {
+            try {
+                Socket socket = serverSocket.accept();
+                Thread thread = new Thread(new Connection(socket), "coordinator-" + socket.getRemoteSocketAddress());
+                thread.setDaemon(true);
+                thread.start();
+            } catch (IOException e) {
+                // The socket is closed once the search is done
+                return;
+            }
+        }
+    }
+
+    // A better schedule from a worker: keep it, and send it to everyone else
+    private void offer(ISchedule schedule, Connection from) {
+        if (incumbent.offer(schedule)) {
+            for (Connection connection : connections) {
+                if (connection != from) connection.sendBound(schedule);
+            }
+        }
+    }
+
+    private synchronized void finish(int id) {
+        if (!finished[id]) {
+            finished[id] = true;
+            remaining--;
+            notifyAll();
+        }
+    }
+
+    @Override
+    public ISchedule getBestSchedule() {
+        return incumbent.getSchedule();
+    }
+
+    @Override
+    public synchronized void stop() {
+        stopRequested = true;
+        notifyAll();
+    }
+
+    @Override
+    public synchronized int getLowerBound() {
+        // The unsearched units are the only places a better schedule could be
+        double openLowerBound = Double.POSITIVE_INFINITY;
+        if (units != null) {
+            for (int id = 0; id < units.size(); id++) {
+                if (!finished[id]) openLowerBound = Math.min(openLowerBound, units.get(id).getCost());
+            }
+        }
+        return (int) Math.min(incumbent.getBound(), Math.ceil(openLowerBound));
+    }
+
+    @Override
+    public String getStatistics() {
+        return "Work units: " + (units == null ? 0 : units.size()) + System.lineSeparator()
+                + "Workers connected: " + workersConnected.get() + System.lineSeparator()
+                + "Work units requeued: " + getUnitsRequeued() + System.lineSeparator()
+                + "Branches explored: " + numBranches.sum();
+    }
+
+    /**
+     * @return the number of units given to a worker that died before searching them
+     */
+    public long getUnitsRequeued() {
+        return unitsRequeued.sum();
+    }
+
+    /**
+     * The coordinator's end of the connection to one worker.  Its thread hands the worker
+     * one unit at a time and reads what the worker sends back until the unit is searched.
+     * Other threads only write to it, to pass on better schedules and to say when it is done.
+     */
+    private class Connection implements Runnable {
+        private final Socket socket;
+        private DataOutputStream out;
+        private int inFlight = NO_UNIT;
+        private int boundSent = Integer.MAX_VALUE;
+
+        Connection(Socket socket) {
+            this.socket = socket;
+        }
+
+        @Override
+        public void run() {
+            try {
+                socket.setSoTimeout(Protocol.TIMEOUT_MILLIS);
+                DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+                synchronized (this) {
+                    out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+                    out.writeByte(Protocol.GRAPH);
+                    Protocol.writeGraph(out, graph, numOfProcessors);
+                    out.flush();
+                }
+                connections.add(this);
+                workersConnected.incrementAndGet();
+
+                while (!done) {
+                    Integer id = queue.poll(Protocol.HEARTBEAT_MILLIS, TimeUnit.MILLISECONDS);
+                    if (id == null) continue;
+                    inFlight = id;
+                    sendUnit(id);
+                    searchUnit(in);
+                }
+            } catch (IOException | InterruptedException e) {
+                // The worker has died, or the search is over
+            } finally {
+                connections.remove(this);
+                try {
+                    socket.close();
+                } catch (IOException e) {
+                    // Nothing more can be done with it
+                }
+                if (inFlight != NO_UNIT && !done) {
+                    queue.addFirst(inFlight);
+                    unitsRequeued.increment();
+                }
+            }
+        }
+
+        // Read from the worker until it has searched the unit in flight
+        private void searchUnit(DataInputStream in) throws IOException {
+            while (true) {
+                byte type = in.readByte();
+                switch (type) {
+                    case Protocol.ALIVE:
+                        break;
+                    case Protocol.BEST:
+                        offer(Protocol.readSchedule(in, taskModel, numOfProcessors), this);
+                        break;
+                    case Protocol.FINISHED:
+                        int id = in.readInt();
+                        numBranches.add(in.readLong());
+                        if (id != inFlight) throw new IOException("Finished unit " + id + " instead of " + inFlight);
+                        finish(id);
+                        inFlight = NO_UNIT;
+                        return;
+                    default:
+                        throw new IOException("Unknown message type: " + type);
+                }
+            }
+        }
+
+        private synchronized void sendUnit(int id) throws IOException {
+            // Make sure the worker knows the best schedule before it starts
+            ISchedule best = incumbent.getSchedule();
+            if (best != null && best.getFinishTime() < boundSent) {
+                writeBound(best);
+            }
+            out.writeByte(Protocol.UNIT);
+            out.writeInt(id);
+            units.get(id).write(out);
+            out.flush();
+        }
+
+        synchronized void sendBound(ISchedule schedule) {
+            if (schedule.getFinishTime() >= boundSent) return;
+            try {
+                writeBound(schedule);
+                out.flush();
+            } catch (IOException e) {
+                // This connection's thread will find out the worker has died
+            }
+        }
+
+        private void writeBound(ISchedule schedule) throws IOException {
+            out.writeByte(Protocol.BOUND);
+            Protocol.writeSchedule(out, schedule, taskModel);
+            boundSent = schedule.getFinishTime();
+        }
+
+        synchronized void sendDone() {
+            try {
+                out.writeByte(Protocol.DONE);
+                out.flush();
+            } catch (IOException e) {
+                // Already disconnected
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package app.distributed;
+
+import scheduleModel.ISchedule;
+import scheduleModel.ScheduleState;
+import taskModel.TaskModel;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The messages the coordinator and its workers send each other over TCP.  Each message
+ * is a type byte followed by its fields.  Tasks are sent by name, so the two ends only
+ * have to parse the same graph, not number its tasks the same way (see ScheduleState.write()
+ * and WorkUnit.write()).
+ *
+ * Coordinator to worker:
+ *  GRAPH    the DOT text of the graph, and the number of processors (always sent first)
+ *  BOUND    a better complete schedule that someone has found
+ *  UNIT     an id and a WorkUnit to search
+ *  DONE     stop searching and disconnect
+ * Worker to coordinator:
+ *  ALIVE    sent every HEARTBEAT_MILLIS, so a worker that stops sending anything is known to be dead
+ *  BEST     a better complete schedule the worker has found
+ *  FINISHED the id of the unit that has been searched, and the number of branches it took
+ */
+class Protocol {
+    static final byte GRAPH = 1;
+    static final byte BOUND = 2;
+    static final byte UNIT = 3;
+    static final byte DONE = 4;
+    static final byte ALIVE = 5;
+    static final byte BEST = 6;
+    static final byte FINISHED = 7;
+
+    static final int HEARTBEAT_MILLIS = 250;
+    // A worker that has not been heard from for this long is treated as dead
+    static final int TIMEOUT_MILLIS = 10000;
+
+    private Protocol() {
+    }
+
+    static void writeGraph(DataOutputStream out, String graph, int numOfProcessors) throws IOException {
+        byte[] bytes = graph.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+        out.writeInt(numOfProcessors);
+    }
+
+    static String readGraph(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static void writeSchedule(DataOutputStream out, ISchedule schedule, TaskModel taskModel) throws IOException {
+        ScheduleState.write(out, schedule, taskModel);
+    }
+
+    static ISchedule readSchedule(DataInputStream in, TaskModel taskModel, int numOfProcessors) throws IOException {
+        return ScheduleState.read(in, taskModel, numOfProcessors).asSchedule();
+    }
+}
@@ -0,0 +1,163 @@
+package app.distributed;
+
+import app.DFSAlgorithmFork;
+import app.Incumbent;
+import app.WorkUnit;
+import fileIO.FileParser;
+import scheduleModel.ISchedule;
+import taskModel.TaskModel;
+
+import java.io.*;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Searches work units for a Coordinator, using the fork search on this machine's cores.
+ * The usage at command line is:
+ *
+ * java -cp scheduler.jar app.distributed.Worker HOST PORT [N]
+ * HOST and PORT are where the coordinator is listening
+ * N is the number of cores to search on (default is 1)
+ *
+ * The worker gets the graph from the coordinator, so it needs no input file.  It runs
+ * until the coordinator says the search is done or goes away.
+ */
+public class Worker {
+    // Put on the queue of units to say there are no more
+    private static final WorkUnit NO_MORE_UNITS = new WorkUnit(null, null, 0, 0);
+
+    private final String host;
+    private final int port;
+    private final int numberOfCores;
+
+    private DataOutputStream out;
+    private TaskModel taskModel;
+    private int numOfProcessors;
+    private DFSAlgorithmFork algorithm;
+    private final BlockingQueue<WorkUnit> units = new LinkedBlockingQueue<>();
+    private final BlockingQueue<Integer> unitIds = new LinkedBlockingQueue<>();
+    // The best makespan the coordinator knows about.  Guarded by out.
+    private int reportedBound = Integer.MAX_VALUE;
+    private volatile boolean done = false;
+
+    public Worker(String host, int port, int numberOfCores) {
+        this.host = host;
+        this.port = port;
+        this.numberOfCores = numberOfCores;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("java -cp scheduler.jar app.distributed.Worker HOST PORT [N]");
+            return;
+        }
+        int cores = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+        int unitsSearched = new Worker(args[0], Integer.parseInt(args[1]), cores).run();
+        System.out.println("Searched " + unitsSearched + " work units.");
+    }
+
+    /**
+     * Connect to the coordinator and search the units it sends until it is done.
+     * @return the number of units searched
+     * @throws IOException if the coordinator cannot be reached
+     */
+    public int run() throws IOException {
+        try (Socket socket = new Socket(host, port)) {
+            System.out.println("Connected to the coordinator at " + host + ":" + port + ".");
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+
+            if (in.readByte() != Protocol.GRAPH) throw new IOException("Expected the graph first");
+            String graph = Protocol.readGraph(in);
+            numOfProcessors = in.readInt();
+            taskModel = new FileParser(new ByteArrayInputStream(graph.getBytes(StandardCharsets.UTF_8))).getTaskModelFromFile();
+            algorithm = new DFSAlgorithmFork(taskModel, numOfProcessors, numberOfCores);
+
+            Thread reader = new Thread(() -> read(in), "worker-reader");
+            reader.setDaemon(true);
+            reader.start();
+            Thread heartbeat = new Thread(this::heartbeat, "worker-heartbeat");
+            heartbeat.setDaemon(true);
+            heartbeat.start();
+
+            int unitsSearched = 0;
+            while (true) {
+                WorkUnit unit = units.take();
+                if (unit == NO_MORE_UNITS) break;
+                long branches = algorithm.search(unit);
+                if (done) break;
+                synchronized (out) {
+                    report(false);
+                    out.writeByte(Protocol.FINISHED);
+                    out.writeInt(unitIds.take());
+                    out.writeLong(branches);
+                    out.flush();
+                }
+                unitsSearched++;
+            }
+            return unitsSearched;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        } finally {
+            done = true;
+        }
+    }
+
+    // Read what the coordinator sends until it is done
+    private void read(DataInputStream in) {
+        Incumbent incumbent = algorithm.getIncumbent();
+        try {
+            while (true) {
+                byte type = in.readByte();
+                if (type == Protocol.BOUND) {
+                    ISchedule schedule = Protocol.readSchedule(in, taskModel, numOfProcessors);
+                    incumbent.offer(schedule);
+                    synchronized (out) {
+                        reportedBound = Math.min(reportedBound, schedule.getFinishTime());
+                    }
+                } else if (type == Protocol.UNIT) {
+                    unitIds.add(in.readInt());
+                    units.add(WorkUnit.read(in, taskModel, numOfProcessors));
+                } else {
+                    // DONE, or a message this worker does not understand
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            // The coordinator has gone away
+        }
+        done = true;
+        algorithm.stop();
+        units.add(NO_MORE_UNITS);
+    }
+
+    // Tell the coordinator this worker is alive, and about any better schedule it has found
+    private void heartbeat() {
+        try {
+            while (!done) {
+                synchronized (out) {
+                    report(true);
+                }
+                Thread.sleep(Protocol.HEARTBEAT_MILLIS);
+            }
+        } catch (IOException | InterruptedException e) {
+            // The coordinator has gone away
+        }
+    }
+
+    // Send the best schedule if the coordinator does not know about it yet.  Must hold out.
+    private void report(boolean alive) throws IOException {
+        ISchedule best = algorithm.getIncumbent().getSchedule();
+        if (best != null && best.getFinishTime() < reportedBound) {
+            out.writeByte(Protocol.BEST);
+            Protocol.writeSchedule(out, best, taskModel);
+            reportedBound = best.getFinishTime();
+        } else if (alive) {
+            out.writeByte(Protocol.ALIVE);
+        }
+        out.flush();
+    }
+}
@@ -0,0 +1,19 @@
+package app.heuristics;
+
+import taskModel.TaskModel;
+
+/**
+ * List scheduling with the computation only bottom level as the priority,
+ * the same order the exact search tries tasks in.
+ */
+public class BottomLevelScheduler extends ListScheduler {
+
+    public BottomLevelScheduler(TaskModel taskModel, int numOfProcessors) {
+        super(taskModel, numOfProcessors);
+    }
+
+    @Override
+    protected int[] getPriorities() {
+        return taskModel.getBottomLevels();
+    }
+}
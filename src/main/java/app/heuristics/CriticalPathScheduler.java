@@ -0,0 +1,51 @@
+package app.heuristics;
+
+import scheduleModel.ScheduleState;
+import taskModel.TaskModel;
+
+/**
+ * List scheduling by upward + downward rank.  The tasks on the critical path (those
+ * with the largest priority) all go on the same processor, so none of the links
+ * between them cost anything.  Every other task goes where it can start earliest.
+ */
+
+/**
+ * Based on CPOP in:
+ * Topcuoglu, H., Hariri, S., & Wu, M. (2002). Performance-effective and
+ low-complexity task scheduling for heterogeneous computing. IEEE Transactions
+ on Parallel and Distributed Systems, 13(3), 260-274. doi:10.1109/71.993206
+ */
+public class CriticalPathScheduler extends ListScheduler {
+
+    private static final int CRITICAL_PATH_PROCESSOR = 0;
+
+    private boolean[] onCriticalPath;
+
+    public CriticalPathScheduler(TaskModel taskModel, int numOfProcessors) {
+        super(taskModel, numOfProcessors);
+    }
+
+    @Override
+    protected int[] getPriorities() {
+        int[] upwardRanks = getUpwardRanks();
+        int[] downwardRanks = getDownwardRanks();
+        int[] priorities = new int[weights.length];
+        int criticalPathLength = 0;
+        for (int task = 0; task < weights.length; task++) {
+            priorities[task] = upwardRanks[task] + downwardRanks[task];
+            criticalPathLength = Math.max(criticalPathLength, priorities[task]);
+        }
+
+        onCriticalPath = new boolean[weights.length];
+        for (int task = 0; task < weights.length; task++) {
+            onCriticalPath[task] = priorities[task] == criticalPathLength;
+        }
+        return priorities;
+    }
+
+    @Override
+    protected int chooseProcessor(ScheduleState state, int task) {
+        if (onCriticalPath[task]) return CRITICAL_PATH_PROCESSOR;
+        return super.chooseProcessor(state, task);
+    }
+}
@@ -0,0 +1,27 @@
+package app.heuristics;
+
+import taskModel.TaskModel;
+
+/**
+ * List scheduling by upward rank (bottom level including link costs), with each
+ * task put on the processor where it finishes earliest.  Tasks only ever go at the
+ * end of a processor here, so that is also where it starts earliest.
+ */
+
+/**
+ * Based on HEFT in:
+ * Topcuoglu, H., Hariri, S., & Wu, M. (2002). Performance-effective and
+ low-complexity task scheduling for heterogeneous computing. IEEE Transactions
+ on Parallel and Distributed Systems, 13(3), 260-274. doi:10.1109/71.993206
+ */
+public class EarliestFinishScheduler extends ListScheduler {
+
+    public EarliestFinishScheduler(TaskModel taskModel, int numOfProcessors) {
+        super(taskModel, numOfProcessors);
+    }
+
+    @Override
+    protected int[] getPriorities() {
+        return getUpwardRanks();
+    }
+}
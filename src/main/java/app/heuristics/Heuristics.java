@@ -0,0 +1,33 @@
+package app.heuristics;
+
+import scheduleModel.ScheduleState;
+import taskModel.TaskModel;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Runs all the list schedulers at the same time and keeps the best schedule.
+ * The exact search algorithms start from this schedule instead of from nothing,
+ * so they never have to search anything the heuristics can already beat.
+ */
+public class Heuristics {
+
+    /**
+     * @param taskModel
+     * @param numOfProcessors
+     * @return the schedule with the smallest makespan found by any of the heuristics
+     */
+    public static ScheduleState getBestSchedule(TaskModel taskModel, int numOfProcessors) {
+        List<ListScheduler> listSchedulers = Arrays.asList(
+                new BottomLevelScheduler(taskModel, numOfProcessors),
+                new EarliestFinishScheduler(taskModel, numOfProcessors),
+                new CriticalPathScheduler(taskModel, numOfProcessors));
+
+        return listSchedulers.parallelStream()
+                .map(ListScheduler::schedule)
+                .min(Comparator.comparingInt(ScheduleState::getFinishTime))
+                .get();
+    }
+}
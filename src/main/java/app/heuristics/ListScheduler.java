@@ -0,0 +1,151 @@
+package app.heuristics;
+
+import scheduleModel.IScheduler;
+import scheduleModel.ScheduleState;
+import scheduleModel.Scheduler;
+import taskModel.TaskModel;
+
+/**
+ * A list scheduler: repeatedly take the free task with the highest priority and
+ * put it at the end of a processor, until every task is scheduled.  This takes
+ * O(n^2 P) time, which is nothing next to the exact search, and the schedule it
+ * makes is a good first bound for the search to prune with.
+ *
+ * Subclasses decide the priorities, and may decide the processor.  By default
+ * a task goes on the processor where it can start (and so finish) earliest.
+ */
+public abstract class ListScheduler {
+
+    protected TaskModel taskModel;
+    protected int numOfProcessors;
+    protected IScheduler scheduler = new Scheduler();
+
+    protected int[] weights;
+    protected int[] parentStarts;
+    protected int[] parents;
+    protected int[] parentCosts;
+    protected int[] childStarts;
+    protected int[] children;
+    protected int[] childCosts;
+
+    public ListScheduler(TaskModel taskModel, int numOfProcessors) {
+        this.taskModel = taskModel;
+        this.numOfProcessors = numOfProcessors;
+        weights = taskModel.getWeights();
+        parentStarts = taskModel.getParentStarts();
+        parents = taskModel.getParents();
+        parentCosts = taskModel.getParentCosts();
+        childStarts = taskModel.getChildStarts();
+        children = taskModel.getChildren();
+        childCosts = taskModel.getChildCosts();
+    }
+
+    /**
+     * @return the priority of every task, by index.  Higher goes first.
+     */
+    protected abstract int[] getPriorities();
+
+    /**
+     * Build a complete schedule.
+     * @return the schedule
+     */
+    public ScheduleState schedule() {
+        int numTasks = weights.length;
+        int[] priorities = getPriorities();
+        int[] unscheduledParents = new int[numTasks];
+        for (int task = 0; task < numTasks; task++) {
+            unscheduledParents[task] = parentStarts[task + 1] - parentStarts[task];
+        }
+
+        ScheduleState state = new ScheduleState(taskModel, numOfProcessors);
+        for (int i = 0; i < numTasks; i++) {
+            // The free task with the highest priority, lowest index on a tie
+            int next = TaskModel.NO_TASK;
+            for (int task = 0; task < numTasks; task++) {
+                if (state.isScheduled(task) || unscheduledParents[task] > 0) continue;
+                if (next == TaskModel.NO_TASK || priorities[task] > priorities[next]) next = task;
+            }
+
+            scheduler.schedule(next, chooseProcessor(state, next), state);
+            for (int j = childStarts[next]; j < childStarts[next + 1]; j++) {
+                unscheduledParents[children[j]]--;
+            }
+        }
+        return state;
+    }
+
+    /**
+     * @param state the schedule so far
+     * @param task the task to schedule next
+     * @return the processor to put the task on
+     */
+    protected int chooseProcessor(ScheduleState state, int task) {
+        int best = 0;
+        int bestStartTime = Integer.MAX_VALUE;
+        for (int processor = 0; processor < numOfProcessors; processor++) {
+            int startTime = scheduler.getEarliestStartTime(task, processor, state);
+            if (startTime < bestStartTime) {
+                best = processor;
+                bestStartTime = startTime;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @return the task indices in an order where every task comes after its parents
+     */
+    protected int[] getTopologicalOrder() {
+        int numTasks = weights.length;
+        int[] order = new int[numTasks];
+        int[] unvisitedParents = new int[numTasks];
+        int size = 0;
+        for (int task = 0; task < numTasks; task++) {
+            unvisitedParents[task] = parentStarts[task + 1] - parentStarts[task];
+            if (unvisitedParents[task] == 0) order[size++] = task;
+        }
+        for (int i = 0; i < size; i++) {
+            int task = order[i];
+            for (int j = childStarts[task]; j < childStarts[task + 1]; j++) {
+                if (--unvisitedParents[children[j]] == 0) order[size++] = children[j];
+            }
+        }
+        return order;
+    }
+
+    /**
+     * The upward rank of each task: the longest path from the start of the task to
+     * the end of the graph, including the cost of every link on it.
+     * @return the upward ranks, by task index
+     */
+    protected int[] getUpwardRanks() {
+        int[] order = getTopologicalOrder();
+        int[] ranks = new int[order.length];
+        for (int i = order.length - 1; i >= 0; i--) {
+            int task = order[i];
+            int longestChild = 0;
+            for (int j = childStarts[task]; j < childStarts[task + 1]; j++) {
+                longestChild = Math.max(longestChild, childCosts[j] + ranks[children[j]]);
+            }
+            ranks[task] = weights[task] + longestChild;
+        }
+        return ranks;
+    }
+
+    /**
+     * The downward rank of each task: the longest path from the start of the graph
+     * to the start of the task, including the cost of every link on it.
+     * @return the downward ranks, by task index
+     */
+    protected int[] getDownwardRanks() {
+        int[] order = getTopologicalOrder();
+        int[] ranks = new int[order.length];
+        for (int task : order) {
+            for (int j = parentStarts[task]; j < parentStarts[task + 1]; j++) {
+                int parent = parents[j];
+                ranks[task] = Math.max(ranks[task], ranks[parent] + weights[parent] + parentCosts[j]);
+            }
+        }
+        return ranks;
+    }
+}
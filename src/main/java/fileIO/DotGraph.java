@@ -31,8 +31,16 @@ public class DotGraph {
         this.filename = filename;
     }
 
-    // This method generates the optimal schedule digraph in DOT syntax
+    // This method writes the optimal schedule digraph to the file
     public void render(){
+        writeDotFile(toDot());
+    }
+
+    /**
+     * Generate the optimal schedule digraph in DOT syntax, e.g. to send somewhere other than a file.
+     * @return the digraph
+     */
+    public String toDot(){
         final StringBuilder output = new StringBuilder();
 
         // Append title of digraph and opening brace
@@ -63,7 +71,7 @@ public class DotGraph {
 
         // Append closing brace
         output.append(DotRenderer.closeGraph());
-        writeDotFile(output.toString());
+        return output.toString();
     }
 
     // This method takes the graph string and outputs a dot graph with the filename
@@ -3,37 +3,111 @@ package fileIO;
 import com.paypal.digraph.parser.GraphEdge;
 import com.paypal.digraph.parser.GraphNode;
 import com.paypal.digraph.parser.GraphParser;
-import scheduleModel.IProcessor;
-import scheduleModel.ISchedule;
-import scheduleModel.Schedule;
 import taskModel.Task;
 import taskModel.TaskModel;
 
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
-import java.util.List;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 
 /**
  * Reads in the DOT file and creates a TaskModel object.
+ * Graphs are read by StreamingDotParser, which is fast enough for graphs of a hundred thousand
+ * tasks.  A graph that uses any part of DOT it does not understand is read again with the
+ * full GraphParser instead.
  */
 public class FileParser {
-    private FileInputStream fileInputStream;
+    private File file;
+    private InputStream inputStream;
     private TaskModel taskModel;
 
+    // How the graph was read, for getStatistics()
+    private long numBytes;
+    private long parseNanos;
+    private long buildNanos;
+    private String fallbackReason = null;
+
     public FileParser(File file) throws FileNotFoundException {
-        fileInputStream = new FileInputStream(file);
+        if (!file.isFile()) throw new FileNotFoundException(file.getPath());
+        this.file = file;
+    }
+
+    /**
+     * Read a graph that is not in a file, e.g. one sent over the network.
+     * @param inputStream the graph in DOT format
+     */
+    public FileParser(InputStream inputStream) {
+        this.inputStream = inputStream;
     }
 
     public TaskModel getTaskModelFromFile() {
-        GraphParser parser = new GraphParser(fileInputStream);
+        long start = System.nanoTime();
+        ByteBuffer graph = read();
+        numBytes = graph.remaining();
+        try {
+            taskModel = new StreamingDotParser(graph).parse();
+        } catch (StreamingDotParser.DotSyntaxException e) {
+            fallbackReason = e.getMessage();
+            graph.rewind();
+            taskModel = parseWithGraphParser(new ByteBufferInputStream(graph));
+        }
+        long parsed = System.nanoTime();
+        parseNanos = parsed - start;
+
+        // Compute the bottom levels for all the tasks
+        // (used for cost function later)
+        taskModel.computeBottomLevels();
+
+        // Number the tasks and build the arrays the algorithms use
+        taskModel.freeze();
+
+        buildNanos = System.nanoTime() - parsed;
+        return taskModel;
+    }
+
+    /**
+     * @return how fast the graph was read, and by which parser
+     */
+    public String getStatistics() {
+        String statistics = String.format("Parse throughput: %.1f MB/s (%,d bytes in %d ms)",
+                numBytes / 1e6 / (parseNanos / 1e9), numBytes, parseNanos / 1000000)
+                + System.lineSeparator() + "Bottom levels and task numbering: " + buildNanos / 1000000 + " ms";
+        if (fallbackReason != null) {
+            statistics += System.lineSeparator() + "Read with the full DOT parser: " + fallbackReason;
+        }
+        return statistics;
+    }
+
+    // Files are memory mapped, and anything else is read onto the heap
+    private ByteBuffer read() {
+        try {
+            if (file != null) {
+                try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                    return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                }
+            }
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                bytes.write(buffer, 0, read);
+            }
+            return ByteBuffer.wrap(bytes.toByteArray());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static TaskModel parseWithGraphParser(InputStream inputStream) {
+        GraphParser parser = new GraphParser(inputStream);
         String graphId = parser.getGraphId();
 
         // Remove quotation marks from title if there are any
         if ((graphId.charAt(0) == '"') && (graphId.charAt(graphId.length() - 1) == '"')) {
             graphId = graphId.substring(1, graphId.length() - 1);
         }
-        taskModel = new TaskModel(graphId);
+        TaskModel taskModel = new TaskModel(graphId);
 
         // Parse all the nodes into Task objects
         for (GraphNode node: parser.getNodes().values()) {
@@ -52,15 +126,28 @@ public class FileParser {
             Task child = taskModel.get(nameOfChild);
             taskModel.addDependency(parent, child, cost);
         }
+        return taskModel;
+    }
 
-        // Compute the bottom levels for all the tasks
-        // (used for cost function later)
-        for (Task task: taskModel.getTasks()) {
-            if (task.getParents().size() == 0) {
-                taskModel.computeBottomLevels(task);
-            }
+    // Lets GraphParser read a buffer that is already in memory
+    private static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
         }
 
-        return taskModel;
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (!buffer.hasRemaining()) return -1;
+            length = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, length);
+            return length;
+        }
     }
 }
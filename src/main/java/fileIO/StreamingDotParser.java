@@ -0,0 +1,383 @@
+package fileIO;
+
+import taskModel.Task;
+import taskModel.TaskModel;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads a task graph in DOT format straight into a TaskModel, one token at a time, without
+ * building a parse tree or maps of the whole graph first.  FileParser memory maps files for
+ * it, so even graphs of a hundred thousand tasks are read without copying them onto the heap.
+ *
+ * Only the part of DOT that task graphs use is understood: one digraph of node and edge
+ * statements, with an integer Weight on every node and edge.  Edges can be chained
+ * (a -> b -> c), other attributes, graph attributes and comments are skipped, and IDs can be
+ * quoted.  Anything else, e.g. subgraphs or default node attributes, throws a
+ * DotSyntaxException, and FileParser falls back to the full parser.
+ */
+class StreamingDotParser {
+    private static final int END = -1;
+    private static final int ID = -2;
+    private static final int ARROW = -3;
+    private static final byte[] WEIGHT = "Weight".getBytes(StandardCharsets.US_ASCII);
+    private static final int NO_WEIGHT = Integer.MIN_VALUE;
+
+    private final ByteBuffer buffer;
+    private final int limit;
+    private int position;
+    private int line = 1;
+    private int tokenLine;
+
+    // The current token: its type (ID, ARROW, END, or the character itself), and where an ID is in the buffer
+    private int type;
+    private int start;
+    private int end;
+    private boolean quoted;
+
+    private TaskModel taskModel;
+
+    // The tasks by the bytes of their names (an open addressing hash table), so the name in
+    // every edge can be looked up without making a String of it
+    private Task[] tasks = new Task[1024];
+    private byte[][] names = new byte[1024][];
+    private int numTasks = 0;
+
+    // Edges to tasks that have not been read yet, added once the whole graph has been read
+    private final List<byte[]> laterParents = new ArrayList<>();
+    private final List<byte[]> laterChildren = new ArrayList<>();
+    private final List<Integer> laterCosts = new ArrayList<>();
+
+    /**
+     * @param buffer the graph in DOT format, from its position to its limit
+     */
+    StreamingDotParser(ByteBuffer buffer) {
+        this.buffer = buffer;
+        position = buffer.position();
+        limit = buffer.limit();
+    }
+
+    /**
+     * Read the graph.  The bottom levels still have to be computed, and the model frozen.
+     * @return the tasks and dependencies of the graph
+     * @throws DotSyntaxException if the graph is not in the part of DOT this understands
+     */
+    TaskModel parse() {
+        next();
+        if (isKeyword("strict")) next();
+        if (!isKeyword("digraph")) throw error("Only a digraph can be read");
+        next();
+        if (type != ID) throw error("The digraph has no name");
+        taskModel = new TaskModel(text());
+        next();
+        expect('{');
+        next();
+
+        while (type != '}') {
+            statement();
+            if (type == ';') next();
+        }
+        next();
+        if (type != END) throw error("Only one digraph can be read");
+
+        for (int i = 0; i < laterParents.size(); i++) {
+            addDependency(getTask(laterParents.get(i)), getTask(laterChildren.get(i)), laterCosts.get(i));
+        }
+        return taskModel;
+    }
+
+    private void statement() {
+        expect(ID);
+        if (isKeyword("subgraph")) throw error("Subgraphs cannot be read");
+        if (isKeyword("graph") || isKeyword("node") || isKeyword("edge")) {
+            boolean graphAttributes = isKeyword("graph");
+            next();
+            if (type == '[') {
+                if (!graphAttributes) throw error("Default node and edge attributes cannot be read");
+                attributes();
+                return;
+            }
+            // Otherwise it is a task with an unlucky name
+            position = start;
+            line = tokenLine;
+            next();
+        }
+
+        int slot = findSlot();
+        Task task = tasks[slot];
+        byte[] name = task != null ? names[slot] : bytes();
+        next();
+        if (type == '=') {
+            // A graph attribute
+            next();
+            expect(ID);
+            next();
+        } else if (type == ARROW) {
+            // The tasks along the edges (null if they have not been declared yet), and their names
+            List<Task> path = new ArrayList<>();
+            List<byte[]> pathNames = new ArrayList<>();
+            path.add(task);
+            pathNames.add(name);
+            while (type == ARROW) {
+                next();
+                expect(ID);
+                slot = findSlot();
+                path.add(tasks[slot]);
+                pathNames.add(tasks[slot] != null ? names[slot] : bytes());
+                next();
+            }
+            int cost = attributes();
+            if (cost == NO_WEIGHT) throw error("An edge has no Weight");
+            for (int i = 1; i < path.size(); i++) {
+                if (path.get(i - 1) != null && path.get(i) != null) {
+                    addDependency(path.get(i - 1), path.get(i), cost);
+                } else {
+                    laterParents.add(pathNames.get(i - 1));
+                    laterChildren.add(pathNames.get(i));
+                    laterCosts.add(cost);
+                }
+            }
+        } else {
+            if (task != null) throw error("Task " + task + " is declared twice");
+            int weight = attributes();
+            if (weight == NO_WEIGHT) throw error("Task " + text(name) + " has no Weight");
+            task = new Task(text(name), weight);
+            addTask(name, task);
+            taskModel.addTask(task);
+        }
+    }
+
+    // Read any attribute lists, and return the Weight in them
+    private int attributes() {
+        int weight = NO_WEIGHT;
+        while (type == '[') {
+            next();
+            while (type != ']') {
+                expect(ID);
+                boolean isWeight = !quoted && is(WEIGHT);
+                next();
+                if (type == '=') {
+                    next();
+                    expect(ID);
+                    if (isWeight) weight = integer();
+                    next();
+                }
+                if (type == ',' || type == ';') next();
+            }
+            next();
+        }
+        return weight;
+    }
+
+    private void addDependency(Task parent, Task child, int cost) {
+        if (parent == child) throw error("Task " + parent + " depends on itself");
+        taskModel.addDependency(parent, child, cost);
+    }
+
+    // The slot of the task named by the current ID, which is empty if it has not been declared yet.
+    // Slots only move when a task is added.
+    private int findSlot() {
+        return slotOf(buffer, start, end - start);
+    }
+
+    private Task getTask(byte[] name) {
+        Task task = tasks[slotOf(ByteBuffer.wrap(name), 0, name.length)];
+        if (task == null) throw error("Task " + text(name) + " is never declared");
+        return task;
+    }
+
+    private void addTask(byte[] name, Task task) {
+        if (2 * (numTasks + 1) > tasks.length) {
+            Task[] oldTasks = tasks;
+            byte[][] oldNames = names;
+            tasks = new Task[2 * oldTasks.length];
+            names = new byte[tasks.length][];
+            for (int i = 0; i < oldTasks.length; i++) {
+                if (oldTasks[i] == null) continue;
+                int slot = slotOf(ByteBuffer.wrap(oldNames[i]), 0, oldNames[i].length);
+                tasks[slot] = oldTasks[i];
+                names[slot] = oldNames[i];
+            }
+        }
+        int slot = slotOf(ByteBuffer.wrap(name), 0, name.length);
+        tasks[slot] = task;
+        names[slot] = name;
+        numTasks++;
+    }
+
+    // The slot of the name at offset in the table, or the empty slot it would go in
+    private int slotOf(ByteBuffer source, int offset, int length) {
+        int hash = 1;
+        for (int i = offset; i < offset + length; i++) {
+            hash = 31 * hash + source.get(i);
+        }
+        int mask = tasks.length - 1;
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        while (tasks[slot] != null && !isName(names[slot], source, offset, length)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static boolean isName(byte[] name, ByteBuffer source, int offset, int length) {
+        if (name.length != length) return false;
+        for (int i = 0; i < length; i++) {
+            if (name[i] != source.get(offset + i)) return false;
+        }
+        return true;
+    }
+
+    // Read the next token
+    private void next() {
+        skipSpace();
+        tokenLine = line;
+        if (position >= limit) {
+            type = END;
+            return;
+        }
+
+        byte b = buffer.get(position);
+        quoted = false;
+        if (b == '"') {
+            quotedId();
+        } else if (b == '-' && position + 1 < limit && buffer.get(position + 1) == '>') {
+            type = ARROW;
+            position += 2;
+        } else if (isIdByte(b) || b == '-') {
+            type = ID;
+            start = position++;
+            while (position < limit && isIdByte(buffer.get(position))) {
+                position++;
+            }
+            end = position;
+        } else if (b == '{' || b == '}' || b == '[' || b == ']' || b == '=' || b == ';' || b == ',') {
+            type = b;
+            position++;
+        } else {
+            throw error("Unexpected '" + (char) b + "'");
+        }
+    }
+
+    private void quotedId() {
+        type = ID;
+        quoted = true;
+        start = ++position;
+        while (position < limit) {
+            byte b = buffer.get(position);
+            if (b == '"') {
+                end = position++;
+                return;
+            }
+            if (b == '\\') position++;
+            if (b == '\n') line++;
+            position++;
+        }
+        throw error("A quoted ID is never closed");
+    }
+
+    // Skip white space and comments
+    private void skipSpace() {
+        while (position < limit) {
+            byte b = buffer.get(position);
+            if (b == '\n') {
+                line++;
+                position++;
+            } else if (b == ' ' || b == '\t' || b == '\r') {
+                position++;
+            } else if (b == '#' || (b == '/' && position + 1 < limit && buffer.get(position + 1) == '/')) {
+                while (position < limit && buffer.get(position) != '\n') {
+                    position++;
+                }
+            } else if (b == '/' && position + 1 < limit && buffer.get(position + 1) == '*') {
+                position += 2;
+                while (position + 1 < limit && !(buffer.get(position) == '*' && buffer.get(position + 1) == '/')) {
+                    if (buffer.get(position) == '\n') line++;
+                    position++;
+                }
+                if (position + 1 >= limit) throw error("A comment is never closed");
+                position += 2;
+            } else {
+                return;
+            }
+        }
+    }
+
+    // Letters, digits, underscores, dots and anything outside ASCII
+    private static boolean isIdByte(byte b) {
+        return (b >= 'a' && b <= 'z') || (b >= 'A' && b <= 'Z') || (b >= '0' && b <= '9') || b == '_' || b == '.' || b < 0;
+    }
+
+    private void expect(int expected) {
+        if (type != expected) {
+            throw error("Expected " + (expected == ID ? "an ID" : "'" + (char) expected + "'"));
+        }
+    }
+
+    // Keywords are compared without making a String of every ID
+    private boolean isKeyword(String keyword) {
+        if (type != ID || quoted || end - start != keyword.length()) return false;
+        for (int i = 0; i < keyword.length(); i++) {
+            if (Character.toLowerCase(buffer.get(start + i)) != keyword.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    private boolean is(byte[] ascii) {
+        if (end - start != ascii.length) return false;
+        for (int i = 0; i < ascii.length; i++) {
+            if (buffer.get(start + i) != ascii[i]) return false;
+        }
+        return true;
+    }
+
+    // The current ID as an integer, read without making a String of it
+    private int integer() {
+        int i = start;
+        boolean negative = i < end && buffer.get(i) == '-';
+        if (negative) i++;
+        if (i == end) throw error("A Weight is not an integer");
+        long value = 0;
+        for (; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b < '0' || b > '9') throw error("A Weight is not an integer");
+            value = value * 10 + (b - '0');
+            if (value > Integer.MAX_VALUE) throw error("A Weight is too big");
+        }
+        return (int) (negative ? -value : value);
+    }
+
+    private String text() {
+        return text(bytes());
+    }
+
+    // Only \" is an escape in a DOT ID, so an unquoted ID never has one
+    private static String text(byte[] bytes) {
+        return new String(bytes, StandardCharsets.UTF_8).replace("\\\"", "\"");
+    }
+
+    private byte[] bytes() {
+        byte[] bytes = new byte[end - start];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buffer.get(start + i);
+        }
+        return bytes;
+    }
+
+    private DotSyntaxException error(String message) {
+        return new DotSyntaxException("Line " + line + ": " + message);
+    }
+
+    /**
+     * Thrown when a graph is not in the part of DOT that StreamingDotParser understands.
+     */
+    static class DotSyntaxException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        DotSyntaxException(String message) {
+            super(message);
+        }
+    }
+}
@@ -28,4 +28,22 @@ public interface IScheduler {
      * @return
      */
     int getEarliestStartTime(Task task, IProcessor processor, ISchedule schedule);
+
+    /**
+     * Schedule a task on a processor of a ScheduleState, after the last task on that processor.
+     * @param task index of the task
+     * @param processor index of the processor
+     * @param state
+     */
+    void schedule(int task, int processor, ScheduleState state);
+
+    /**
+     * Get the earliest time a task can be added to the end of a processor
+     * of a ScheduleState.
+     * @param task index of the task
+     * @param processor index of the processor
+     * @param state
+     * @return
+     */
+    int getEarliestStartTime(int task, int processor, ScheduleState state);
 }
@@ -10,6 +10,7 @@ public class Processor implements IProcessor, Cloneable {
     private Map<Task, Integer> taskMap = new HashMap<>();
     private List<Task> tasks = new ArrayList<>();
     private int allocatedTime = 0;
+    private int finishTime = 0; // Finish time of the last task, kept up to date as tasks come and go
 
     public Processor(int id) {
         this.id = id;
@@ -21,6 +22,7 @@ public class Processor implements IProcessor, Cloneable {
         Processor processor = new Processor(this.id);
         processor.taskMap = new HashMap<>(taskMap);
         processor.allocatedTime = allocatedTime;
+        processor.finishTime = finishTime;
         processor.tasks.addAll(tasks);
         return processor;
     }
@@ -33,9 +35,18 @@ public class Processor implements IProcessor, Cloneable {
 
     @Override
     public void remove(Task task) {
-        taskMap.remove(task);
+        Integer startTime = taskMap.remove(task);
         tasks.remove(task);
         allocatedTime -= task.getWeight();
+
+        // Only need to look for the new last task if we removed the last one
+        if (startTime != null && startTime + task.getWeight() == finishTime) {
+            finishTime = 0;
+            for (Map.Entry<Task, Integer> entry: taskMap.entrySet()) {
+                int taskFinishTime = entry.getValue() + entry.getKey().getWeight();
+                if (taskFinishTime > finishTime) finishTime = taskFinishTime;
+            }
+        }
     }
 
     public Map.Entry<Task, Integer> getLatestTask(){
@@ -55,13 +66,6 @@ public class Processor implements IProcessor, Cloneable {
 
     @Override
     public int getFinishTime() {
-        int finishTime = 0;
-        // Find the maximum finishing time
-        for (Map.Entry<Task, Integer> entry: taskMap.entrySet()) {
-            int taskFinishTime = entry.getValue() + entry.getKey().getWeight();
-            // Update
-            if (taskFinishTime > finishTime) finishTime = taskFinishTime;
-        }
         return finishTime;
     }
 
@@ -80,6 +84,7 @@ public class Processor implements IProcessor, Cloneable {
         taskMap.put(task, time);
         tasks.add(task);
         allocatedTime += task.getWeight();
+        if (time + task.getWeight() > finishTime) finishTime = time + task.getWeight();
     }
 
     @Override
@@ -114,28 +119,22 @@ public class Processor implements IProcessor, Cloneable {
         return true;
     }
 
-    // Check if both processors are equal - that is, they have the same tasks
+    // Check if both processors are equal - that is, they have the same tasks at the same start times
     @Override
     public boolean equals(Object object){
         if (!(object instanceof Processor)){
             return false;
-        } else {
-            Processor processor = (Processor) object;
-            Map<Task, Integer> otherTaskMap = processor.taskMap;
-            if (taskMap.keySet().equals(otherTaskMap.keySet())){
-                return true;
-            }
         }
-        return false;
+        return isEquivalent((Processor) object);
     }
 
+    // Adding up a hash of each task and its start time means the order of the map does not matter
     @Override
     public int hashCode(){
-        StringBuilder sb = new StringBuilder();
+        int hash = 0;
         for (Map.Entry<Task, Integer> entry : taskMap.entrySet()){
-            sb.append(entry.getKey().getName());
-            sb.append(entry.getValue());
+            hash += 31 * entry.getKey().hashCode() + entry.getValue();
         }
-        return sb.toString().hashCode();
+        return hash;
     }
 }
@@ -0,0 +1,103 @@
+package scheduleModel;
+
+import taskModel.Task;
+import taskModel.TaskModel;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One processor of a ScheduleState, seen as an IProcessor.
+ * Like ScheduleView this reads from and writes to the state directly.
+ */
+public class ProcessorView implements IProcessor {
+
+    private ScheduleState state;
+    private TaskModel taskModel;
+    private int index;
+
+    ProcessorView(ScheduleState state, int index) {
+        this.state = state;
+        this.taskModel = state.getTaskModel();
+        this.index = index;
+    }
+
+    @Override
+    public boolean contains(Task task) {
+        return state.getProcessorOf(taskModel.indexOf(task)) == index;
+    }
+
+    @Override
+    public void remove(Task task) {
+        if (contains(task)) state.remove(taskModel.indexOf(task));
+    }
+
+    @Override
+    public int getFinishTime() {
+        return state.getFinishTime(index);
+    }
+
+    @Override
+    public int getFinishTimeOf(Task task) {
+        return state.getFinishTimeOf(taskModel.indexOf(task));
+    }
+
+    @Override
+    public int getStartTimeOf(Task task) {
+        return state.getStartTimeOf(taskModel.indexOf(task));
+    }
+
+    @Override
+    public void schedule(Task task, int time) {
+        state.schedule(taskModel.indexOf(task), index, time);
+    }
+
+    @Override
+    public List<Task> getTasks() {
+        List<Task> tasks = new ArrayList<>();
+        Task[] allTasks = taskModel.getTaskArray();
+        for (int i = 0; i < allTasks.length; i++) {
+            if (state.getProcessorOf(i) == index) tasks.add(allTasks[i]);
+        }
+        return tasks;
+    }
+
+    @Override
+    public int getId() {
+        return index + 1;
+    }
+
+    @Override
+    public int getIdleTime() {
+        int allocatedTime = 0;
+        for (Task task : getTasks()) {
+            allocatedTime += task.getWeight();
+        }
+        return getFinishTime() - allocatedTime;
+    }
+
+    @Override
+    public boolean isEquivalent(Processor processor) {
+        return isEquivalent((IProcessor) processor);
+    }
+
+    /**
+     * Check if another processor has the same tasks at the same start times as this one.
+     * @param processor
+     * @return true if the processors are equivalent
+     */
+    public boolean isEquivalent(IProcessor processor) {
+        List<Task> tasks = getTasks();
+        if (processor.getTasks().size() != tasks.size()) return false;
+        for (Task task : tasks) {
+            if (!processor.contains(task)) return false;
+            if (processor.getStartTimeOf(task) != getStartTimeOf(task)) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return Integer.toString(getId());
+    }
+}
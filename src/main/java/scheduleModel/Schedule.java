@@ -187,12 +187,12 @@ public class Schedule implements ISchedule, Cloneable {
 
     @Override
     public int hashCode() {
-        List<Integer> processorHashCodes = new ArrayList<>();
+        // Adding the processors' hash codes means the order of the processors does not matter
+        int hash = 0;
         for (IProcessor processor: _processors) {
-            processorHashCodes.add(processor.hashCode());
+            hash += processor.hashCode();
         }
-        Collections.sort(processorHashCodes);
-        return processorHashCodes.hashCode();
+        return hash;
     }
 
 }
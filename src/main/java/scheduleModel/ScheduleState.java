@@ -0,0 +1,408 @@
+package scheduleModel;
+
+import taskModel.Task;
+import taskModel.TaskModel;
+import taskModel.TaskNotFoundException;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A compact, mutable (partial) schedule for the search algorithms to work on.
+ * Instead of a map of tasks per processor, this keeps a few primitive arrays
+ * indexed by task index (see Task.getIndex()):
+ * the start time of each task, the processor it is on, and which tasks have
+ * been scheduled.  Processors are numbered from 0.
+ *
+ * Tasks are always appended after the last task on their processor, and can be
+ * removed in the opposite order they were scheduled in.
+ *
+ * A ScheduleState is a few hundred bytes at most for the graphs we schedule,
+ * so a best-first search can afford to keep millions of them.  Use asSchedule()
+ * to hand one to code which expects an ISchedule (DotGraph, the visualizer, etc).
+ */
+public class ScheduleState {
+
+    public static final int UNSCHEDULED = -1;
+
+    private final TaskModel taskModel;
+    private final int[] weights;
+    private final int[] bottomLevels;
+
+    private final int[] startTimes;
+    private final byte[] processors;
+    private final long[] scheduled; // Bit set of scheduled tasks
+    private final int[] finishTimes; // Finish time of each processor
+    private final int[] numTasksOn; // Number of tasks on each processor
+
+    private int numScheduled = 0;
+    private int scheduledWeight = 0;
+    private int maxStartPlusBottomLevel = 0;
+    private final long[] processorHashes; // XOR of a key for each (task, start time) on each processor
+    private long signature = 0; // See getSignature()
+
+    public ScheduleState(TaskModel taskModel, int numOfProcessors) {
+        if (numOfProcessors > Byte.MAX_VALUE) {
+            throw new IncorrectArgumentsException("Cannot schedule on more than " + Byte.MAX_VALUE + " processors");
+        }
+        int numTasks = taskModel.getTaskModelSize();
+
+        this.taskModel = taskModel;
+        weights = taskModel.getWeights();
+        bottomLevels = taskModel.getBottomLevels();
+        startTimes = new int[numTasks];
+        processors = new byte[numTasks];
+        Arrays.fill(processors, (byte) UNSCHEDULED);
+        scheduled = new long[(numTasks + 63) / 64];
+        finishTimes = new int[numOfProcessors];
+        numTasksOn = new int[numOfProcessors];
+        processorHashes = new long[numOfProcessors];
+    }
+
+    // For copying
+    private ScheduleState(ScheduleState other) {
+        taskModel = other.taskModel;
+        weights = other.weights;
+        bottomLevels = other.bottomLevels;
+        startTimes = other.startTimes.clone();
+        processors = other.processors.clone();
+        scheduled = other.scheduled.clone();
+        finishTimes = other.finishTimes.clone();
+        numTasksOn = other.numTasksOn.clone();
+        numScheduled = other.numScheduled;
+        scheduledWeight = other.scheduledWeight;
+        maxStartPlusBottomLevel = other.maxStartPlusBottomLevel;
+        processorHashes = other.processorHashes.clone();
+        signature = other.signature;
+    }
+
+    /**
+     * Make a deep copy of this schedule.
+     * @return the copy
+     */
+    public ScheduleState copy() {
+        return new ScheduleState(this);
+    }
+
+    /**
+     * Schedule a task on a processor.  It must start after the last task on that processor.
+     * @param task index of the task
+     * @param processor index of the processor
+     * @param startTime
+     */
+    public void schedule(int task, int processor, int startTime) {
+        startTimes[task] = startTime;
+        processors[task] = (byte) processor;
+        updateSignature(processor, key(task, startTime));
+        scheduled[task >>> 6] |= 1L << task;
+        finishTimes[processor] = startTime + weights[task];
+        numTasksOn[processor]++;
+
+        numScheduled++;
+        scheduledWeight += weights[task];
+        maxStartPlusBottomLevel = Math.max(maxStartPlusBottomLevel, startTime + bottomLevels[task]);
+    }
+
+    /**
+     * Remove a task from the schedule.
+     * @param task index of the task
+     */
+    public void remove(int task) {
+        if (!isScheduled(task)) {
+            throw new IncorrectArgumentsException("Could not find the task: " + taskModel.getTaskArray()[task].getName() + " in the schedule");
+        }
+        int processor = processors[task];
+        updateSignature(processor, key(task, startTimes[task]));
+
+        processors[task] = (byte) UNSCHEDULED;
+        startTimes[task] = 0;
+        scheduled[task >>> 6] &= ~(1L << task);
+        numTasksOn[processor]--;
+        numScheduled--;
+        scheduledWeight -= weights[task];
+
+        // Work out what the finish time and f1 are without the task
+        finishTimes[processor] = 0;
+        maxStartPlusBottomLevel = 0;
+        for (int i = 0; i < processors.length; i++) {
+            if (processors[i] == UNSCHEDULED) continue;
+            if (processors[i] == processor) {
+                finishTimes[processor] = Math.max(finishTimes[processor], startTimes[i] + weights[i]);
+            }
+            maxStartPlusBottomLevel = Math.max(maxStartPlusBottomLevel, startTimes[i] + bottomLevels[i]);
+        }
+    }
+
+    public boolean isScheduled(int task) {
+        return (scheduled[task >>> 6] & (1L << task)) != 0;
+    }
+
+    /**
+     * @param task index of the task
+     * @return the index of the processor the task is on, or UNSCHEDULED
+     */
+    public int getProcessorOf(int task) {
+        return processors[task];
+    }
+
+    public int getStartTimeOf(int task) {
+        return startTimes[task];
+    }
+
+    public int getFinishTimeOf(int task) {
+        return startTimes[task] + weights[task];
+    }
+
+    /**
+     * @param processor index of the processor
+     * @return the finish time of the last task on that processor
+     */
+    public int getFinishTime(int processor) {
+        return finishTimes[processor];
+    }
+
+    /**
+     * @return the finish time of the whole schedule
+     */
+    public int getFinishTime() {
+        int finishTime = 0;
+        for (int processorFinishTime : finishTimes) {
+            if (processorFinishTime > finishTime) finishTime = processorFinishTime;
+        }
+        return finishTime;
+    }
+
+    /**
+     * Check if a processor has no tasks on it.
+     * @param processor index of the processor
+     * @return true if nothing is scheduled on the processor
+     */
+    public boolean isEmpty(int processor) {
+        return numTasksOn[processor] == 0;
+    }
+
+    public int getNumOfProcessors() {
+        return finishTimes.length;
+    }
+
+    public int getNumScheduled() {
+        return numScheduled;
+    }
+
+    public boolean isComplete() {
+        return numScheduled == startTimes.length;
+    }
+
+    /**
+     * Free time between (and before) tasks on all the processors.
+     * @return the total idle time
+     */
+    public int getIdleTime() {
+        int idleTime = -scheduledWeight;
+        for (int processorFinishTime : finishTimes) {
+            idleTime += processorFinishTime;
+        }
+        return idleTime;
+    }
+
+    /**
+     * A 64 bit signature of the schedule which does not depend on how the processors are
+     * numbered.  Each processor has a hash of the tasks on it and their start times, and the
+     * signature adds up a mix of each processor's hash, so swapping two processors' tasks
+     * gives the same signature.  It is updated as tasks are added and removed rather than
+     * recomputed, so it is cheap enough to look up every partial schedule in a table.
+     * Equal schedules (see equals()) always have the same signature.
+     * @return the signature
+     */
+    public long getSignature() {
+        return signature;
+    }
+
+    // Add or remove (XOR is its own inverse) a task placement on a processor
+    private void updateSignature(int processor, long key) {
+        signature -= mix(processorHashes[processor]);
+        processorHashes[processor] ^= key;
+        signature += mix(processorHashes[processor]);
+    }
+
+    /**
+     * A hash of the tasks on one processor and their start times, which does not
+     * depend on the number of the processor.
+     * @param processor index of the processor
+     * @return the hash
+     */
+    public long getProcessorHash(int processor) {
+        return processorHashes[processor];
+    }
+
+    // A well mixed key for one task placement.  The two values are packed into a long without
+    // overlapping, and the task is counted from 1 so that no placement has a key of 0.
+    private static long key(int task, int startTime) {
+        return mix(((long) (task + 1) << 32) | (startTime & 0xFFFFFFFFL));
+    }
+
+    /**
+     * The SplitMix64 finalizer, which spreads its input over all 64 bits.
+     * mix(0) is 0, so empty processors add nothing to the signature.
+     * @param z
+     * @return the mixed value
+     */
+    public static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    public TaskModel getTaskModel() {
+        return taskModel;
+    }
+
+    // Cost functions - the same as f1() and f2() on ISchedule
+
+    // Maximum of start time + bottom level of any task
+    public int f1() {
+        return maxStartPlusBottomLevel;
+    }
+
+    // Sum of weights of tasks + the idle time divided by the number of processors
+    public double f2() {
+        return (taskModel.getComputationalLoad() + getIdleTime()) / (double) finishTimes.length;
+    }
+
+    /**
+     * Get an ISchedule which reads from (and writes to) this schedule.
+     * @return a view of this schedule
+     */
+    public ISchedule asSchedule() {
+        return new ScheduleView(this);
+    }
+
+    /**
+     * Write the scheduled tasks, by name, with their processors and start times.
+     * Names are used so the schedule can be read back against any parse of the same graph.
+     * @param out
+     * @throws IOException
+     */
+    public void write(DataOutput out) throws IOException {
+        Task[] tasks = taskModel.getTaskArray();
+        out.writeInt(numScheduled);
+        for (int task = 0; task < tasks.length; task++) {
+            if (!isScheduled(task)) continue;
+            out.writeUTF(tasks[task].getName());
+            out.writeInt(processors[task]);
+            out.writeInt(startTimes[task]);
+        }
+    }
+
+    /**
+     * Write a complete schedule of any kind the same way as write(DataOutput).
+     * @param out
+     * @param schedule
+     * @param taskModel the graph the schedule is for
+     * @throws IOException
+     */
+    public static void write(DataOutput out, ISchedule schedule, TaskModel taskModel) throws IOException {
+        out.writeInt(taskModel.getTaskModelSize());
+        for (Task task : taskModel.getTaskArray()) {
+            out.writeUTF(task.getName());
+            out.writeInt(schedule.getProcessors().indexOf(schedule.getProcessorOf(task)));
+            out.writeInt(schedule.getStartTimeOf(task));
+        }
+    }
+
+    /**
+     * Read a schedule written by write().
+     * @param in
+     * @param taskModel the graph the schedule is for
+     * @param numOfProcessors
+     * @return the schedule
+     * @throws IOException if it cannot be read, or is not a schedule of this graph
+     */
+    public static ScheduleState read(DataInput in, TaskModel taskModel, int numOfProcessors) throws IOException {
+        int numTasks = in.readInt();
+        List<int[]> placements = new ArrayList<>();
+        for (int i = 0; i < numTasks; i++) {
+            String name = in.readUTF();
+            int task;
+            try {
+                task = taskModel.get(name).getIndex();
+            } catch (TaskNotFoundException e) {
+                throw new IOException("Not a task in the graph: " + name);
+            }
+            int processor = in.readInt();
+            if (processor < 0 || processor >= numOfProcessors) {
+                throw new IOException("Not a valid processor: " + processor);
+            }
+            placements.add(new int[]{task, processor, in.readInt()});
+        }
+        return of(taskModel, numOfProcessors, placements);
+    }
+
+    /**
+     * Build a schedule from where each task goes, given in any order.
+     * @param taskModel
+     * @param numOfProcessors
+     * @param placements the task index, processor and start time of each task to schedule
+     * @return the schedule
+     */
+    public static ScheduleState of(TaskModel taskModel, int numOfProcessors, List<int[]> placements) {
+        int[] weights = taskModel.getWeights();
+
+        // Tasks have to be appended to their processors in order, so they are scheduled in order of start time
+        placements.sort((a, b) -> a[2] != b[2] ? Integer.compare(a[2], b[2])
+                : Integer.compare(a[2] + weights[a[0]], b[2] + weights[b[0]]));
+        ScheduleState schedule = new ScheduleState(taskModel, numOfProcessors);
+        for (int[] placement : placements) {
+            schedule.schedule(placement[0], placement[1], placement[2]);
+        }
+        return schedule;
+    }
+
+    /**
+     * Two schedules are equal if they have the same tasks at the same start times,
+     * with the processors possibly numbered differently.  Processors are identical,
+     * so such schedules always lead to the same makespans.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (o == this) return true;
+        if (!(o instanceof ScheduleState)) return false;
+        ScheduleState state = (ScheduleState) o;
+        if (signature != state.signature || numScheduled != state.numScheduled
+                || finishTimes.length != state.finishTimes.length || taskModel != state.taskModel) {
+            return false;
+        }
+
+        // Check the tasks are grouped onto processors the same way, and build the
+        // relabelling of processors as we go
+        int[] toOther = new int[finishTimes.length];
+        int[] fromOther = new int[finishTimes.length];
+        Arrays.fill(toOther, UNSCHEDULED);
+        Arrays.fill(fromOther, UNSCHEDULED);
+        for (int i = 0; i < processors.length; i++) {
+            int processor = processors[i];
+            int otherProcessor = state.processors[i];
+            if (processor == UNSCHEDULED || otherProcessor == UNSCHEDULED) {
+                if (processor != otherProcessor) return false;
+                continue;
+            }
+            if (startTimes[i] != state.startTimes[i]) return false;
+            if (toOther[processor] == UNSCHEDULED && fromOther[otherProcessor] == UNSCHEDULED) {
+                toOther[processor] = otherProcessor;
+                fromOther[otherProcessor] = processor;
+            } else if (toOther[processor] != otherProcessor) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (signature ^ (signature >>> 32));
+    }
+}
@@ -0,0 +1,132 @@
+package scheduleModel;
+
+import fileIO.DotRenderer;
+import taskModel.Task;
+import taskModel.TaskModel;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Lets a ScheduleState be used anywhere an ISchedule is expected.
+ * This does not copy anything - changes to the state show up in the view,
+ * and changes made through the view are made to the state.
+ */
+public class ScheduleView implements ISchedule {
+
+    private ScheduleState state;
+    private TaskModel taskModel;
+    private List<IProcessor> processors = new ArrayList<>();
+
+    ScheduleView(ScheduleState state) {
+        this.state = state;
+        this.taskModel = state.getTaskModel();
+        for (int i = 0; i < state.getNumOfProcessors(); i++) {
+            processors.add(new ProcessorView(state, i));
+        }
+    }
+
+    /**
+     * Get the state this is a view of.
+     * @return the state
+     */
+    public ScheduleState getState() {
+        return state;
+    }
+
+    @Override
+    public void schedule(Task task, IProcessor processor, int time) {
+        processor.schedule(task, time);
+    }
+
+    @Override
+    public int getFinishTimeOf(Task task) {
+        return state.getFinishTimeOf(indexOfScheduled(task));
+    }
+
+    @Override
+    public int getStartTimeOf(Task task) {
+        return state.getStartTimeOf(indexOfScheduled(task));
+    }
+
+    @Override
+    public void remove(Task task) {
+        state.remove(taskModel.indexOf(task));
+    }
+
+    @Override
+    public int getFinishTime() {
+        return state.getFinishTime();
+    }
+
+    @Override
+    public IProcessor getProcessorOf(Task task) {
+        return processors.get(state.getProcessorOf(indexOfScheduled(task)));
+    }
+
+    @Override
+    public List<IProcessor> getProcessors() {
+        return Collections.unmodifiableList(processors);
+    }
+
+    @Override
+    public List<Task> getTasks() {
+        List<Task> tasks = new ArrayList<>();
+        Task[] allTasks = taskModel.getTaskArray();
+        for (int i = 0; i < allTasks.length; i++) {
+            if (state.isScheduled(i)) tasks.add(allTasks[i]);
+        }
+        return tasks;
+    }
+
+    @Override
+    public boolean contains(Task task) {
+        return state.isScheduled(taskModel.indexOf(task));
+    }
+
+    @Override
+    public int getIdleTime() {
+        return state.getIdleTime();
+    }
+
+    @Override
+    public void debug() {
+        for (IProcessor processor: processors) {
+            System.out.println("On processor " + processor.getId() + ":");
+            List<Task> tasks = new ArrayList<>(processor.getTasks());
+            DotRenderer.sortTasks(tasks);
+            for (Task task: tasks) {
+                System.out.println("Task " + task.getName() + " starts at time " + processor.getStartTimeOf(task) + ", "
+                        + "finishes at time " + processor.getFinishTimeOf(task));
+            }
+        }
+        System.out.println("The schedule has a makespan of " + getFinishTime());
+    }
+
+    @Override
+    public int f1() {
+        return state.f1();
+    }
+
+    @Override
+    public double f2(TaskModel taskModel) {
+        return state.f2();
+    }
+
+    @Override
+    public boolean containsProcessor(IProcessor processor) {
+        for (IProcessor myProcessor: processors) {
+            if (((ProcessorView) myProcessor).isEquivalent(processor)) return true;
+        }
+        return false;
+    }
+
+    private int indexOfScheduled(Task task) {
+        int index = taskModel.indexOf(task);
+        if (!state.isScheduled(index)) {
+            throw new IncorrectArgumentsException("There are no processors which contain the task: " + task.getName());
+        }
+        return index;
+    }
+}
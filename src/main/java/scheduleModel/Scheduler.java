@@ -1,6 +1,7 @@
 package scheduleModel;
 
 import taskModel.Task;
+import taskModel.TaskModel;
 
 import java.util.*;
 
@@ -45,14 +46,43 @@ public class Scheduler implements IScheduler {
         // Ok now we have found the best case scenario task time, but there might be a task scheduled there,
         // or there might be overlapping tasks.  We need to detect these and keep pushing the task down
         // until its happy.
+        // Nothing can conflict once we are past the last task on the processor.
         Task conflictingTask;
-        while ((conflictingTask = getConflictingTask(task, processor, earliestStartTime)) != null) {
+        while (earliestStartTime < processor.getFinishTime()
+                && (conflictingTask = getConflictingTask(task, processor, earliestStartTime)) != null) {
             earliestStartTime = suggestSaferStartTime(conflictingTask, processor);
         }
 
         return earliestStartTime;
     }
 
+    @Override
+    public void schedule(int task, int processor, ScheduleState state) {
+        state.schedule(task, processor, getEarliestStartTime(task, processor, state));
+    }
+
+    @Override
+    public int getEarliestStartTime(int task, int processor, ScheduleState state) {
+        // Tasks only ever go after the last task on the processor, so there is nothing to conflict with
+        int earliestStartTime = state.getFinishTime(processor);
+
+        TaskModel taskModel = state.getTaskModel();
+        int[] parentStarts = taskModel.getParentStarts();
+        int[] parents = taskModel.getParents();
+        int[] parentCosts = taskModel.getParentCosts();
+        for (int i = parentStarts[task]; i < parentStarts[task + 1]; i++) {
+            int parent = parents[i];
+            int timeAfterParentDone = state.getFinishTimeOf(parent);
+            if (state.getProcessorOf(parent) != processor) {
+                timeAfterParentDone += parentCosts[i];
+            }
+            if (timeAfterParentDone > earliestStartTime) {
+                earliestStartTime = timeAfterParentDone;
+            }
+        }
+        return earliestStartTime;
+    }
+
     private Task getConflictingTask(Task task, IProcessor processor, int attemptedTime) {
 
         // Go through each existing task on the processor and check for conflicts
@@ -16,6 +16,7 @@ public class Task implements  Comparable<Task> {
     private int weight;
     private String name;
     private int bottomLevel;
+    private int index = -1; // Set when the TaskModel is frozen
 
     public Task(String name, int weight) {
         this.name = name;
@@ -118,6 +119,19 @@ public class Task implements  Comparable<Task> {
         return bottomLevel;
     }
 
+    /**
+     * Returns the position of the task in TaskModel.getTaskArray(), which
+     * numbers the tasks from 0.  This is -1 until the model has been frozen.
+     * @return
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    void setIndex(int index) {
+        this.index = index;
+    }
+
     /**
      * Returns true if and only if both tasks have the same name.
      * @param object
@@ -125,7 +139,9 @@ public class Task implements  Comparable<Task> {
      */
     @Override
     public boolean equals(Object object){
-        if (!(object instanceof Task)){
+        if (object == this) {
+            return true;
+        } else if (!(object instanceof Task)){
             return false;
         } else {
             Task task = (Task)object;
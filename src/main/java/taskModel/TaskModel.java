@@ -7,10 +7,31 @@ import java.util.*;
  * method for creating dependencies.
  */
 public class TaskModel {
+    public static final int NO_TASK = -1;
+
     private Map<String, Task> tasks = new HashMap<>();
     private String graphId;
     private int computationalLoad = 0; // Total weight of all tasks
 
+    // Built by freeze(), see getTaskArray()
+    private Task[] taskArray;
+    private Map<Task, Integer> taskIndices;
+    private int[] weights;
+    private int[] bottomLevels;
+
+    // The task graph in compressed sparse row form.  The parents of task i are
+    // parents[parentStarts[i]] to parents[parentStarts[i + 1] - 1], and the cost of
+    // each link is at the same position in parentCosts.  Children work the same way.
+    private int[] parentStarts;
+    private int[] parents;
+    private int[] parentCosts;
+    private int[] childStarts;
+    private int[] children;
+    private int[] childCosts;
+
+    // For each task, the task before it in its equivalence class (see getEquivalentPredecessors())
+    private int[] equivalentPredecessors;
+
     public TaskModel(String graphId) {
         this.graphId = graphId;
     }
@@ -20,6 +41,7 @@ public class TaskModel {
      * @param task
      */
     public void addTask(Task task) {
+        checkNotFrozen();
         tasks.put(task.getName(), task);
         computationalLoad += task.getWeight();
     }
@@ -41,12 +63,14 @@ public class TaskModel {
      * @param cost
      */
     public void addDependency(Task parent, Task child, int cost) {
+        checkNotFrozen();
         parent.insertLinkToChild(child, cost);
         child.insertLinkToParent(parent, cost);
     }
 
     /**
-     * Get all the tasks in the model
+     * Get all the tasks in the model.  This is a new list which the caller
+     * is free to modify - use getTaskArray() in code that runs often.
      * @return
      */
     public List<Task> getTasks() {
@@ -57,6 +81,205 @@ public class TaskModel {
         return output;
     }
 
+    /**
+     * Give every task its index (0 to n - 1, largest bottom level first) and build
+     * the arrays used by the search algorithms.  Call this once all the tasks,
+     * dependencies and bottom levels are in place - the model cannot be changed
+     * afterwards.  Calling it again does nothing.
+     */
+    public void freeze() {
+        if (isFrozen()) return;
+
+        List<Task> sortedTasks = getTasks();
+        Collections.sort(sortedTasks);
+        Task[] array = sortedTasks.toArray(new Task[sortedTasks.size()]);
+        int numTasks = array.length;
+
+        taskIndices = new HashMap<>();
+        weights = new int[numTasks];
+        bottomLevels = new int[numTasks];
+        for (int i = 0; i < numTasks; i++) {
+            array[i].setIndex(i);
+            taskIndices.put(array[i], i);
+            weights[i] = array[i].getWeight();
+            bottomLevels[i] = array[i].getBottomLevel();
+        }
+
+        parentStarts = new int[numTasks + 1];
+        childStarts = new int[numTasks + 1];
+        for (int i = 0; i < numTasks; i++) {
+            parentStarts[i + 1] = parentStarts[i] + array[i].getParents().size();
+            childStarts[i + 1] = childStarts[i] + array[i].getChildren().size();
+        }
+        parents = new int[parentStarts[numTasks]];
+        parentCosts = new int[parents.length];
+        children = new int[childStarts[numTasks]];
+        childCosts = new int[children.length];
+        for (int i = 0; i < numTasks; i++) {
+            fillLinks(array, array[i], true, parents, parentCosts, parentStarts[i]);
+            fillLinks(array, array[i], false, children, childCosts, childStarts[i]);
+        }
+
+        findEquivalentTasks(numTasks);
+
+        // Set last, so the model only looks frozen once everything is in place
+        taskArray = array;
+    }
+
+    // Put each task after the closest task before it that it is equivalent to.
+    // Equivalence is transitive, so this chains each class together in index order.
+    // Only tasks with the same hash of their weight and links are compared, so big graphs do not take n^2 comparisons.
+    private void findEquivalentTasks(int numTasks) {
+        equivalentPredecessors = new int[numTasks];
+        Map<Long, List<Integer>> lastOfEachClass = new HashMap<>();
+        for (int i = 0; i < numTasks; i++) {
+            equivalentPredecessors[i] = NO_TASK;
+            List<Integer> candidates = lastOfEachClass.computeIfAbsent(linkHash(i), hash -> new ArrayList<>());
+            for (int j = 0; j < candidates.size(); j++) {
+                if (areEquivalent(i, candidates.get(j))) {
+                    equivalentPredecessors[i] = candidates.get(j);
+                    candidates.set(j, i);
+                    break;
+                }
+            }
+            if (equivalentPredecessors[i] == NO_TASK) candidates.add(i);
+        }
+    }
+
+    // Equivalent tasks have the same hash
+    private long linkHash(int task) {
+        long hash = weights[task];
+        for (int i = parentStarts[task]; i < parentStarts[task + 1]; i++) {
+            hash = 31 * (31 * hash + parents[i]) + parentCosts[i];
+        }
+        hash = 31 * hash + 1;
+        for (int i = childStarts[task]; i < childStarts[task + 1]; i++) {
+            hash = 31 * (31 * hash + children[i]) + childCosts[i];
+        }
+        return hash;
+    }
+
+    // Two tasks are equivalent if they have the same weight, and the same parents and children with the same link costs
+    private boolean areEquivalent(int a, int b) {
+        return weights[a] == weights[b]
+                && sameLinks(parentStarts, parents, parentCosts, a, b)
+                && sameLinks(childStarts, children, childCosts, a, b);
+    }
+
+    // The links of each task are sorted by index, so they can be compared in order
+    private static boolean sameLinks(int[] starts, int[] links, int[] costs, int a, int b) {
+        if (starts[a + 1] - starts[a] != starts[b + 1] - starts[b]) return false;
+        for (int i = starts[a], j = starts[b]; i < starts[a + 1]; i++, j++) {
+            if (links[i] != links[j] || costs[i] != costs[j]) return false;
+        }
+        return true;
+    }
+
+    // Write the indices of a task's parents or children (in increasing order) and their link costs into the CSR arrays
+    private void fillLinks(Task[] array, Task task, boolean linksAreParents, int[] indices, int[] costs, int start) {
+        Set<Task> links = linksAreParents ? task.getParents() : task.getChildren();
+        int[] linked = new int[links.size()];
+        int j = 0;
+        for (Task link : links) {
+            linked[j++] = taskIndices.get(link);
+        }
+        Arrays.sort(linked);
+        for (j = 0; j < linked.length; j++) {
+            Task link = array[linked[j]];
+            indices[start + j] = linked[j];
+            costs[start + j] = linksAreParents ? task.getParentLinkCost(link) : task.getChildLinkCost(link);
+        }
+    }
+
+    public boolean isFrozen() {
+        return taskArray != null;
+    }
+
+    private void checkNotFrozen() {
+        if (isFrozen()) throw new IllegalStateException("Tasks cannot be added to a frozen TaskModel");
+    }
+
+    /**
+     * Get all the tasks in a fixed order, largest bottom level first.
+     * The position of a task in this array is its index (see Task.getIndex()).
+     * This freezes the model if it is not frozen already.
+     * @return the tasks, which must not be modified
+     */
+    public Task[] getTaskArray() {
+        freeze();
+        return taskArray;
+    }
+
+    /**
+     * Get the index of a task in getTaskArray()
+     * @param task
+     * @return the index of the task
+     */
+    public int indexOf(Task task) {
+        freeze();
+        int index = task.getIndex();
+        if (index >= 0 && index < taskArray.length && taskArray[index] == task) return index;
+
+        // Not one of our Task objects, but it may have the same name as one
+        Integer namedIndex = taskIndices.get(task);
+        if (namedIndex == null) throw new TaskNotFoundException();
+        return namedIndex;
+    }
+
+    // Arrays indexed by task index, for the search algorithms.  None of these may be modified.
+
+    public int[] getWeights() {
+        freeze();
+        return weights;
+    }
+
+    public int[] getBottomLevels() {
+        freeze();
+        return bottomLevels;
+    }
+
+    public int[] getParentStarts() {
+        freeze();
+        return parentStarts;
+    }
+
+    public int[] getParents() {
+        freeze();
+        return parents;
+    }
+
+    public int[] getParentCosts() {
+        freeze();
+        return parentCosts;
+    }
+
+    public int[] getChildStarts() {
+        freeze();
+        return childStarts;
+    }
+
+    public int[] getChildren() {
+        freeze();
+        return children;
+    }
+
+    public int[] getChildCosts() {
+        freeze();
+        return childCosts;
+    }
+
+    /**
+     * Equivalent tasks have the same weight, parents, children and link costs, so swapping
+     * two of them in a schedule gives a schedule with the same makespan.  That means they
+     * can always be scheduled in one fixed order: a task only needs to be tried once the
+     * task before it in its class has been scheduled.
+     * @return for each task, the index of the task before it in its equivalence class, or NO_TASK
+     */
+    public int[] getEquivalentPredecessors() {
+        freeze();
+        return equivalentPredecessors;
+    }
+
     public String getGraphId() {
         return graphId;
     }
@@ -65,6 +288,31 @@ public class TaskModel {
         return tasks.size();
     }
 
+    /**
+     * Compute the bottom level of every task.  Children are done before their parents,
+     * so each task is only done once, however many paths lead to it.
+     */
+    public void computeBottomLevels() {
+        checkNotFrozen();
+        Map<Task, Integer> childrenLeft = new HashMap<>();
+        Deque<Task> ready = new ArrayDeque<>();
+        for (Task task : tasks.values()) {
+            childrenLeft.put(task, task.getChildren().size());
+            if (task.getChildren().isEmpty()) ready.add(task);
+        }
+        while (!ready.isEmpty()) {
+            Task task = ready.poll();
+            int bottomLevel = 0;
+            for (Task child : task.getChildren()) {
+                bottomLevel = Math.max(bottomLevel, child.getBottomLevel());
+            }
+            task.setBottomLevel(bottomLevel + task.getWeight());
+            for (Task parent : task.getParents()) {
+                if (childrenLeft.merge(parent, -1, Integer::sum) == 0) ready.add(parent);
+            }
+        }
+    }
+
     /**
      * Compute the bottom levels recursively
      */
@@ -1,6 +1,5 @@
 package view;
 
-import app.CLI;
 import eu.hansolo.tilesfx.Tile;
 import eu.hansolo.tilesfx.TileBuilder;
 import eu.hansolo.tilesfx.tools.FlowGridPane;
@@ -21,6 +20,7 @@ import view.nodeTree.NodeTreeGenerator;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
+import java.util.function.Consumer;
 
 /**
  * This is the main JavaFX class that builds the visualizer GUI,
@@ -36,6 +36,8 @@ public class Visualizer extends Application implements AlgorithmListener {
     // Constructor fields
     private static ISchedule schedule;
     private static TaskModel taskModel;
+    // Given the listeners once the GUI is ready, to start the search
+    private static Consumer<List<AlgorithmListener>> onReady;
 
     // Tiles
     private Tile schedulerTile;
@@ -132,7 +134,7 @@ public class Visualizer extends Application implements AlgorithmListener {
                 topRowPane, bottomRowPane);
 
         // Give listeners to CLI
-        new Thread(() -> CLI.visualizerReady(listeners)).start();
+        new Thread(() -> onReady.accept(listeners)).start();
     }
 
     /**
@@ -157,9 +159,10 @@ public class Visualizer extends Application implements AlgorithmListener {
         this.primaryStage.show();
     }
 
-    public static void launch(TaskModel tm, ISchedule sch) {
+    public static void launch(TaskModel tm, ISchedule sch, Consumer<List<AlgorithmListener>> ready) {
         taskModel = tm;
         schedule = sch;
+        onReady = ready;
 
         launch();
     }
@@ -0,0 +1,81 @@
+package app;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class BatchTest {
+    private static final String[] INPUTS = {"Nodes_7_OutTree.dot", "Nodes_10_Random.dot", "Nodes_11_OutTree.dot",
+            "2p_Fork_Join_Nodes_10_CCR_1.01_WeightType_Random.dot"};
+    private static final int[] ANSWERS = {28, 50, 350, 59};
+
+    // Deleted after each test, with everything the batch wrote into it
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    // A directory with a copy of each input graph
+    private File copyInputs() throws Exception {
+        File directory = temporaryFolder.newFolder("batch");
+        for (String input : INPUTS) {
+            Files.copy(Paths.get(Run.class.getResource(input).toURI()), new File(directory, input).toPath(),
+                    StandardCopyOption.REPLACE_EXISTING);
+        }
+        return directory;
+    }
+
+    @Test
+    public void testDirectory() throws Exception {
+        File directory = copyInputs();
+        List<File> inputs = Batch.getInputs(directory);
+        assertEquals(INPUTS.length, inputs.size());
+
+        // Each algorithm is made for its own graph, and the fork searches all share the batch's threads
+        List<Batch.Result> results = new Batch(inputs, 2, 3, taskModel -> new DFSAlgorithmFork(taskModel, 2, 1)).run();
+        for (Batch.Result result : results) {
+            assertNull(result.getError());
+            int answer = ANSWERS[Arrays.asList(INPUTS).indexOf(result.getInput().getName())];
+            assertEquals(answer, result.getMakespan());
+            assertTrue(result.isOptimal());
+            assertTrue(new File(result.getOutput()).exists());
+        }
+
+        // The schedules written to the directory are not scheduled again
+        assertEquals(INPUTS.length, Batch.getInputs(directory).size());
+
+        File summary = new File(directory, "summary.csv");
+        Batch.writeSummary(results, summary);
+        List<String> lines = Files.readAllLines(summary.toPath(), StandardCharsets.UTF_8);
+        assertEquals(Batch.SUMMARY_HEADER, lines.get(0));
+        assertEquals(INPUTS.length + 1, lines.size());
+    }
+
+    @Test
+    public void testManifestWithMissingGraph() throws Exception {
+        File directory = copyInputs();
+        File manifest = new File(directory, "manifest.txt");
+        Files.write(manifest.toPath(), Arrays.asList("# Graphs to schedule", INPUTS[0], "", "missing.dot", INPUTS[2]),
+                StandardCharsets.UTF_8);
+
+        List<File> inputs = Batch.getInputs(manifest);
+        assertEquals(3, inputs.size());
+        List<Batch.Result> results = new Batch(inputs, 2, 2, taskModel -> new DFSAlgorithmInPlace(taskModel, 2)).run();
+        assertEquals(ANSWERS[0], results.get(0).getMakespan());
+        assertNotNull(results.get(1).getError());
+        assertEquals(ANSWERS[2], results.get(2).getMakespan());
+        // What could not be worked out for the missing graph is left as -1
+        assertTrue(results.get(1).toCsv().contains(",-1,"));
+    }
+}
@@ -0,0 +1,205 @@
+package app;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DaemonTest {
+    private Daemon daemon;
+
+    // What went wrong on the client threads, e.g. a failed assert, which would not fail the test by itself
+    private final List<Throwable> clientFailures = Collections.synchronizedList(new ArrayList<>());
+
+    @Before
+    public void startDaemon() throws Exception {
+        daemon = new Daemon(0, 2);
+        daemon.start();
+    }
+
+    @After
+    public void stopDaemon() {
+        daemon.stop();
+    }
+
+    // What the daemon sent back for one graph
+    private static class Response {
+        int status;
+        String makespan;
+        String optimal;
+        String body;
+    }
+
+    private Response post(String query, byte[] graph) throws Exception {
+        URL url = new URL("http://localhost:" + daemon.getPort() + "/schedule?" + query);
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(graph);
+        }
+
+        Response response = new Response();
+        response.status = connection.getResponseCode();
+        response.makespan = connection.getHeaderField("X-Makespan");
+        response.optimal = connection.getHeaderField("X-Optimal");
+        try (InputStream in = response.status == 200 ? connection.getInputStream() : connection.getErrorStream()) {
+            response.body = new String(readAll(in), StandardCharsets.UTF_8);
+        }
+        return response;
+    }
+
+    private int getNumWaiting() throws Exception {
+        URL url = new URL("http://localhost:" + daemon.getPort() + "/status");
+        try (InputStream in = url.openStream()) {
+            String status = new String(readAll(in), StandardCharsets.UTF_8);
+            return Integer.parseInt(status.split("\n")[0].substring("waiting: ".length()));
+        }
+    }
+
+    private static byte[] readAll(InputStream in) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] readGraph(String input) throws Exception {
+        return Files.readAllBytes(Paths.get(Run.class.getResource(input).toURI()));
+    }
+
+    private interface Client {
+        void run() throws Exception;
+    }
+
+    // Run a client on a thread of its own, keeping anything that goes wrong for joinAll()
+    private Thread startClient(Client client) {
+        Thread thread = new Thread(() -> {
+            try {
+                client.run();
+            } catch (Throwable e) {
+                clientFailures.add(e);
+            }
+        });
+        thread.start();
+        return thread;
+    }
+
+    // Wait for the clients, and fail if anything went wrong on any of them
+    private void joinAll(List<Thread> clients) throws Exception {
+        for (Thread client : clients) {
+            client.join();
+        }
+        if (!clientFailures.isEmpty()) {
+            throw new AssertionError("A client failed", clientFailures.get(0));
+        }
+    }
+
+    private static void waitUntil(Callable<Boolean> condition) throws Exception {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (!condition.call()) {
+            assertTrue("Timed out waiting for the daemon", System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    public void testGraphsScheduledAtOnce() throws Exception {
+        String[] inputs = {"Nodes_7_OutTree.dot", "Nodes_10_Random.dot", "Nodes_11_OutTree.dot",
+                "2p_Fork_Join_Nodes_10_CCR_1.01_WeightType_Random.dot"};
+        String[] options = {"", "-a inplace", "-b f1,load --order finish", "-a astar"};
+        int[] answers = {28, 50, 350, 59};
+
+        Response[] responses = new Response[inputs.length];
+        List<Thread> clients = new ArrayList<>();
+        for (int i = 0; i < inputs.length; i++) {
+            int client = i;
+            clients.add(startClient(() -> responses[client] = post("processors=2&options="
+                    + URLEncoder.encode(options[client], "UTF-8"), readGraph(inputs[client]))));
+        }
+        joinAll(clients);
+
+        for (int i = 0; i < inputs.length; i++) {
+            assertEquals(200, responses[i].status);
+            assertEquals(Integer.toString(answers[i]), responses[i].makespan);
+            assertEquals("true", responses[i].optimal);
+            assertTrue(responses[i].body.startsWith("digraph"));
+        }
+    }
+
+    @Test
+    public void testTimeout() throws Exception {
+        Response response = post("processors=4&timeout=1",
+                readGraph("4p_Random_Nodes_21_Density_0.95_CCR_10.00_WeightType_Random.dot"));
+        assertEquals(200, response.status);
+        assertEquals("false", response.optimal);
+    }
+
+    @Test
+    public void testPriority() throws Exception {
+        // Hold up the first two jobs until the test lets them go, so the next two have to wait
+        CountDownLatch release = new CountDownLatch(1);
+        List<Long> started = Collections.synchronizedList(new ArrayList<>());
+        daemon.onJobStart = sequence -> {
+            started.add(sequence);
+            if (sequence < 2) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+
+        byte[] graph = readGraph("Nodes_7_OutTree.dot");
+        String[] queries = {"processors=2", "processors=2", "processors=2&priority=0", "processors=2&priority=5"};
+        List<Thread> clients = new ArrayList<>();
+        for (int i = 0; i < queries.length; i++) {
+            String query = queries[i];
+            clients.add(startClient(() -> assertEquals("28", post(query, graph).makespan)));
+
+            // Each job is started or waiting before the next is sent, so they are numbered in order
+            int sent = i + 1;
+            waitUntil(() -> started.size() + getNumWaiting() == sent);
+        }
+        release.countDown();
+        joinAll(clients);
+
+        // The job with the higher priority was started first, even though it came in last
+        assertEquals(Arrays.asList(0L, 1L, 3L, 2L), started);
+    }
+
+    @Test
+    public void testBadRequests() throws Exception {
+        byte[] graph = readGraph("Nodes_7_OutTree.dot");
+        assertEquals(400, post("", graph).status);
+        assertEquals(400, post("processors=two", graph).status);
+        assertEquals(400, post("processors=2&options=-o%20out.dot", graph).status);
+        assertEquals(400, post("processors=2&options=-a", graph).status);
+        assertEquals(400, post("processors=2", "not a graph".getBytes(StandardCharsets.UTF_8)).status);
+
+        // The daemon carries on after a bad request
+        assertEquals("28", post("processors=2", graph).makespan);
+    }
+}
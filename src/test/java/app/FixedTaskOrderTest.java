@@ -0,0 +1,212 @@
+package app;
+
+import org.junit.Test;
+import scheduleModel.ISchedule;
+import scheduleModel.ScheduleState;
+import scheduleModel.Scheduler;
+import taskModel.Task;
+import taskModel.TaskModel;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class FixedTaskOrderTest {
+
+    /**
+     * Make a graph where a forks into b, c and d, which all join into e.
+     * @param linkCosts the costs of a->b, a->c, a->d, b->e, c->e and d->e
+     */
+    private TaskModel forkJoin(int... linkCosts) {
+        TaskModel taskModel = new TaskModel("test");
+        Task[] tasks = {new Task("a", 2), new Task("b", 3), new Task("c", 4), new Task("d", 5), new Task("e", 1)};
+        for (Task task : tasks) {
+            taskModel.addTask(task);
+        }
+        for (int i = 0; i < 3; i++) {
+            taskModel.addDependency(tasks[0], tasks[i + 1], linkCosts[i]);
+            taskModel.addDependency(tasks[i + 1], tasks[4], linkCosts[i + 3]);
+        }
+        taskModel.computeBottomLevels(tasks[0]);
+        return taskModel;
+    }
+
+    // Schedule a, and return the first task of the fixed order of b, c and d
+    private int getFirstTask(TaskModel taskModel) {
+        ScheduleState state = new ScheduleState(taskModel, 2);
+        new Scheduler().schedule(taskModel.indexOf(taskModel.get("a")), 0, state);
+        int[] freeTasks = {
+                taskModel.indexOf(taskModel.get("b")),
+                taskModel.indexOf(taskModel.get("c")),
+                taskModel.indexOf(taskModel.get("d"))
+        };
+        return new FixedTaskOrder(taskModel).getFirstTask(state, freeTasks, freeTasks.length);
+    }
+
+    @Test
+    public void testForkJoinHasFixedOrder() {
+        // c is ready first and has the most expensive out-edge, then d, then b
+        TaskModel taskModel = forkJoin(4, 1, 2, 1, 3, 2);
+        assertEquals(taskModel.indexOf(taskModel.get("c")), getFirstTask(taskModel));
+    }
+
+    @Test
+    public void testNoFixedOrderWhenOutEdgesDisagree() {
+        // b is ready first but has the cheapest out-edge
+        TaskModel taskModel = forkJoin(1, 4, 2, 1, 3, 2);
+        assertEquals(TaskModel.NO_TASK, getFirstTask(taskModel));
+    }
+
+    @Test
+    public void testNoFixedOrderWithTwoChildren() {
+        TaskModel taskModel = new TaskModel("test");
+        Task a = new Task("a", 1);
+        Task b = new Task("b", 1);
+        Task c = new Task("c", 1);
+        taskModel.addTask(a);
+        taskModel.addTask(b);
+        taskModel.addTask(c);
+        taskModel.addDependency(a, c, 1);
+        taskModel.addDependency(b, c, 1);
+        Task d = new Task("d", 1);
+        taskModel.addTask(d);
+        taskModel.addDependency(a, d, 1);
+        taskModel.computeBottomLevels(a);
+        taskModel.computeBottomLevels(b);
+
+        ScheduleState state = new ScheduleState(taskModel, 2);
+        int[] freeTasks = {taskModel.indexOf(a), taskModel.indexOf(b)};
+        assertEquals(TaskModel.NO_TASK, new FixedTaskOrder(taskModel).getFirstTask(state, freeTasks, 2));
+    }
+
+    /**
+     * Make a graph of tasks named by their index.
+     * @param weights the weight of each task
+     * @param edges the parent, child and cost of each link
+     */
+    private static TaskModel graph(int[] weights, int[][] edges) {
+        TaskModel taskModel = new TaskModel("test");
+        for (int i = 0; i < weights.length; i++) {
+            taskModel.addTask(new Task(Integer.toString(i), weights[i]));
+        }
+        for (int[] edge : edges) {
+            taskModel.addDependency(taskModel.get(Integer.toString(edge[0])), taskModel.get(Integer.toString(edge[1])), edge[2]);
+        }
+        taskModel.computeBottomLevels();
+        taskModel.freeze();
+        return taskModel;
+    }
+
+    // The optimal makespan, by trying every free task on every processor.  Nothing is left out
+    // but schedules that cannot beat the best one so far, so it does not rely on any of the pruning.
+    private static int exhaustive(TaskModel taskModel, ScheduleState state, int best) {
+        if (state.isComplete()) return Math.min(best, state.getFinishTime());
+        int[] parentStarts = taskModel.getParentStarts();
+        int[] parents = taskModel.getParents();
+        int[] bottomLevels = taskModel.getBottomLevels();
+        Scheduler scheduler = new Scheduler();
+        for (int task = 0; task < taskModel.getTaskModelSize(); task++) {
+            if (state.isScheduled(task)) continue;
+            boolean free = true;
+            for (int i = parentStarts[task]; i < parentStarts[task + 1]; i++) {
+                if (!state.isScheduled(parents[i])) free = false;
+            }
+            if (!free) continue;
+
+            boolean triedEmptyProcessor = false;
+            for (int processor = 0; processor < state.getNumOfProcessors(); processor++) {
+                if (state.isEmpty(processor)) {
+                    if (triedEmptyProcessor) continue;
+                    triedEmptyProcessor = true;
+                }
+                int start = scheduler.getEarliestStartTime(task, processor, state);
+                if (start + bottomLevels[task] >= best) continue;
+                state.schedule(task, processor, start);
+                best = exhaustive(taskModel, state, best);
+                state.remove(task);
+            }
+        }
+        return best;
+    }
+
+    // Every search must find a valid schedule as good as the exhaustive one
+    private static void assertAllOptimal(TaskModel taskModel, int numOfProcessors, int optimal) {
+        IAlgorithm[] algorithms = {
+                new DFSAlgorithm(taskModel, numOfProcessors),
+                new DFSAlgorithmInPlace(taskModel, numOfProcessors),
+                new DFSAlgorithmFork(taskModel, numOfProcessors, 1),
+                new AStarAlgorithm(taskModel, numOfProcessors),
+                new HDAStarAlgorithm(taskModel, numOfProcessors, 2),
+                new IDAStarAlgorithm(taskModel, numOfProcessors),
+                new SMAStarAlgorithm(taskModel, numOfProcessors),
+                new AllocationOrderingAlgorithm(taskModel, numOfProcessors)
+        };
+        for (IAlgorithm algorithm : algorithms) {
+            ISchedule schedule = algorithm.run();
+            new ScheduleValidator(schedule).validate(taskModel);
+            assertEquals(algorithm.getClass().getSimpleName(), optimal, schedule.getFinishTime());
+        }
+    }
+
+    @Test
+    public void testOrderHoldsOnTheParentsProcessor() {
+        // 5 is ready first on other processors, but 4 is ready first on 3's processor
+        TaskModel taskModel = graph(new int[]{2, 3, 2, 2, 2, 3, 2, 2},
+                new int[][]{{0, 1, 11}, {0, 2, 5}, {2, 3, 3}, {3, 4, 10}, {3, 6, 3}, {3, 7, 5}, {4, 5, 0}});
+        assertEquals(13, exhaustive(taskModel, new ScheduleState(taskModel, 3), Integer.MAX_VALUE));
+        assertAllOptimal(taskModel, 3, 13);
+
+        taskModel = graph(new int[]{10, 3, 7, 6, 2},
+                new int[][]{{0, 1, 5}, {0, 2, 8}, {0, 3, 10}, {1, 4, 7}, {2, 4, 1}, {3, 4, 2}});
+        assertEquals(26, exhaustive(taskModel, new ScheduleState(taskModel, 3), Integer.MAX_VALUE));
+        assertAllOptimal(taskModel, 3, 26);
+    }
+
+    @Test
+    public void testTaskWithNoChildComesLast() {
+        // 3 has a link to 4 that costs nothing, which must still come before 1, 2 and 5 having no link
+        TaskModel taskModel = graph(new int[]{2, 3, 2, 3, 2, 2},
+                new int[][]{{0, 1, 7}, {0, 2, 5}, {0, 3, 9}, {0, 5, 11}, {3, 4, 0}});
+        assertEquals(10, exhaustive(taskModel, new ScheduleState(taskModel, 2), Integer.MAX_VALUE));
+        assertAllOptimal(taskModel, 2, 10);
+    }
+
+    @Test
+    public void testTriedTaskOnAnotherProcessor() {
+        // A task tried in an earlier branch used to only be tried again on the processor of the
+        // task before it, which left out every optimal schedule of this graph
+        TaskModel taskModel = graph(new int[]{2, 2, 1, 3, 3, 3},
+                new int[][]{{0, 2, 0}, {0, 4, 2}, {1, 3, 1}, {2, 3, 0}});
+        assertEquals(7, exhaustive(taskModel, new ScheduleState(taskModel, 2), Integer.MAX_VALUE));
+        assertAllOptimal(taskModel, 2, 7);
+    }
+
+    @Test
+    public void testRandomGraphs() {
+        // Sparse graphs, so there are plenty of forks, joins and chains for the order to apply to,
+        // and small weights and costs, so there are plenty of ties
+        Random random = new Random(306);
+        for (int i = 0; i < 300; i++) {
+            int numTasks = 5 + random.nextInt(4);
+            int numOfProcessors = 2 + random.nextInt(2);
+            double linkChance = 0.15 + 0.25 * random.nextDouble();
+            TaskModel taskModel = new TaskModel("random");
+            for (int task = 0; task < numTasks; task++) {
+                taskModel.addTask(new Task(Integer.toString(task), 1 + random.nextInt(5)));
+            }
+            for (int parent = 0; parent < numTasks; parent++) {
+                for (int child = parent + 1; child < numTasks; child++) {
+                    if (random.nextDouble() < linkChance) {
+                        taskModel.addDependency(taskModel.get(Integer.toString(parent)),
+                                taskModel.get(Integer.toString(child)), random.nextInt(6));
+                    }
+                }
+            }
+            taskModel.computeBottomLevels();
+            taskModel.freeze();
+
+            int optimal = exhaustive(taskModel, new ScheduleState(taskModel, numOfProcessors), Integer.MAX_VALUE);
+            assertAllOptimal(taskModel, numOfProcessors, optimal);
+        }
+    }
+}
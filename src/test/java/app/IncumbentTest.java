@@ -0,0 +1,64 @@
+package app;
+
+import org.junit.Test;
+import scheduleModel.Schedule;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class IncumbentTest {
+
+    // An empty schedule whose makespan is whatever we need
+    private static Schedule scheduleFinishingAt(int finishTime) {
+        return new Schedule(1) {
+            @Override
+            public int getFinishTime() {
+                return finishTime;
+            }
+        };
+    }
+
+    @Test
+    public void testOnlyBetterSchedulesReplaceTheIncumbent() {
+        Incumbent incumbent = new Incumbent();
+        assertEquals(Integer.MAX_VALUE, incumbent.getBound());
+        assertNull(incumbent.getSchedule());
+
+        Schedule first = scheduleFinishingAt(50);
+        assertTrue(incumbent.offer(first));
+        assertFalse(incumbent.offer(scheduleFinishingAt(50)));
+        assertFalse(incumbent.offer(scheduleFinishingAt(60)));
+        assertSame(first, incumbent.getSchedule());
+
+        Schedule better = scheduleFinishingAt(40);
+        assertTrue(incumbent.offer(better));
+        assertEquals(40, incumbent.getBound());
+        assertSame(better, incumbent.getSchedule());
+    }
+
+    @Test
+    public void testConcurrentOffersKeepTheBest() throws InterruptedException {
+        Incumbent incumbent = new Incumbent();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int offset = t;
+            threads.add(new Thread(() -> {
+                for (int finishTime = 1000 + offset; finishTime >= 1; finishTime -= 4) {
+                    incumbent.offer(scheduleFinishingAt(finishTime));
+                }
+            }));
+        }
+        for (Thread thread : threads) thread.start();
+        for (Thread thread : threads) thread.join();
+
+        // The bound always matches the schedule it came from
+        assertEquals(1, incumbent.getBound());
+        assertEquals(1, incumbent.getSchedule().getFinishTime());
+    }
+}
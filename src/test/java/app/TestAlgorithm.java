@@ -1,15 +1,24 @@
 package app;
 
+import app.bounds.CombinedBound;
+import app.heuristics.Heuristics;
 import fileIO.FileParser;
 import org.junit.Test;
+import scheduleModel.ISchedule;
+import taskModel.Task;
+import taskModel.TaskModel;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.net.URISyntaxException;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class TestAlgorithm {
     private Map<String, Integer> correctAnswers = new HashMap<String, Integer>() {{
@@ -36,4 +45,303 @@ public class TestAlgorithm {
             assertEquals((long) entry.getValue(), new DFSAlgorithm(new FileParser(new File(Run.class.getResource(entry.getKey()).toURI())).getTaskModelFromFile(), 2).run().getFinishTime());
         }
     }
+
+    @Test
+    public void testFork() throws URISyntaxException, FileNotFoundException {
+        // Each run is on a new instance in the same JVM, so nothing may be left over from the last one.
+        // A cutoff of 0 only forks when threads need work, so most subtrees are searched sequentially.
+        for (int cutoffDepth : new int[]{DFSAlgorithmFork.DEFAULT_CUTOFF_DEPTH, 0}) {
+            for (Map.Entry<String, Integer> entry: correctAnswers.entrySet()) {
+                System.out.println("Testing " + entry.getKey() + " with cutoff " + cutoffDepth + "...");
+                DFSAlgorithmFork algorithm = new DFSAlgorithmFork(new FileParser(new File(Run.class.getResource(entry.getKey()).toURI())).getTaskModelFromFile(), 2, 4);
+                algorithm.setCutoffDepth(cutoffDepth);
+                assertEquals((long) entry.getValue(), algorithm.run().getFinishTime());
+            }
+        }
+    }
+
+    @Test
+    public void testForkTranspositionTable() throws URISyntaxException, FileNotFoundException {
+        for (Map.Entry<String, Integer> entry: correctAnswers.entrySet()) {
+            System.out.println("Testing " + entry.getKey() + "...");
+            DFSAlgorithmFork algorithm = new DFSAlgorithmFork(new FileParser(new File(Run.class.getResource(entry.getKey()).toURI())).getTaskModelFromFile(), 2, 4, 1 << 16);
+            assertEquals((long) entry.getValue(), algorithm.run().getFinishTime());
+        }
+
+        // On 3 processors the fork-join graph reaches some schedules more than once, and the table skips them
+        TaskModel taskModel = new FileParser(new File(Run.class.getResource("2p_Fork_Join_Nodes_10_CCR_1.01_WeightType_Random.dot").toURI())).getTaskModelFromFile();
+        DFSAlgorithmFork algorithm = new DFSAlgorithmFork(taskModel, 3, 1, 1 << 16);
+        assertEquals(50, algorithm.run().getFinishTime());
+        assertTrue(algorithm.getDuplicatesSkipped() > 0);
+        DFSAlgorithmFork withoutTable = new DFSAlgorithmFork(taskModel, 3, 1);
+        withoutTable.run();
+        assertTrue(algorithm.getNumBranches() < withoutTable.getNumBranches());
+    }
+
+    @Test
+    public void testForkIsDeterministic() throws URISyntaxException, FileNotFoundException {
+        String[] inputs = {"Nodes_11_OutTree.dot", "2p_OutTree-Balanced-MaxBf-3_Nodes_10_CCR_0.10_WeightType_Random.dot"};
+        for (String input : inputs) {
+            System.out.println("Testing " + input + "...");
+            TaskModel taskModel = new FileParser(new File(Run.class.getResource(input).toURI())).getTaskModelFromFile();
+            String firstSchedule = null;
+            long firstBranches = 0;
+            for (int cores : new int[]{1, 4, 4}) {
+                DFSAlgorithmFork algorithm = new DFSAlgorithmFork(taskModel, 2, cores);
+                algorithm.setDeterministic(true);
+                ISchedule schedule = algorithm.run();
+                assertEquals((long) correctAnswers.get(input), schedule.getFinishTime());
+
+                // Where and when every task starts, so the schedules can be compared exactly
+                StringBuilder placement = new StringBuilder();
+                for (Task task : taskModel.getTaskArray()) {
+                    placement.append(task.getName()).append(':').append(schedule.getProcessorOf(task).getId())
+                            .append('@').append(schedule.getStartTimeOf(task)).append(' ');
+                }
+                if (firstSchedule == null) {
+                    firstSchedule = placement.toString();
+                    firstBranches = algorithm.getNumBranches();
+                }
+                assertEquals(firstSchedule, placement.toString());
+                assertEquals(firstBranches, algorithm.getNumBranches());
+            }
+        }
+    }
+
+    @Test
+    public void testForkRunsAtTheSameTime() throws Exception {
+        String[] inputs = {"Nodes_11_OutTree.dot", "2p_InTree-Balanced-MaxBf-3_Nodes_10_CCR_0.10_WeightType_Random.dot"};
+        DFSAlgorithmFork[] algorithms = new DFSAlgorithmFork[inputs.length];
+        Thread[] threads = new Thread[inputs.length];
+        for (int i = 0; i < inputs.length; i++) {
+            algorithms[i] = new DFSAlgorithmFork(new FileParser(new File(Run.class.getResource(inputs[i]).toURI())).getTaskModelFromFile(), 2, 2);
+            threads[i] = new Thread(algorithms[i]::run);
+            threads[i].start();
+        }
+        for (int i = 0; i < inputs.length; i++) {
+            threads[i].join();
+            assertEquals((long) correctAnswers.get(inputs[i]), algorithms[i].getBestSchedule().getFinishTime());
+        }
+    }
+
+    @Test
+    public void testForkSplitIntoWorkUnits() throws URISyntaxException, FileNotFoundException {
+        // Searching every unit of the split, one at a time, is the same as searching the whole tree
+        for (Map.Entry<String, Integer> entry: correctAnswers.entrySet()) {
+            System.out.println("Testing " + entry.getKey() + "...");
+            TaskModel taskModel = new FileParser(new File(Run.class.getResource(entry.getKey()).toURI())).getTaskModelFromFile();
+            DFSAlgorithmFork algorithm = new DFSAlgorithmFork(taskModel, 2, 2);
+            for (WorkUnit unit : algorithm.split()) {
+                algorithm.search(unit);
+            }
+            ISchedule schedule = algorithm.getBestSchedule();
+            new ScheduleValidator(schedule).validate(taskModel);
+            assertEquals((long) entry.getValue(), schedule.getFinishTime());
+        }
+    }
+
+    @Test
+    public void testCheckpointAndResume() throws URISyntaxException, IOException {
+        String input = "Nodes_11_OutTree.dot";
+        int optimal = correctAnswers.get(input);
+        TaskModel taskModel = new FileParser(new File(Run.class.getResource(input).toURI())).getTaskModelFromFile();
+        File file = File.createTempFile("checkpoint", ".bin");
+        file.deleteOnExit();
+
+        // Stopped before it starts, every subtree is left for the resumed search
+        DFSAlgorithmFork stopped = new DFSAlgorithmFork(taskModel, 2, 2);
+        stopped.setCheckpoint(file, 1);
+        stopped.stop();
+        assertTrue(stopped.run().getFinishTime() >= optimal);
+        Checkpoint checkpoint = Checkpoint.read(file, taskModel, 2);
+        assertTrue(checkpoint.getUnits().size() > 0);
+
+        // The resumed search checkpoints every millisecond as it goes, and ends with nothing left to search
+        DFSAlgorithmFork resumed = new DFSAlgorithmFork(taskModel, 2, 2);
+        resumed.setCheckpoint(file, 1);
+        resumed.resume(checkpoint);
+        ISchedule schedule = resumed.run();
+        new ScheduleValidator(schedule).validate(taskModel);
+        assertEquals(optimal, schedule.getFinishTime());
+        assertTrue(resumed.isOptimal());
+
+        checkpoint = Checkpoint.read(file, taskModel, 2);
+        assertEquals(0, checkpoint.getUnits().size());
+        assertEquals(optimal, checkpoint.getBestSchedule().getFinishTime());
+        assertTrue(checkpoint.getNumBranches() >= resumed.getNumBranches());
+
+        // A checkpoint of a different search is not resumed
+        try {
+            Checkpoint.read(file, taskModel, 3);
+            fail();
+        } catch (IOException e) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void testInPlace() throws URISyntaxException, FileNotFoundException {
+        for (Map.Entry<String, Integer> entry: correctAnswers.entrySet()) {
+            System.out.println("Testing " + entry.getKey() + "...");
+            assertEquals((long) entry.getValue(), new DFSAlgorithmInPlace(new FileParser(new File(Run.class.getResource(entry.getKey()).toURI())).getTaskModelFromFile(), 2).run().getFinishTime());
+        }
+    }
+
+    @Test
+    public void testEachLowerBound() throws URISyntaxException, FileNotFoundException {
+        // Every bound on its own must still give the optimal schedule.  Only the smaller graphs,
+        // as some bounds alone prune too little to search the bigger ones quickly.
+        String[] inputs = {"2p_Fork_Nodes_10_CCR_0.10_WeightType_Random.dot", "Nodes_7_OutTree.dot",
+                "Nodes_8_Random.dot", "Nodes_9_SeriesParallel.dot", "Nodes_10_Random.dot"};
+        for (String bound : CombinedBound.NAMES) {
+            for (String input: inputs) {
+                System.out.println("Testing " + input + " with " + bound + "...");
+                TaskModel taskModel = new FileParser(new File(Run.class.getResource(input).toURI())).getTaskModelFromFile();
+                IAlgorithm algorithm = new DFSAlgorithmInPlace(taskModel, 2);
+                algorithm.setLowerBound(CombinedBound.fromNames(bound, taskModel));
+                assertEquals((long) correctAnswers.get(input), algorithm.run().getFinishTime());
+            }
+        }
+    }
+
+    @Test
+    public void testEachChildOrder() throws URISyntaxException, FileNotFoundException {
+        // The order children are searched in must never change the answer.  On 4 processors the
+        // pruning in the depth first searches depends on more of the order, so check that too.
+        for (ChildOrder order : ChildOrder.values()) {
+            for (String input : correctAnswers.keySet()) {
+                System.out.println("Testing " + input + " with " + order.getName() + "...");
+                TaskModel taskModel = new FileParser(new File(Run.class.getResource(input).toURI())).getTaskModelFromFile();
+                IAlgorithm[] algorithms = {new DFSAlgorithmInPlace(taskModel, 2), new DFSAlgorithmFork(taskModel, 2, 4)};
+                for (IAlgorithm algorithm : algorithms) {
+                    algorithm.setChildOrder(order);
+                    assertEquals((long) correctAnswers.get(input), algorithm.run().getFinishTime());
+                }
+            }
+
+            TaskModel taskModel = new FileParser(new File(Run.class.getResource("2p_Fork_Join_Nodes_10_CCR_1.01_WeightType_Random.dot").toURI())).getTaskModelFromFile();
+            IAlgorithm[] algorithms = {new DFSAlgorithm(taskModel, 4), new DFSAlgorithmInPlace(taskModel, 4), new DFSAlgorithmFork(taskModel, 4, 4)};
+            for (IAlgorithm algorithm : algorithms) {
+                algorithm.setChildOrder(order);
+                assertEquals(45, algorithm.run().getFinishTime());
+            }
+        }
+    }
+
+    @Test
+    public void testStoppedSearchReturnsBestSoFar() throws URISyntaxException, FileNotFoundException {
+        String input = "Nodes_11_OutTree.dot";
+        int optimal = correctAnswers.get(input);
+        TaskModel taskModel = new FileParser(new File(Run.class.getResource(input).toURI())).getTaskModelFromFile();
+        IAlgorithm[] algorithms = {new DFSAlgorithmFork(taskModel, 2, 1), new DFSAlgorithmInPlace(taskModel, 2),
+                new AStarAlgorithm(taskModel, 2), new HDAStarAlgorithm(taskModel, 2, 4), new SMAStarAlgorithm(taskModel, 2), new IDAStarAlgorithm(taskModel, 2),
+                new AllocationOrderingAlgorithm(taskModel, 2)};
+        for (IAlgorithm algorithm : algorithms) {
+            // Stopping before the search starts leaves only the heuristic schedule
+            algorithm.stop();
+            ISchedule schedule = algorithm.run();
+            new ScheduleValidator(schedule).validate(taskModel);
+            assertTrue(schedule.getFinishTime() >= optimal);
+            assertTrue(algorithm.getLowerBound() <= optimal);
+        }
+
+        IAlgorithm algorithm = new DFSAlgorithmInPlace(taskModel, 2);
+        assertEquals(optimal, algorithm.run().getFinishTime());
+        assertEquals(optimal, algorithm.getLowerBound());
+        assertTrue(algorithm.isOptimal());
+    }
+
+    @Test
+    public void testAStar() throws URISyntaxException, FileNotFoundException {
+        for (Map.Entry<String, Integer> entry: correctAnswers.entrySet()) {
+            System.out.println("Testing " + entry.getKey() + "...");
+            assertEquals((long) entry.getValue(), new AStarAlgorithm(new FileParser(new File(Run.class.getResource(entry.getKey()).toURI())).getTaskModelFromFile(), 2).run().getFinishTime());
+        }
+    }
+
+    @Test
+    public void testHDAStar() throws URISyntaxException, FileNotFoundException {
+        // More workers than cores, so schedules are passed between threads however many cores there are
+        for (Map.Entry<String, Integer> entry: correctAnswers.entrySet()) {
+            System.out.println("Testing " + entry.getKey() + "...");
+            assertEquals((long) entry.getValue(), new HDAStarAlgorithm(new FileParser(new File(Run.class.getResource(entry.getKey()).toURI())).getTaskModelFromFile(), 2, 4).run().getFinishTime());
+        }
+    }
+
+    @Test
+    public void testSMAStarWithSmallBudget() throws URISyntaxException, FileNotFoundException {
+        // Only the smaller graphs, as a tiny budget makes the search regenerate a lot of schedules
+        String[] inputs = {"Nodes_7_OutTree.dot", "Nodes_8_Random.dot", "Nodes_9_SeriesParallel.dot", "Nodes_10_Random.dot"};
+        for (String input: inputs) {
+            System.out.println("Testing " + input + "...");
+            SMAStarAlgorithm algorithm = new SMAStarAlgorithm(new FileParser(new File(Run.class.getResource(input).toURI())).getTaskModelFromFile(), 2, 200);
+            assertEquals((long) correctAnswers.get(input), algorithm.run().getFinishTime());
+        }
+    }
+
+    @Test(timeout = 60000) // A search that never finishes would otherwise hang the build
+    public void testSMAStarWithSmallestBudget() throws URISyntaxException, FileNotFoundException {
+        // A budget of 0 is raised to the smallest one the search can work in
+        String[] inputs = {"Nodes_7_OutTree.dot", "Nodes_9_SeriesParallel.dot", "Nodes_10_Random.dot"};
+        for (String input: inputs) {
+            System.out.println("Testing " + input + "...");
+            SMAStarAlgorithm algorithm = new SMAStarAlgorithm(new FileParser(new File(Run.class.getResource(input).toURI())).getTaskModelFromFile(), 2, 0);
+            assertEquals((long) correctAnswers.get(input), algorithm.run().getFinishTime());
+            assertTrue(algorithm.getDroppedStates() > 0);
+        }
+
+        // Forgetting how much its children cost made this graph search forever with less than 33
+        TaskModel taskModel = new TaskModel("smallest budget");
+        int[] weights = {5, 5, 2, 1, 4, 1, 3, 1};
+        for (int i = 0; i < weights.length; i++) {
+            taskModel.addTask(new Task(Integer.toString(i), weights[i]));
+        }
+        int[][] links = {{0, 2, 7}, {1, 7, 6}, {2, 6, 9}, {3, 6, 8}, {4, 7, 8}, {5, 7, 11}, {6, 7, 4}};
+        for (int[] link : links) {
+            taskModel.addDependency(taskModel.get(Integer.toString(link[0])), taskModel.get(Integer.toString(link[1])), link[2]);
+        }
+        taskModel.computeBottomLevels();
+        taskModel.freeze();
+        assertEquals(15, new SMAStarAlgorithm(taskModel, 2, 0).run().getFinishTime());
+    }
+
+    @Test
+    public void testIDAStar() throws URISyntaxException, FileNotFoundException {
+        String[] inputs = {"2p_InTree-Unbalanced-MaxBf-3_Nodes_10_CCR_0.10_WeightType_Random.dot",
+                "2p_OutTree-Balanced-MaxBf-3_Nodes_10_CCR_0.10_WeightType_Random.dot",
+                "Nodes_7_OutTree.dot", "Nodes_8_Random.dot", "Nodes_9_SeriesParallel.dot",
+                "Nodes_10_Random.dot", "Nodes_20_Random.dot"};
+        for (String input: inputs) {
+            System.out.println("Testing " + input + "...");
+            TaskModel taskModel = new FileParser(new File(Run.class.getResource(input).toURI())).getTaskModelFromFile();
+            IDAStarAlgorithm algorithm = new IDAStarAlgorithm(taskModel, 2);
+            assertEquals((long) correctAnswers.get(input), algorithm.run().getFinishTime());
+            assertTrue(algorithm.isOptimal());
+
+            // Every iteration should have raised the threshold, and none went as far as the heuristic's makespan,
+            // which is optimal once the threshold reaches it
+            List<IDAStarAlgorithm.Iteration> iterations = algorithm.getIterations();
+            int heuristicMakespan = Heuristics.getBestSchedule(taskModel, 2).getFinishTime();
+            for (int i = 0; i < iterations.size(); i++) {
+                if (i > 0) assertTrue(iterations.get(i).getThreshold() > iterations.get(i - 1).getThreshold());
+                assertTrue(iterations.get(i).getThreshold() < heuristicMakespan);
+                assertTrue(iterations.get(i).getThreshold() <= correctAnswers.get(input));
+            }
+        }
+    }
+
+    @Test
+    public void testAllocationOrdering() throws URISyntaxException, FileNotFoundException {
+        for (Map.Entry<String, Integer> entry: correctAnswers.entrySet()) {
+            System.out.println("Testing " + entry.getKey() + "...");
+            TaskModel taskModel = new FileParser(new File(Run.class.getResource(entry.getKey()).toURI())).getTaskModelFromFile();
+            ISchedule schedule = new AllocationOrderingAlgorithm(taskModel, 2).run();
+            new ScheduleValidator(schedule).validate(taskModel);
+            assertEquals((long) entry.getValue(), schedule.getFinishTime());
+        }
+
+        // With more processors, more of the allocations are normalised away
+        TaskModel taskModel = new FileParser(new File(Run.class.getResource("2p_Fork_Join_Nodes_10_CCR_1.01_WeightType_Random.dot").toURI())).getTaskModelFromFile();
+        assertEquals(45, new AllocationOrderingAlgorithm(taskModel, 4).run().getFinishTime());
+    }
 }
@@ -0,0 +1,54 @@
+package app;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TranspositionTableTest {
+
+    @Test
+    public void testDuplicateIsFound() {
+        TranspositionTable<String> table = new TranspositionTable<>(16);
+        assertTrue(table.add(0x123456789ABCDEF0L, 3, "a"));
+        assertFalse(table.add(0x123456789ABCDEF0L, 3, "a"));
+        assertTrue(table.add(0x0FEDCBA987654321L, 3, "b"));
+    }
+
+    @Test
+    public void testCollisionIsNotADuplicate() {
+        TranspositionTable<String> table = new TranspositionTable<>(16);
+        assertTrue(table.add(0x123456789ABCDEF0L, 3, "a"));
+        assertTrue(table.add(0x123456789ABCDEF0L, 3, "b"));
+        assertFalse(table.add(0x123456789ABCDEF0L, 3, "b"));
+        assertFalse(table.add(0x123456789ABCDEF0L, 3, "a"));
+    }
+
+    @Test
+    public void testSizeIsBounded() {
+        TranspositionTable<Long> table = new TranspositionTable<>(10);
+        assertEquals(16, table.getSize());
+
+        // Far more positions than fit all go in, and the table does not grow
+        for (long i = 1; i <= 1000; i++) {
+            table.add(i * 0x9E3779B97F4A7C15L, (int) (i % 20), i);
+        }
+        assertEquals(16, table.getSize());
+    }
+
+    @Test
+    public void testShallowPositionReplacesDeepOne() {
+        // A single bucket, so every position competes for the same entries
+        TranspositionTable<Long> table = new TranspositionTable<>(1);
+        for (long i = 1; i <= 4; i++) {
+            assertTrue(table.add(i << 32, 10, i));
+        }
+        assertTrue(table.add(5L << 32, 2, 5L));
+        assertFalse(table.add(5L << 32, 2, 5L));
+
+        // Something deeper than everything in the bucket does not get in
+        assertTrue(table.add(6L << 32, 20, 6L));
+        assertTrue(table.add(6L << 32, 20, 6L));
+    }
+}
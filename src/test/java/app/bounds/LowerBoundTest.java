@@ -0,0 +1,88 @@
+package app.bounds;
+
+import org.junit.Before;
+import org.junit.Test;
+import scheduleModel.IScheduler;
+import scheduleModel.ScheduleState;
+import scheduleModel.Scheduler;
+import taskModel.Task;
+import taskModel.TaskModel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LowerBoundTest {
+
+    private static final double DELTA = 1e-9;
+
+    private TaskModel taskModel;
+    private int ia, ib, ic;
+    private ScheduleState state;
+    private IScheduler scheduler;
+
+    @Before
+    public void setup() {
+        // a -> b (link cost 3), a -> c (link cost 1).  The best schedule on 2 processors takes 8.
+        taskModel = new TaskModel("test");
+        Task a = new Task("a", 2);
+        Task b = new Task("b", 3);
+        Task c = new Task("c", 4);
+        taskModel.addTask(a);
+        taskModel.addTask(b);
+        taskModel.addTask(c);
+        taskModel.addDependency(a, b, 3);
+        taskModel.addDependency(a, c, 1);
+        taskModel.computeBottomLevels(a);
+
+        ia = taskModel.indexOf(a);
+        ib = taskModel.indexOf(b);
+        ic = taskModel.indexOf(c);
+        state = new ScheduleState(taskModel, 2);
+        scheduler = new Scheduler();
+        scheduler.schedule(ia, 0, state);
+    }
+
+    @Test
+    public void testDataReadyTimeBound() {
+        // c can start at 2 on a's processor, and has 4 to go
+        assertEquals(6, new DataReadyTimeBound(taskModel).estimate(state), DELTA);
+    }
+
+    @Test
+    public void testCommunicationBound() {
+        assertEquals(6, new CommunicationBound(taskModel).estimate(state), DELTA);
+
+        // With c after a, b either waits for c or for the data from a
+        scheduler.schedule(ic, 0, state);
+        assertEquals(8, new CommunicationBound(taskModel).estimate(state), DELTA);
+    }
+
+    @Test
+    public void testRemainingWorkBound() {
+        // 7 left to do, spread over processors finishing at 2 and 0
+        assertEquals(4.5, new RemainingWorkBound(taskModel).estimate(state), DELTA);
+
+        // Everything left has to fit after the 6 on the first processor
+        scheduler.schedule(ic, 0, state);
+        assertEquals(6, new RemainingWorkBound(taskModel).estimate(state), DELTA);
+    }
+
+    @Test
+    public void testBoundsNeverExceedTheBestSchedule() {
+        scheduler.schedule(ic, 0, state);
+        scheduler.schedule(ib, 1, state);
+        assertEquals(8, state.getFinishTime());
+        assertTrue(CombinedBound.fromNames(CombinedBound.DEFAULT, taskModel).estimate(state) <= 8);
+    }
+
+    @Test
+    public void testCombinedBoundIsTheLargest() {
+        assertEquals(6, CombinedBound.fromNames("f2,load,drt", taskModel).estimate(state), DELTA);
+        assertEquals(4.5, CombinedBound.fromNames("load", taskModel).estimate(state), DELTA);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownBoundName() {
+        CombinedBound.fromNames("f1,nope", taskModel);
+    }
+}
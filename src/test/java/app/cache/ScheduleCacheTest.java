@@ -0,0 +1,123 @@
+package app.cache;
+
+import app.DFSAlgorithmInPlace;
+import app.Run;
+import app.ScheduleValidator;
+import fileIO.FileParser;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import scheduleModel.ISchedule;
+import taskModel.Task;
+import taskModel.TaskModel;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class ScheduleCacheTest {
+
+    // Deleted after each test, with the schedules the caches wrote into it
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private static TaskModel parse(String input) throws Exception {
+        return new FileParser(new File(Run.class.getResource(input).toURI())).getTaskModelFromFile();
+    }
+
+    // The same graph with other names, added in another order, with one link cost changed by extraCost
+    private static TaskModel rename(TaskModel taskModel, int extraCost) {
+        TaskModel renamed = new TaskModel("renamed");
+        List<Task> tasks = new ArrayList<>(taskModel.getTasks());
+        Collections.shuffle(tasks, new Random(306));
+        for (Task task : tasks) {
+            renamed.addTask(new Task("renamed" + task.getName(), task.getWeight()));
+        }
+        boolean changed = false;
+        for (Task task : tasks) {
+            for (Task child : task.getChildren()) {
+                int cost = task.getChildLinkCost(child);
+                if (!changed) {
+                    cost += extraCost;
+                    changed = true;
+                }
+                renamed.addDependency(renamed.get("renamed" + task.getName()), renamed.get("renamed" + child.getName()), cost);
+            }
+        }
+        return renamed;
+    }
+
+    private File newCacheDirectory() throws Exception {
+        return temporaryFolder.newFolder("cache");
+    }
+
+    @Test
+    public void testRenamedGraphHasTheSameForm() throws Exception {
+        String[] inputs = {"Nodes_7_OutTree.dot", "Nodes_10_Random.dot", "Nodes_11_OutTree.dot",
+                "2p_Fork_Nodes_10_CCR_0.10_WeightType_Random.dot", "Nodes_20_Random.dot"};
+        for (String input : inputs) {
+            TaskModel taskModel = parse(input);
+            assertArrayEquals(new CanonicalGraph(taskModel).getForm(), new CanonicalGraph(rename(taskModel, 0)).getForm());
+            assertFalse(Arrays.equals(new CanonicalGraph(taskModel).getForm(), new CanonicalGraph(rename(taskModel, 1)).getForm()));
+        }
+    }
+
+    @Test
+    public void testScheduleOfRenamedGraph() throws Exception {
+        TaskModel taskModel = parse("Nodes_11_OutTree.dot");
+        ISchedule schedule = new DFSAlgorithmInPlace(taskModel, 2).run();
+        File directory = newCacheDirectory();
+        try (ScheduleCache cache = new ScheduleCache(directory)) {
+            cache.put(new CanonicalGraph(taskModel), taskModel, 2, schedule);
+        }
+
+        // A new cache reads what the first one wrote
+        try (ScheduleCache cache = new ScheduleCache(directory)) {
+            TaskModel renamed = rename(taskModel, 0);
+            ISchedule cached = cache.get(new CanonicalGraph(renamed), renamed, 2);
+            assertNotNull(cached);
+            new ScheduleValidator(cached).validate(renamed);
+            assertEquals(350, cached.getFinishTime());
+
+            // Not for other processors, or other costs
+            assertNull(cache.get(new CanonicalGraph(renamed), renamed, 3));
+            TaskModel changed = rename(taskModel, 1);
+            assertNull(cache.get(new CanonicalGraph(changed), changed, 2));
+        }
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() throws Exception {
+        String[] inputs = {"Nodes_7_OutTree.dot", "Nodes_8_Random.dot", "Nodes_9_SeriesParallel.dot"};
+        List<TaskModel> taskModels = new ArrayList<>();
+        List<CanonicalGraph> graphs = new ArrayList<>();
+        for (String input : inputs) {
+            TaskModel taskModel = parse(input);
+            taskModels.add(taskModel);
+            graphs.add(new CanonicalGraph(taskModel));
+        }
+
+        try (ScheduleCache cache = new ScheduleCache(newCacheDirectory(), 2)) {
+            for (int i = 0; i < 2; i++) {
+                cache.put(graphs.get(i), taskModels.get(i), 2, new DFSAlgorithmInPlace(taskModels.get(i), 2).run());
+            }
+            assertNotNull(cache.get(graphs.get(0), taskModels.get(0), 2));
+
+            // The second graph has not been used for longest, so it makes room for the third
+            cache.put(graphs.get(2), taskModels.get(2), 2, new DFSAlgorithmInPlace(taskModels.get(2), 2).run());
+            assertEquals(2, cache.size());
+            assertNotNull(cache.get(graphs.get(0), taskModels.get(0), 2));
+            assertNull(cache.get(graphs.get(1), taskModels.get(1), 2));
+            assertNotNull(cache.get(graphs.get(2), taskModels.get(2), 2));
+        }
+    }
+}
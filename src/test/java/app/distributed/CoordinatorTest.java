@@ -0,0 +1,120 @@
+package app.distributed;
+
+import app.Run;
+import app.ScheduleValidator;
+import org.junit.Test;
+import scheduleModel.ISchedule;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CoordinatorTest {
+
+    private static String readGraph(String input) throws Exception {
+        return new String(Files.readAllBytes(Paths.get(Run.class.getResource(input).toURI())), StandardCharsets.UTF_8);
+    }
+
+    // Start a worker on a thread of its own, as if it were another process
+    private static Thread startWorker(int port) {
+        Thread thread = new Thread(() -> {
+            try {
+                new Worker("localhost", port, 2).run();
+            } catch (IOException e) {
+                // The search was over before this worker got to it
+            }
+        });
+        thread.start();
+        return thread;
+    }
+
+    @Test
+    public void testWorkersFindTheOptimalSchedule() throws Exception {
+        String[] inputs = {"Nodes_11_OutTree.dot", "2p_Fork_Join_Nodes_10_CCR_1.01_WeightType_Random.dot", "Nodes_10_Random.dot"};
+        int[] answers = {350, 59, 50};
+        for (int i = 0; i < inputs.length; i++) {
+            System.out.println("Testing " + inputs[i] + "...");
+            Coordinator coordinator = new Coordinator(readGraph(inputs[i]), 2, 0);
+            List<Thread> workers = new ArrayList<>();
+            for (int j = 0; j < 3; j++) {
+                workers.add(startWorker(coordinator.getPort()));
+            }
+
+            ISchedule schedule = coordinator.run();
+            new ScheduleValidator(schedule).validate(coordinator.getTaskModel());
+            assertEquals(answers[i], schedule.getFinishTime());
+            assertTrue(coordinator.isOptimal());
+            for (Thread worker : workers) {
+                worker.join();
+            }
+        }
+    }
+
+    @Test
+    public void testUnitOfDeadWorkerIsSearchedByAnother() throws Exception {
+        Coordinator coordinator = new Coordinator(readGraph("Nodes_11_OutTree.dot"), 2, 0);
+        Thread search = new Thread(coordinator::run);
+        search.start();
+
+        // A worker that takes a unit and dies without searching it
+        try (Socket socket = new Socket("localhost", coordinator.getPort())) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            assertEquals(Protocol.GRAPH, in.readByte());
+            Protocol.readGraph(in);
+            in.readInt();
+            byte type;
+            while ((type = in.readByte()) == Protocol.BOUND) {
+                Protocol.readSchedule(in, coordinator.getTaskModel(), 2);
+            }
+            assertEquals(Protocol.UNIT, type);
+        }
+
+        Thread worker = startWorker(coordinator.getPort());
+        search.join();
+        worker.join();
+        assertEquals(1, coordinator.getUnitsRequeued());
+        assertEquals(350, coordinator.getBestSchedule().getFinishTime());
+        assertTrue(coordinator.isOptimal());
+    }
+
+    @Test
+    public void testWorkerProcesses() throws Exception {
+        String input = "2p_InTree-Balanced-MaxBf-3_Nodes_10_CCR_0.10_WeightType_Random.dot";
+        Coordinator coordinator = new Coordinator(readGraph(input), 2, 0);
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        List<Process> workers = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            workers.add(new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                    Worker.class.getName(), "localhost", Integer.toString(coordinator.getPort()))
+                    .redirectErrorStream(true)
+                    .start());
+        }
+        // Only start once both have connected, so neither misses the whole search
+        List<BufferedReader> outputs = new ArrayList<>();
+        for (Process worker : workers) {
+            BufferedReader output = new BufferedReader(new InputStreamReader(worker.getInputStream(), StandardCharsets.UTF_8));
+            assertTrue(output.readLine().startsWith("Connected"));
+            outputs.add(output);
+        }
+
+        ISchedule schedule = coordinator.run();
+        assertEquals(222, schedule.getFinishTime());
+        for (int i = 0; i < workers.size(); i++) {
+            while (outputs.get(i).readLine() != null) {
+                // Let the worker finish writing
+            }
+            assertEquals(0, workers.get(i).waitFor());
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package app.heuristics;
+
+import app.Run;
+import app.ScheduleValidator;
+import fileIO.FileParser;
+import org.junit.Test;
+import scheduleModel.ScheduleState;
+import taskModel.TaskModel;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.net.URISyntaxException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class HeuristicsTest {
+
+    private TaskModel getTaskModel(String input) throws URISyntaxException, FileNotFoundException {
+        return new FileParser(new File(Run.class.getResource(input).toURI())).getTaskModelFromFile();
+    }
+
+    @Test
+    public void testEveryHeuristicMakesAValidSchedule() throws URISyntaxException, FileNotFoundException {
+        TaskModel taskModel = getTaskModel("Nodes_11_OutTree.dot");
+        ListScheduler[] listSchedulers = {
+                new BottomLevelScheduler(taskModel, 2),
+                new EarliestFinishScheduler(taskModel, 2),
+                new CriticalPathScheduler(taskModel, 2)};
+        for (ListScheduler listScheduler : listSchedulers) {
+            ScheduleState schedule = listScheduler.schedule();
+            assertTrue(schedule.isComplete());
+            new ScheduleValidator(schedule.asSchedule()).validate(taskModel);
+
+            // Optimal makespan of this graph on 2 processors
+            assertTrue(schedule.getFinishTime() >= 350);
+        }
+    }
+
+    @Test
+    public void testBestScheduleIsTheSmallest() throws URISyntaxException, FileNotFoundException {
+        TaskModel taskModel = getTaskModel("Nodes_20_Random.dot");
+        int best = Heuristics.getBestSchedule(taskModel, 2).getFinishTime();
+        assertEquals(best, Math.min(new BottomLevelScheduler(taskModel, 2).schedule().getFinishTime(),
+                Math.min(new EarliestFinishScheduler(taskModel, 2).schedule().getFinishTime(),
+                        new CriticalPathScheduler(taskModel, 2).schedule().getFinishTime())));
+        assertTrue(best >= 564);
+    }
+}
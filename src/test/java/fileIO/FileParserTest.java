@@ -8,10 +8,14 @@ import org.junit.Test;
 
 import java.io.*;
 import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.List;
 
 import static junit.framework.TestCase.assertEquals;
 import static junit.framework.TestCase.fail;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
@@ -55,6 +59,38 @@ public class FileParserTest {
         assertEquals(inEdges, 6);
     }
 
+    /**
+     * Test that the tasks are numbered and the parent and child arrays match the edges
+     */
+    @Test
+    public void testTaskIndicesAndLinks() {
+        Task[] tasks = taskModel.getTaskArray();
+        int[] parentStarts = taskModel.getParentStarts();
+        int[] parents = taskModel.getParents();
+        int[] parentCosts = taskModel.getParentCosts();
+        int[] childStarts = taskModel.getChildStarts();
+
+        for (int i = 0; i < tasks.length; i++) {
+            assertEquals(i, tasks[i].getIndex());
+            assertEquals(tasks[i].getParents().size(), parentStarts[i + 1] - parentStarts[i]);
+            assertEquals(tasks[i].getChildren().size(), childStarts[i + 1] - childStarts[i]);
+            for (int j = parentStarts[i]; j < parentStarts[i + 1]; j++) {
+                Task parent = tasks[parents[j]];
+                assertTrue(tasks[i].getParents().contains(parent));
+                assertEquals(tasks[i].getParentLinkCost(parent), parentCosts[j]);
+            }
+        }
+        assertEquals(6, parents.length);
+    }
+
+    /**
+     * Test that the model cannot be changed once it has been frozen
+     */
+    @Test(expected = IllegalStateException.class)
+    public void testFrozenModel() {
+        taskModel.addTask(new Task("h", 1));
+    }
+
     /**
      * Test that a given node exists (general case)
      */
@@ -130,4 +166,80 @@ public class FileParserTest {
         assertEquals(7, t5.getBottomLevel());
         assertEquals(7, t6.getBottomLevel());
     }
-}
\ No newline at end of file
+
+    private static TaskModel parse(String graph) {
+        FileParser parser = new FileParser(new ByteArrayInputStream(graph.getBytes(StandardCharsets.UTF_8)));
+        return parser.getTaskModelFromFile();
+    }
+
+    /**
+     * Test the parts of DOT the streaming parser reads besides plain nodes and edges
+     */
+    @Test
+    public void testStreamingParserSyntax() {
+        TaskModel model = parse("/* A graph */ strict digraph \"a \\\"quoted\\\" graph\" {\n"
+                + "  rankdir = LR; // a graph attribute\n"
+                + "  graph [label=\"tasks\"]\n"
+                + "  a -> \"b c\" -> d [Weight=3, color=red];\n"
+                + "# a line the C preprocessor would skip\n"
+                + "  a [Weight=1]; \"b c\" [label=\"b, c\" Weight=2]; d [Weight=4]\n"
+                + "}\n");
+        assertEquals("a \"quoted\" graph", model.getGraphId());
+        assertEquals(3, model.getTaskModelSize());
+        assertEquals(3, model.get("a").getChildLinkCost(model.get("b c")));
+        assertEquals(3, model.get("b c").getChildLinkCost(model.get("d")));
+        assertEquals(2, model.get("b c").getWeight());
+        assertEquals(1 + 2 + 4, model.get("a").getBottomLevel());
+    }
+
+    /**
+     * Test that the streaming parser stops at anything it does not understand
+     */
+    @Test
+    public void testStreamingParserRejects() {
+        String[] graphs = {"graph g { a [Weight=1]; }", "digraph g { node [Weight=1]; a; }",
+                "digraph g { subgraph s { a [Weight=1]; } }", "digraph g { a [Weight=1.5]; }",
+                "digraph g { a [Weight=1]; a -> b [Weight=1]; }", "digraph g { a [Weight=1]; "};
+        for (String graph : graphs) {
+            try {
+                new StreamingDotParser(ByteBuffer.wrap(graph.getBytes(StandardCharsets.UTF_8))).parse();
+                fail(graph);
+            } catch (StreamingDotParser.DotSyntaxException e) {
+                // Expected
+            }
+        }
+    }
+
+    /**
+     * Test that a graph the streaming parser cannot read is read by the full parser, and that both
+     * read every example graph the same way
+     */
+    @Test
+    public void testFallbackToFullParser() throws Exception {
+        File[] files = file.getParentFile().listFiles((directory, name) -> name.endsWith(".dot"));
+        for (File example : files) {
+            String graph = new String(Files.readAllBytes(example.toPath()), StandardCharsets.UTF_8);
+            FileParser streaming = new FileParser(example);
+            TaskModel streamed = streaming.getTaskModelFromFile();
+            assertFalse(streaming.getStatistics().contains("full DOT parser"));
+
+            // Default node attributes are only understood by the full parser
+            FileParser full = new FileParser(new ByteArrayInputStream(
+                    graph.replaceFirst("\\{", "{ node [shape=box];").getBytes(StandardCharsets.UTF_8)));
+            TaskModel fallback = full.getTaskModelFromFile();
+            assertTrue(full.getStatistics().contains("full DOT parser"));
+
+            assertEquals(streamed.getGraphId(), fallback.getGraphId());
+            assertEquals(streamed.getTaskModelSize(), fallback.getTaskModelSize());
+            assertArrayEquals(streamed.getBottomLevels(), fallback.getBottomLevels());
+            for (Task task : streamed.getTasks()) {
+                Task same = fallback.get(task.getName());
+                assertEquals(task.getWeight(), same.getWeight());
+                assertEquals(task.getChildren(), same.getChildren());
+                for (Task child : task.getChildren()) {
+                    assertEquals(task.getChildLinkCost(child), same.getChildLinkCost(child));
+                }
+            }
+        }
+    }
+}
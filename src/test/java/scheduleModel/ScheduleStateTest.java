@@ -0,0 +1,137 @@
+package scheduleModel;
+
+import org.junit.Before;
+import org.junit.Test;
+import taskModel.Task;
+import taskModel.TaskModel;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ScheduleStateTest {
+
+    private TaskModel taskModel;
+    private Task a, b, c;
+    private int ia, ib, ic;
+    private ScheduleState state;
+    private IScheduler scheduler;
+
+    @Before
+    public void setup() {
+        // a -> b (link cost 3), a -> c (link cost 1)
+        taskModel = new TaskModel("test");
+        a = new Task("a", 2);
+        b = new Task("b", 3);
+        c = new Task("c", 4);
+        taskModel.addTask(a);
+        taskModel.addTask(b);
+        taskModel.addTask(c);
+        taskModel.addDependency(a, b, 3);
+        taskModel.addDependency(a, c, 1);
+        taskModel.computeBottomLevels(a);
+
+        ia = taskModel.indexOf(a);
+        ib = taskModel.indexOf(b);
+        ic = taskModel.indexOf(c);
+        state = new ScheduleState(taskModel, 2);
+        scheduler = new Scheduler();
+    }
+
+    @Test
+    public void testEarliestStartTime() {
+        scheduler.schedule(ia, 0, state);
+        assertEquals(2, scheduler.getEarliestStartTime(ib, 0, state));
+        assertEquals(5, scheduler.getEarliestStartTime(ib, 1, state));
+        assertEquals(3, scheduler.getEarliestStartTime(ic, 1, state));
+    }
+
+    @Test
+    public void testScheduleAndRemove() {
+        scheduler.schedule(ia, 0, state);
+        scheduler.schedule(ic, 0, state);
+        scheduler.schedule(ib, 1, state);
+        assertTrue(state.isComplete());
+        assertEquals(8, state.getFinishTime());
+        assertEquals(5, state.getIdleTime());
+
+        state.remove(ib);
+        assertFalse(state.isScheduled(ib));
+        assertTrue(state.isEmpty(1));
+        assertEquals(6, state.getFinishTime());
+        assertEquals(0, state.getIdleTime());
+        assertEquals(6, state.f1());
+    }
+
+    @Test
+    public void testCopyModification() {
+        scheduler.schedule(ia, 0, state);
+        ScheduleState copy = state.copy();
+        scheduler.schedule(ib, 0, copy);
+        assertTrue(copy.isScheduled(ib));
+        assertFalse(state.isScheduled(ib));
+        assertNotEquals(state, copy);
+
+        state.remove(ia);
+        copy.remove(ib);
+        copy.remove(ia);
+        assertEquals(state, copy);
+        assertEquals(state.hashCode(), copy.hashCode());
+    }
+
+    @Test
+    public void testView() {
+        scheduler.schedule(ia, 0, state);
+        scheduler.schedule(ib, 1, state);
+        ISchedule view = state.asSchedule();
+
+        List<IProcessor> processors = view.getProcessors();
+        assertEquals(2, processors.size());
+        assertSame(processors.get(1), view.getProcessorOf(b));
+        assertEquals(2, processors.get(1).getId());
+        assertEquals(5, view.getStartTimeOf(b));
+        assertEquals(8, view.getFinishTime());
+        assertTrue(view.contains(a));
+        assertFalse(view.contains(c));
+        assertEquals(1, processors.get(0).getTasks().size());
+
+        // Changes through the view are made to the state
+        view.schedule(c, processors.get(0), 2);
+        assertTrue(state.isScheduled(ic));
+        assertEquals(2, state.getStartTimeOf(ic));
+    }
+
+    @Test
+    public void testSymmetricSchedulesAreEqual() {
+        ScheduleState other = new ScheduleState(taskModel, 2);
+        scheduler.schedule(ia, 0, state);
+        scheduler.schedule(ib, 0, state);
+        scheduler.schedule(ia, 1, other);
+        scheduler.schedule(ib, 1, other);
+        assertEquals(state, other);
+        assertEquals(state.getSignature(), other.getSignature());
+
+        // Same tasks on the same processors, but at different times
+        scheduler.schedule(ic, 0, state);
+        scheduler.schedule(ic, 0, other);
+        assertNotEquals(state, other);
+        assertNotEquals(state.getSignature(), other.getSignature());
+    }
+
+    @Test
+    public void testSignatureIsRestoredByRemove() {
+        long empty = state.getSignature();
+        scheduler.schedule(ia, 0, state);
+        long withA = state.getSignature();
+        scheduler.schedule(ic, 1, state);
+        state.remove(ic);
+        assertEquals(withA, state.getSignature());
+        state.remove(ia);
+        assertEquals(empty, state.getSignature());
+    }
+
+    @Test(expected = IncorrectArgumentsException.class)
+    public void testRemoveUnscheduledTask() {
+        state.remove(ia);
+    }
+}
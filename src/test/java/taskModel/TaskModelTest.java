@@ -0,0 +1,59 @@
+package taskModel;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class TaskModelTest {
+
+    private TaskModel taskModel;
+    private Task a, b, c, d, e;
+
+    @Before
+    public void setup() {
+        // a forks into b, c, d and e.  b and c are the same, d has a different
+        // link cost and e has a different weight.
+        taskModel = new TaskModel("test");
+        a = new Task("a", 5);
+        b = new Task("b", 3);
+        c = new Task("c", 3);
+        d = new Task("d", 3);
+        e = new Task("e", 4);
+        for (Task task : new Task[]{a, b, c, d, e}) {
+            taskModel.addTask(task);
+        }
+        taskModel.addDependency(a, b, 2);
+        taskModel.addDependency(a, c, 2);
+        taskModel.addDependency(a, d, 1);
+        taskModel.addDependency(a, e, 2);
+        taskModel.computeBottomLevels(a);
+    }
+
+    @Test
+    public void testEquivalentTasks() {
+        int[] equivalentPredecessors = taskModel.getEquivalentPredecessors();
+
+        // One of b and c comes first, and the other has to wait for it
+        int first = Math.min(b.getIndex(), c.getIndex());
+        int second = Math.max(b.getIndex(), c.getIndex());
+        assertEquals(TaskModel.NO_TASK, equivalentPredecessors[first]);
+        assertEquals(first, equivalentPredecessors[second]);
+
+        assertEquals(TaskModel.NO_TASK, equivalentPredecessors[a.getIndex()]);
+        assertEquals(TaskModel.NO_TASK, equivalentPredecessors[d.getIndex()]);
+        assertEquals(TaskModel.NO_TASK, equivalentPredecessors[e.getIndex()]);
+    }
+
+    @Test
+    public void testTasksAreOrderedByBottomLevel() {
+        Task[] tasks = taskModel.getTaskArray();
+        assertEquals(a, tasks[0]);
+        assertEquals(e, tasks[1]);
+        for (int i = 0; i < tasks.length; i++) {
+            assertEquals(i, tasks[i].getIndex());
+            assertEquals(i, taskModel.indexOf(tasks[i]));
+        }
+        assertEquals(2, taskModel.indexOf(new Task(tasks[2].getName(), 3)));
+    }
+}